@@ -0,0 +1,256 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.client;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaNotRegisteredMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.avro.Schema;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRegistrationException;
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+import com.ericsson.component.aia.model.registry.impl.LookupResults;
+import com.ericsson.component.aia.model.registry.impl.RegisteredSchema;
+import com.ericsson.component.aia.model.registry.impl.SubjectVersion;
+
+/**
+ * Operations offered by every schema registry client. Operations added after the first release have default implementations built on the
+ * original ones, so that existing implementations keep compiling. Declared apart from {@link SchemaRegistryClient} because initializing a class
+ * also initializes the interfaces it implements that declare default methods, which must not create {@link SchemaRegistryClient#INSTANCE}.
+ */
+public interface SchemaRegistryOperations {
+
+    /**
+     * Queries schema registry for a schema with the specified {@code schemaId}.
+     *
+     * @param schemaId
+     *            the unique identifier for the schema.
+     * @return the schema containing that schema id.
+     * @throws SchemaRetrievalException
+     *             if no schema with that id exists or if the registry is unavailable.
+     */
+    Schema lookup(final long schemaId) throws SchemaRetrievalException;
+
+    /**
+     * Queries schema registry for the JSON of the schema with the specified {@code schemaId}, without parsing it. Intended for callers that pass
+     * schemas through to other systems. The default implementation renders the JSON of the schema returned by {@link #lookup(long)}.
+     *
+     * @param schemaId
+     *            the unique identifier for the schema.
+     * @return the UTF-8 encoded JSON of the schema containing that schema id.
+     * @throws SchemaRetrievalException
+     *             if no schema with that id exists or if the registry is unavailable.
+     */
+    default byte[] lookupRaw(final long schemaId) throws SchemaRetrievalException {
+        return lookup(schemaId).toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Queries schema registry for the latest version of the schema with the specified {@code subject}. Returns a {@link RegisteredSchema} instance,
+     * which contains the avro schema and its associated schemaId.
+     *
+     * @param subject
+     *            the subject for a schema.
+     * @return the latest version of the schema registered under that subject wrapped in a registeredSchema object.
+     * @throws SchemaRetrievalException
+     *             if no schema under that subject exists or if the registry is unavailable.
+     */
+    RegisteredSchema lookup(final String subject) throws SchemaRetrievalException;
+
+    /**
+     * Queries schema registry for the specified {@code version} of the schema with the specified {@code subject}. The default implementation
+     * throws {@link UnsupportedOperationException}, as the original operations do not expose versions.
+     *
+     * @param subject
+     *            the subject for a schema.
+     * @param version
+     *            the version of the schema under that subject.
+     * @return the schema registered as that version under that subject wrapped in a registeredSchema object.
+     * @throws SchemaRetrievalException
+     *             if no such version exists under that subject or if the registry is unavailable.
+     */
+    default RegisteredSchema lookup(final String subject, final int version) throws SchemaRetrievalException {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support versioned lookups");
+    }
+
+    /**
+     * Queries schema registry for the versions registered under the specified {@code subject}. The default implementation throws
+     * {@link UnsupportedOperationException}, as the original operations do not expose versions.
+     *
+     * @param subject
+     *            the subject for a schema.
+     * @return the versions registered under that subject, in ascending order.
+     * @throws SchemaRetrievalException
+     *             if no schema under that subject exists or if the registry is unavailable.
+     */
+    default List<Integer> versions(final String subject) throws SchemaRetrievalException {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support versioned lookups");
+    }
+
+    /**
+     * Returns the subject, and the version under that subject, of the schema with the specified {@code schemaId}. Ids already seen by the client
+     * are answered without querying the registry. The default implementation throws {@link UnsupportedOperationException}, as the original
+     * operations do not expose versions.
+     *
+     * @param schemaId
+     *            the unique identifier for the schema.
+     * @return the subject and version the schema is registered as. If the schema is registered under several subjects, one of them.
+     * @throws SchemaRetrievalException
+     *             if no schema with that id exists or if the registry is unavailable.
+     */
+    default SubjectVersion subjectOf(final long schemaId) throws SchemaRetrievalException {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support versioned lookups");
+    }
+
+    /**
+     * Registers the specified {@code schema} with schema registry under the relevant subject. Returns the schema id for that schema if the operation
+     * is successful. If the schema already exists in schema registry, the schema id of the existing schema will be returned, e.g. the schema in the
+     * registry will not be replaced by the specified {@code schema}.
+     *
+     * @param schema
+     *            to be registered.
+     * @return the schema id of the registered schema
+     * @throws SchemaRegistrationException
+     *             if the schema cannot be registered or if the registry is unavailable.
+     */
+    long put(final Schema schema) throws SchemaRegistrationException;
+
+    /**
+     * Returns the schema id under which the specified {@code schema} is registered, without registering it. Schemas the client already knows are
+     * answered without querying the registry. The default implementation only finds the schema if it is the latest version returned by
+     * {@link #lookup(String)} for its full name.
+     *
+     * @param schema
+     *            the schema.
+     * @return the schema id of the schema.
+     * @throws SchemaRetrievalException
+     *             if the schema is not registered under its subject or if the registry is unavailable.
+     */
+    default long idFor(final Schema schema) throws SchemaRetrievalException {
+        checkArgumentIsNotNull("schema", schema);
+        final RegisteredSchema registeredSchema = lookup(schema.getFullName());
+        if (!schema.equals(registeredSchema.getSchema())) {
+            throw new SchemaRetrievalException(getSchemaNotRegisteredMessage(schema));
+        }
+        return registeredSchema.getSchemaId();
+    }
+
+    /**
+     * Asynchronous variant of {@link #lookup(long)}. If the schema is already cached the returned future is already completed; otherwise the lookup
+     * runs on the client's executor. The default implementation runs {@link #lookup(long)} on the calling thread and returns a completed future.
+     *
+     * @param schemaId
+     *            the unique identifier for the schema.
+     * @return a future completed with the schema containing that schema id, or failed with a {@link SchemaRetrievalException} if no schema with
+     *         that id exists or if the registry is unavailable.
+     */
+    default CompletableFuture<Schema> lookupAsync(final long schemaId) {
+        final CompletableFuture<Schema> future = new CompletableFuture<>();
+        try {
+            future.complete(lookup(schemaId));
+        } catch (final SchemaRetrievalException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Asynchronous variant of {@link #lookup(String)}. If the subject is already cached the returned future is already completed; otherwise the
+     * lookup runs on the client's executor. The default implementation runs {@link #lookup(String)} on the calling thread and returns a completed
+     * future.
+     *
+     * @param subject
+     *            the subject for a schema.
+     * @return a future completed with the latest version of the schema registered under that subject, or failed with a
+     *         {@link SchemaRetrievalException} if no schema under that subject exists or if the registry is unavailable.
+     */
+    default CompletableFuture<RegisteredSchema> lookupAsync(final String subject) {
+        final CompletableFuture<RegisteredSchema> future = new CompletableFuture<>();
+        try {
+            future.complete(lookup(subject));
+        } catch (final SchemaRetrievalException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Asynchronous variant of {@link #put(Schema)}. The registration runs on the client's executor. The default implementation runs
+     * {@link #put(Schema)} on the calling thread and returns a completed future.
+     *
+     * @param schema
+     *            to be registered.
+     * @return a future completed with the schema id of the registered schema, or failed with a {@link SchemaRegistrationException} if the schema
+     *         cannot be registered or if the registry is unavailable.
+     */
+    default CompletableFuture<Long> putAsync(final Schema schema) {
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+        try {
+            future.complete(put(schema));
+        } catch (final SchemaRegistrationException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Queries schema registry for the schemas with the specified {@code schemaIds}. Cached schemas are returned directly and the remaining ids are
+     * fetched concurrently. A failure to resolve one id does not fail the others. The default implementation looks the ids up one after the other
+     * with {@link #lookup(long)}.
+     *
+     * @param schemaIds
+     *            the unique identifiers of the schemas.
+     * @return the schemas found, by schema id, and a {@link SchemaRetrievalException} for each id that could not be resolved.
+     */
+    default LookupResults<Long, Schema> lookupAll(final Collection<Long> schemaIds) {
+        final Map<Long, Schema> found = new LinkedHashMap<>();
+        final Map<Long, SchemaRetrievalException> failures = new LinkedHashMap<>();
+        for (final Long schemaId : new LinkedHashSet<>(schemaIds)) {
+            try {
+                found.put(schemaId, lookup(schemaId));
+            } catch (final SchemaRetrievalException e) {
+                failures.put(schemaId, e);
+            }
+        }
+        return new LookupResults<>(found, failures);
+    }
+
+    /**
+     * Queries schema registry for the latest versions of the schemas with the specified {@code subjects}. Cached subjects are returned directly and
+     * the remaining subjects are fetched concurrently. A failure to resolve one subject does not fail the others. The default implementation looks
+     * the subjects up one after the other with {@link #lookup(String)}.
+     *
+     * @param subjects
+     *            the subjects of the schemas.
+     * @return the registered schemas found, by subject, and a {@link SchemaRetrievalException} for each subject that could not be resolved.
+     */
+    default LookupResults<String, RegisteredSchema> lookupAllSubjects(final Collection<String> subjects) {
+        final Map<String, RegisteredSchema> found = new LinkedHashMap<>();
+        final Map<String, SchemaRetrievalException> failures = new LinkedHashMap<>();
+        for (final String subject : new LinkedHashSet<>(subjects)) {
+            try {
+                found.put(subject, lookup(subject));
+            } catch (final SchemaRetrievalException e) {
+                failures.put(subject, e);
+            }
+        }
+        return new LookupResults<>(found, failures);
+    }
+}
@@ -41,4 +41,17 @@ public class SchemaRetrievalException extends Exception {
         super(message);
     }
 
+    /**
+     * Constructs SchemaRetrievalException with specified {@code message}, optionally without a stack trace. Used for failures answered from a
+     * cache, where the stack trace carries no information and filling it in is the dominant cost.
+     *
+     * @param message
+     *            detailing reason for exception.
+     * @param writableStackTrace
+     *            whether or not the stack trace should be filled in.
+     */
+    public SchemaRetrievalException(final String message, final boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
 }
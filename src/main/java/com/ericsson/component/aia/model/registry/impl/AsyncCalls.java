@@ -0,0 +1,91 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.concurrent.*;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Helpers for exposing blocking {@link RegistryCall}s through {@link CompletableFuture}s.
+ */
+final class AsyncCalls {
+
+    private AsyncCalls() {
+    }
+
+    /**
+     * Runs the specified {@code call} on {@code executor}.
+     *
+     * @param call
+     *            the blocking call.
+     * @param executor
+     *            the executor to run the call on.
+     * @param <V>
+     *            the result type.
+     * @param <E>
+     *            the checked exception the call may throw.
+     * @return a future completed with the result or failure of the call, or failed with a {@link RejectedExecutionException} if the executor
+     *         refused the call.
+     */
+    static <V, E extends Exception> CompletableFuture<V> supplyAsync(final RegistryCall<V, E> call, final Executor executor) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    complete(future, call);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Runs the specified {@code call} on the calling thread. Used where the call never blocks.
+     *
+     * @param call
+     *            the non-blocking call.
+     * @param <V>
+     *            the result type.
+     * @param <E>
+     *            the checked exception the call may throw.
+     * @return an already completed future holding the result or failure of the call.
+     */
+    static <V, E extends Exception> CompletableFuture<V> supplyNow(final RegistryCall<V, E> call) {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        complete(future, call);
+        return future;
+    }
+
+    /**
+     * Creates the default executor for asynchronous registry calls: a bounded pool of daemon threads.
+     *
+     * @param threads
+     *            the number of threads in the pool.
+     * @return the executor.
+     */
+    static ExecutorService newDefaultExecutor(final int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("schema-registry-async-%d").build());
+    }
+
+    private static <V, E extends Exception> void complete(final CompletableFuture<V> future, final RegistryCall<V, E> call) {
+        try {
+            future.complete(call.call());
+        } catch (final Exception | Error e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Resolves many keys with a bounded degree of parallelism. The calling thread works through the keys alongside up to {@code parallelism - 1}
+ * tasks submitted to the executor, so a bulk lookup always makes progress even if the executor is saturated, including by the caller itself.
+ */
+final class BulkLookup {
+
+    private BulkLookup() {
+    }
+
+    /**
+     * Resolves a single key.
+     *
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     */
+    interface Resolver<K, V> {
+
+        /**
+         * Returns the value for {@code key} if it can be answered from memory, without blocking.
+         *
+         * @param key
+         *            the key.
+         * @return the value, or null if resolving it needs a registry call.
+         */
+        V cached(K key);
+
+        /**
+         * Resolves {@code key}, calling the registry if necessary.
+         *
+         * @param key
+         *            the key.
+         * @return the value.
+         * @throws SchemaRetrievalException
+         *             if the key cannot be resolved.
+         */
+        V resolve(K key) throws SchemaRetrievalException;
+    }
+
+    /**
+     * Resolves every key in {@code keys}. Keys answered from memory are resolved inline; the rest are resolved concurrently.
+     *
+     * @param keys
+     *            the keys to resolve; duplicates are resolved once.
+     * @param resolver
+     *            resolves a single key.
+     * @param executor
+     *            runs the additional resolving tasks.
+     * @param parallelism
+     *            the maximum number of keys resolved at once, including by the calling thread.
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     * @return the values found and the failures, by key, in the order of {@code keys}.
+     */
+    static <K, V> LookupResults<K, V> lookupAll(final Collection<K> keys, final Resolver<K, V> resolver, final Executor executor,
+                                                  final int parallelism) {
+        final Set<K> uniqueKeys = new LinkedHashSet<>(keys);
+        if (uniqueKeys.contains(null)) {
+            throw new IllegalArgumentException("Argument 'keys' cannot contain null");
+        }
+        final Map<K, V> found = new ConcurrentHashMap<>();
+        final Map<K, SchemaRetrievalException> failures = new ConcurrentHashMap<>();
+        final Queue<K> misses = new ConcurrentLinkedQueue<>();
+        for (final K key : uniqueKeys) {
+            final V value = resolver.cached(key);
+            if (value == null) {
+                misses.add(key);
+            } else {
+                found.put(key, value);
+            }
+        }
+        if (!misses.isEmpty()) {
+            final CountDownLatch remaining = new CountDownLatch(misses.size());
+            final Runnable worker = new Runnable() {
+                @Override
+                public void run() {
+                    K key;
+                    while ((key = misses.poll()) != null) {
+                        try {
+                            found.put(key, resolver.resolve(key));
+                        } catch (final SchemaRetrievalException e) {
+                            failures.put(key, e);
+                        } catch (final RuntimeException e) {
+                            failures.put(key, new SchemaRetrievalException("Failed to retrieve schema for " + key, e));
+                        } finally {
+                            remaining.countDown();
+                        }
+                    }
+                }
+            };
+            final int helpers = Math.min(Math.max(1, parallelism), misses.size()) - 1;
+            for (int i = 0; i < helpers; i++) {
+                try {
+                    executor.execute(worker);
+                } catch (final RejectedExecutionException e) {
+                    break;
+                }
+            }
+            worker.run();
+            Uninterruptibles.awaitUninterruptibly(remaining);
+        }
+        return new LookupResults<>(inKeyOrder(uniqueKeys, found), inKeyOrder(uniqueKeys, failures));
+    }
+
+    private static <K, T> Map<K, T> inKeyOrder(final Set<K> keys, final Map<K, T> values) {
+        final Map<K, T> ordered = new LinkedHashMap<>();
+        for (final K key : keys) {
+            final T value = values.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+}
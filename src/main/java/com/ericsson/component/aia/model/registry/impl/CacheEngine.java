@@ -0,0 +1,204 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CACHE_ENGINE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CACHE_ENGINE_PARAMETER;
+
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Cache implementations selectable through the "restSchemaRegistryClient.cacheEngine" property. Every engine records statistics.
+ */
+enum CacheEngine {
+
+    /**
+     * Caffeine's W-TinyLFU: frequency-aware admission in front of a segmented LRU, so one-off scans do not flush frequently used entries.
+     */
+    TINY_LFU("tinylfu") {
+        @Override
+        <K, V> Cache<K, V> newCache(final long maximumSize, final RemovalListener<K, V> removalListener) {
+            final Caffeine<Object, Object> builder = caffeine().maximumSize(maximumSize);
+            if (null == removalListener) {
+                return CaffeinatedGuava.build(builder);
+            }
+            return CaffeinatedGuava.build(builder.removalListener(caffeineListener(removalListener)));
+        }
+
+        @Override
+        <K, V> Cache<K, V> newCache(final long maximumWeight, final long expectedSize, final Weigher<? super K, ? super V> weigher,
+                                    final RemovalListener<K, V> removalListener) {
+            final Caffeine<K, V> builder = caffeine().maximumWeight(maximumWeight).weigher(new com.github.benmanes.caffeine.cache.Weigher<K, V>() {
+                @Override
+                public int weigh(final K key, final V value) {
+                    return weigher.weigh(key, value);
+                }
+            });
+            if (null == removalListener) {
+                return CaffeinatedGuava.build(builder);
+            }
+            return CaffeinatedGuava.build(builder.removalListener(caffeineListener(removalListener)));
+        }
+    },
+
+    /**
+     * Guava's approximately least recently used eviction.
+     */
+    LRU("lru") {
+        @Override
+        <K, V> Cache<K, V> newCache(final long maximumSize, final RemovalListener<K, V> removalListener) {
+            final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats();
+            if (null == removalListener) {
+                return builder.build();
+            }
+            return builder.removalListener(removalListener).build();
+        }
+
+        @Override
+        <K, V> Cache<K, V> newCache(final long maximumWeight, final long expectedSize, final Weigher<? super K, ? super V> weigher,
+                                    final RemovalListener<K, V> removalListener) {
+            final CacheBuilder<K, V> builder = CacheBuilder.newBuilder().maximumWeight(maximumWeight).recordStats().<K, V> weigher(weigher);
+            if (null == removalListener) {
+                return builder.build();
+            }
+            return builder.removalListener(removalListener).build();
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheEngine.class);
+
+    private final String propertyValue;
+
+    CacheEngine(final String propertyValue) {
+        this.propertyValue = propertyValue;
+    }
+
+    /**
+     * @return a Caffeine builder recording statistics and doing its eviction on the calling thread, as Guava does, rather than on the common pool.
+     */
+    private static Caffeine<Object, Object> caffeine() {
+        return Caffeine.newBuilder().executor(MoreExecutors.directExecutor()).recordStats();
+    }
+
+    private static <K, V> com.github.benmanes.caffeine.cache.RemovalListener<K, V> caffeineListener(final RemovalListener<K, V> removalListener) {
+        return new com.github.benmanes.caffeine.cache.RemovalListener<K, V>() {
+            @Override
+            public void onRemoval(final K key, final V value, final com.github.benmanes.caffeine.cache.RemovalCause cause) {
+                removalListener.onRemoval(RemovalNotification.create(key, value, RemovalCause.valueOf(cause.name())));
+            }
+        };
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumSize
+     *            the maximum number of entries.
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     * @return the cache.
+     */
+    <K, V> Cache<K, V> newCache(final long maximumSize) {
+        return newCache(maximumSize, null);
+    }
+
+    /**
+     * Creates an empty cache notifying the specified {@code removalListener} of every entry evicted, replaced or invalidated, on the thread
+     * causing the removal.
+     *
+     * @param maximumSize
+     *            the maximum number of entries.
+     * @param removalListener
+     *            the listener, or null.
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     * @return the cache.
+     */
+    abstract <K, V> Cache<K, V> newCache(long maximumSize, RemovalListener<K, V> removalListener);
+
+    /**
+     * Creates an empty cache bounded by the total weight of its entries.
+     *
+     * @param maximumWeight
+     *            the maximum total weight of the entries.
+     * @param expectedSize
+     *            the number of entries the cache is expected to hold.
+     * @param weigher
+     *            the weigher computing the weight of an entry when it is written.
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     * @return the cache.
+     */
+    <K, V> Cache<K, V> newCache(final long maximumWeight, final long expectedSize, final Weigher<? super K, ? super V> weigher) {
+        return newCache(maximumWeight, expectedSize, weigher, null);
+    }
+
+    /**
+     * Creates an empty cache bounded by the total weight of its entries, notifying the specified {@code removalListener} of every entry evicted,
+     * replaced or invalidated, on the thread causing the removal.
+     *
+     * @param maximumWeight
+     *            the maximum total weight of the entries.
+     * @param expectedSize
+     *            the number of entries the cache is expected to hold.
+     * @param weigher
+     *            the weigher computing the weight of an entry when it is written.
+     * @param removalListener
+     *            the listener, or null.
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     * @return the cache.
+     */
+    abstract <K, V> Cache<K, V> newCache(long maximumWeight, long expectedSize, Weigher<? super K, ? super V> weigher,
+                                         RemovalListener<K, V> removalListener);
+
+    /**
+     * Returns the engine named by the "restSchemaRegistryClient.cacheEngine" property of the specified {@code properties}, falling back to the
+     * default engine if the property is missing or unknown.
+     *
+     * @param properties
+     *            the client properties.
+     * @return the cache engine.
+     */
+    static CacheEngine fromProperties(final Properties properties) {
+        final String value = properties.getProperty(REST_SCHEMA_REGISTRY_CLIENT_CACHE_ENGINE_PARAMETER, DEFAULT_REST_CLIENT_CACHE_ENGINE).trim();
+        for (final CacheEngine engine : values()) {
+            if (engine.propertyValue.equalsIgnoreCase(value)) {
+                return engine;
+            }
+        }
+        LOGGER.warn("Unknown value [{}] for property [{}], using default value [{}]", new Object[] { value,
+            REST_SCHEMA_REGISTRY_CLIENT_CACHE_ENGINE_PARAMETER, DEFAULT_REST_CLIENT_CACHE_ENGINE });
+        return TINY_LFU;
+    }
+}
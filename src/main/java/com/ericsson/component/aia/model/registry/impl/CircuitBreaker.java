@@ -0,0 +1,232 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Ticker;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * Circuit breaker guarding the requests sent to schema registry. The outcome of the latest requests is kept in a sliding window; a request counts
+ * as bad if the registry could not be reached, answered with a server error, or answered slower than the slow call threshold. Once the share of bad
+ * requests in the window reaches the failure rate threshold, the circuit opens and requests fail immediately with a {@link CircuitOpenException}
+ * instead of waiting for the registry.
+ *
+ * <p>
+ * After the open duration, the next request is let through as a probe while the circuit is half-open; the others keep failing immediately. A good
+ * probe closes the circuit, a bad one opens it again for another open duration, and so does a probe left unanswered beyond the probe timeout, so a
+ * hung request cannot keep the circuit half-open. Requests sent before the circuit opened may still complete while it is half-open; only the
+ * latest probe decides the next state. A failure rate threshold of zero disables the breaker.
+ */
+final class CircuitBreaker {
+
+    /**
+     * The states of the circuit.
+     */
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * What a request was let through as: {@link #REJECTED}, {@link #CALL}, or a probe, each probe being a new instance.
+     */
+    private static final class Permit {
+
+        private static final Permit REJECTED = new Permit();
+        private static final Permit CALL = new Permit();
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final int PERCENT = 100;
+    private static final int SERVER_ERROR = 500;
+    private static final int URL_NOT_FOUND = 404;
+
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final long probeTimeoutNanos;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final Ticker ticker;
+    private State state = State.CLOSED;
+    private int recordedCalls;
+    private int nextSlot;
+    private int badCalls;
+    private long openedAtNanos;
+    private Permit probe;
+    private long probeStartedAtNanos;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param failureRatePercent
+     *            the percentage of bad requests in the window at which the circuit opens, or zero to never open.
+     * @param slowCallMillis
+     *            the latency above which a successful request counts as bad, or zero to ignore latency.
+     * @param windowSize
+     *            the number of latest requests whose outcome is kept. The circuit does not open before half of them are recorded.
+     * @param openMillis
+     *            how long the circuit stays open before a probe is let through.
+     * @param probeTimeoutMillis
+     *            how long a probe may stay unanswered before the circuit opens again.
+     * @param ticker
+     *            the time source.
+     */
+    CircuitBreaker(final int failureRatePercent, final long slowCallMillis, final int windowSize, final long openMillis,
+                   final long probeTimeoutMillis, final Ticker ticker) {
+        this.failureRatePercent = Math.max(0, Math.min(PERCENT, failureRatePercent));
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, slowCallMillis));
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, window.length / 2);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMillis));
+        this.probeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, probeTimeoutMillis));
+        this.ticker = ticker;
+    }
+
+    /**
+     * Sends the specified {@code request} if the circuit lets it through, and records its outcome.
+     *
+     * @param request
+     *            the request.
+     * @param <V>
+     *            the result type.
+     * @return the registry answer.
+     * @throws CircuitOpenException
+     *             if the circuit is open and the request was not sent.
+     * @throws IOException
+     *             if the registry cannot be reached.
+     * @throws RestClientException
+     *             if the registry answers with an error.
+     */
+    <V> V call(final RegistryRequest<V> request) throws IOException, RestClientException {
+        final Permit permit = tryAcquire();
+        if (permit == Permit.REJECTED) {
+            throw new CircuitOpenException("Schema registry circuit breaker is open, request not sent");
+        }
+        final long startNanos = ticker.read();
+        try {
+            final V answer = request.send();
+            onComplete(permit, slowCallNanos > 0 && ticker.read() - startNanos > slowCallNanos);
+            return answer;
+        } catch (final IOException | RestClientException e) {
+            onComplete(permit, isUnavailable(e));
+            throw e;
+        } catch (final RuntimeException | Error e) {
+            onComplete(permit, true);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the current state of the circuit.
+     */
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @param exception
+     *            a failure of a registry request.
+     * @return true if the failure means the registry is unreachable or failing, rather than answering that something does not exist.
+     */
+    static boolean isUnavailable(final Exception exception) {
+        if (!(exception instanceof RestClientException)) {
+            return true;
+        }
+        final RestClientException restClientException = (RestClientException) exception;
+        return restClientException.getStatus() >= SERVER_ERROR || URL_NOT_FOUND == restClientException.getErrorCode();
+    }
+
+    private synchronized Permit tryAcquire() {
+        if (failureRatePercent == 0) {
+            return Permit.CALL;
+        }
+        switch (state) {
+            case CLOSED:
+                return Permit.CALL;
+            case OPEN:
+                if (ticker.read() - openedAtNanos < openNanos) {
+                    return Permit.REJECTED;
+                }
+                LOGGER.info("Schema registry circuit breaker half-open, sending probe request");
+                state = State.HALF_OPEN;
+                probe = new Permit();
+                probeStartedAtNanos = ticker.read();
+                return probe;
+            default:
+                if (ticker.read() - probeStartedAtNanos < probeTimeoutNanos) {
+                    return Permit.REJECTED;
+                }
+                LOGGER.warn("Schema registry probe request unanswered after {} ms", TimeUnit.NANOSECONDS.toMillis(probeTimeoutNanos));
+                open(probeStartedAtNanos + probeTimeoutNanos);
+                return tryAcquire();
+        }
+    }
+
+    private synchronized void onComplete(final Permit permit, final boolean bad) {
+        if (failureRatePercent == 0) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (permit != probe) {
+                return;
+            }
+            if (bad) {
+                LOGGER.warn("Schema registry probe request failed");
+                open(ticker.read());
+            } else {
+                LOGGER.info("Schema registry circuit breaker closed");
+                state = State.CLOSED;
+                resetWindow();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (window[nextSlot]) {
+            badCalls--;
+        }
+        window[nextSlot] = bad;
+        if (bad) {
+            badCalls++;
+        }
+        nextSlot = (nextSlot + 1) % window.length;
+        recordedCalls = Math.min(recordedCalls + 1, window.length);
+        if (recordedCalls >= minimumCalls && badCalls * PERCENT >= failureRatePercent * recordedCalls) {
+            LOGGER.warn("{} of the latest {} schema registry requests failed or were slow", badCalls, recordedCalls);
+            open(ticker.read());
+        }
+    }
+
+    private void open(final long nowNanos) {
+        LOGGER.warn("Schema registry circuit breaker open, requests fail immediately for the next {} ms", TimeUnit.NANOSECONDS.toMillis(openNanos));
+        state = State.OPEN;
+        openedAtNanos = nowNanos;
+        probe = null;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, false);
+        recordedCalls = 0;
+        nextSlot = 0;
+        badCalls = 0;
+    }
+}
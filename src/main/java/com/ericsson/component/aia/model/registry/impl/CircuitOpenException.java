@@ -0,0 +1,32 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request to schema registry while the {@link CircuitBreaker} guarding it is open.
+ */
+class CircuitOpenException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an exception.
+     *
+     * @param message
+     *            the detail message.
+     */
+    CircuitOpenException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,82 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.Collection;
+
+/**
+ * Storage for the raw JSON of schemas that are not held parsed on heap, keyed by schema id. Schema ids are immutable, so an id is never stored with
+ * different JSON.
+ */
+interface ColdSchemaTier {
+
+    /**
+     * Returns the JSON stored for the specified {@code schemaId}.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @return the UTF-8 encoded schema JSON, or null if it is not stored.
+     */
+    byte[] get(long schemaId);
+
+    /**
+     * Stores the JSON of the schema with the specified {@code schemaId}, unless it is already stored.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @param rawSchema
+     *            the UTF-8 encoded schema JSON.
+     * @return true if the JSON is stored after the call, false if the tier had no room for it.
+     */
+    boolean put(long schemaId, byte[] rawSchema);
+
+    /**
+     * @param schemaId
+     *            the schema id.
+     * @return true if JSON is stored for the specified {@code schemaId}.
+     */
+    boolean contains(long schemaId);
+
+    /**
+     * Called when the schema with the specified {@code schemaId} is promoted to the hot tier. Tiers that are cheap to keep may retain the JSON, so a
+     * later demotion does not have to store it again.
+     *
+     * @param schemaId
+     *            the schema id.
+     */
+    void onPromotion(long schemaId);
+
+    /**
+     * @return the ids of the stored schemas.
+     */
+    Collection<Long> schemaIds();
+
+    /**
+     * @return the number of stored schemas.
+     */
+    long size();
+
+    /**
+     * @return the number of bytes used to hold the stored schemas.
+     */
+    long bytes();
+
+    /**
+     * @return the number of schemas dropped or refused because the tier was full.
+     */
+    long evictionCount();
+
+    /**
+     * Removes all stored schemas.
+     */
+    void clear();
+}
@@ -0,0 +1,149 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+
+/**
+ * {@link ColdSchemaTier} holding deflated schema JSON on heap, bounded by the compressed size. When full, the least recently used schemas are
+ * dropped. A promoted schema is removed, so its JSON is not held twice.
+ */
+final class DeflatedSchemaTier implements ColdSchemaTier {
+
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int BUFFER_SIZE = 4096;
+
+    private final Cache<Long, byte[]> schemas;
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Creates an empty tier.
+     *
+     * @param maximumBytes
+     *            the maximum number of bytes held, compressed JSON plus an estimated per entry overhead.
+     */
+    DeflatedSchemaTier(final long maximumBytes) {
+        schemas = CacheBuilder.newBuilder().maximumWeight(Math.max(0, maximumBytes)).recordStats().weigher(new Weigher<Long, byte[]>() {
+            @Override
+            public int weigh(final Long schemaId, final byte[] compressedSchema) {
+                return ENTRY_OVERHEAD + compressedSchema.length;
+            }
+        }).removalListener(new RemovalListener<Long, byte[]>() {
+            @Override
+            public void onRemoval(final RemovalNotification<Long, byte[]> notification) {
+                if (notification.getCause() != RemovalCause.REPLACED) {
+                    bytes.addAndGet(-notification.getValue().length);
+                }
+            }
+        }).build();
+    }
+
+    @Override
+    public byte[] get(final long schemaId) {
+        final byte[] compressedSchema = schemas.getIfPresent(schemaId);
+        return null == compressedSchema ? null : inflate(compressedSchema);
+    }
+
+    @Override
+    public boolean put(final long schemaId, final byte[] rawSchema) {
+        final byte[] compressedSchema = deflate(rawSchema);
+        if (null == schemas.asMap().putIfAbsent(schemaId, compressedSchema)) {
+            bytes.addAndGet(compressedSchema.length);
+        }
+        return schemas.asMap().containsKey(schemaId);
+    }
+
+    @Override
+    public boolean contains(final long schemaId) {
+        return schemas.asMap().containsKey(schemaId);
+    }
+
+    @Override
+    public void onPromotion(final long schemaId) {
+        schemas.invalidate(schemaId);
+    }
+
+    @Override
+    public Collection<Long> schemaIds() {
+        return new ArrayList<>(schemas.asMap().keySet());
+    }
+
+    @Override
+    public long size() {
+        return schemas.size();
+    }
+
+    @Override
+    public long bytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public long evictionCount() {
+        return schemas.stats().evictionCount();
+    }
+
+    @Override
+    public void clear() {
+        schemas.invalidateAll();
+    }
+
+    private static byte[] deflate(final byte[] rawSchema) {
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(rawSchema);
+            deflater.finish();
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, rawSchema.length / 4));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(final byte[] compressedSchema) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedSchema);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(compressedSchema.length * 4);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                final int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed schema");
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return output.toByteArray();
+        } catch (final DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed schema", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -14,17 +14,25 @@ package com.ericsson.component.aia.model.registry.impl;
 import static com.ericsson.component.aia.model.registry.utils.AvroSchemaUtils.getSchemaId;
 import static com.ericsson.component.aia.model.registry.utils.Constants.*;
 import static com.ericsson.component.aia.model.registry.utils.Utils.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.avro.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ericsson.component.aia.model.registry.client.SchemaRegistryClient;
+import com.ericsson.component.aia.model.registry.exception.SchemaRegistrationException;
 import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
 import com.ericsson.component.aia.model.registry.utils.AvroSchemaUtils;
+import com.ericsson.component.aia.model.registry.utils.SchemaInterner;
+import com.ericsson.component.aia.model.registry.utils.SchemaParseCache;
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * File based schema registry client which instantiates an in-memory schema registry using the directory specified. Basically, creates a cache from
@@ -34,7 +42,14 @@ import com.ericsson.component.aia.model.registry.utils.AvroSchemaUtils;
 public class FileBasedSchemaRegistryClient implements SchemaRegistryClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileBasedSchemaRegistryClient.class);
+    private static final int FIRST_VERSION = 1;
+    private final SchemaInterner schemaInterner = new SchemaInterner();
+    private final OffHeapSchemaArena offHeapArena;
+    private final Cache<Long, Schema> hotSchemas;
     private final Map<Long, Schema> schemaCache;
+    private final Map<Long, String> subjectsById = new ConcurrentHashMap<>();
+    private final NegativeCache<Long> unknownIds;
+    private final NegativeCache<String> unknownSubjects;
 
     /**
      * Default constructor. Constructs a FileBasedSchemaRegistryClient using the value of "schemaRegistry.address" system property as the directory to
@@ -52,7 +67,7 @@ public class FileBasedSchemaRegistryClient implements SchemaRegistryClient {
      *            used to instantiate client. Should contain property "schemaRegistry.address".
      */
     public FileBasedSchemaRegistryClient(final Properties properties) {
-        this(getSchemaRegistryUrlProperty(properties));
+        this(getSchemaRegistryUrlProperty(properties), properties);
     }
 
     /**
@@ -63,18 +78,46 @@ public class FileBasedSchemaRegistryClient implements SchemaRegistryClient {
      *            directory to load *.avsc files from.
      */
     public FileBasedSchemaRegistryClient(final String schemaDirectory) {
+        this(schemaDirectory, System.getProperties());
+    }
+
+    private FileBasedSchemaRegistryClient(final String schemaDirectory, final Properties properties) {
         checkArgumentIsNotNull("schemaDirectory", schemaDirectory);
         LOGGER.info("Starting FileBasedSchemaRegistryClient with following properties [{}={}]",
                 new Object[] { SCHEMA_REGISTRY_ADDRESS_PARAMETER, schemaDirectory });
+        this.offHeapArena = OffHeapSchemaArena.fromProperties(properties);
+        this.hotSchemas = null == offHeapArena ? null
+                : CacheEngine.TINY_LFU.<Long, Schema> newCache(getSchemaRegistryLongProperty(properties,
+                        FILE_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER, DEFAULT_FILE_CLIENT_HOT_TIER_MAX_SIZE));
         this.schemaCache = createSchemaCache(schemaDirectory);
+        this.unknownIds = new NegativeCache<>(properties);
+        this.unknownSubjects = new NegativeCache<>(properties);
     }
 
     @Override
     public Schema lookup(final long schemaId) throws SchemaRetrievalException {
-        if (!schemaCache.containsKey(schemaId)) {
+        final Schema schema = getSchema(schemaId);
+        if (null == schema) {
+            unknownIds.checkNotMissing(schemaId);
+            unknownIds.recordMiss(schemaId, getSchemaRetrievalExceptionMessage(schemaId));
             throw new SchemaRetrievalException(getSchemaRetrievalExceptionMessage(schemaId));
         }
-        return schemaCache.get(schemaId);
+        return schema;
+    }
+
+    /**
+     * {@inheritDoc} The file based registry parses its schemas when the directory is loaded, so the JSON is rendered from the parsed schema, unless
+     * it is held off-heap.
+     */
+    @Override
+    public byte[] lookupRaw(final long schemaId) throws SchemaRetrievalException {
+        if (null != offHeapArena) {
+            final byte[] rawSchema = offHeapArena.get(schemaId);
+            if (null != rawSchema) {
+                return rawSchema;
+            }
+        }
+        return lookup(schemaId).toString().getBytes(UTF_8);
     }
 
     /**
@@ -83,15 +126,36 @@ public class FileBasedSchemaRegistryClient implements SchemaRegistryClient {
      * @return copy of schema registry cache.
      */
     Map<Long, Schema> getSchemaCache() {
-        return new HashMap<>(schemaCache);
+        final Map<Long, Schema> copy = new HashMap<>(schemaCache);
+        if (null != offHeapArena) {
+            for (final Long schemaId : offHeapArena.schemaIds()) {
+                copy.put(schemaId, getSchema(schemaId));
+            }
+        }
+        return copy;
     }
 
     @Override
     public long put(final Schema schema) {
         checkArgumentIsNotNull("schema", schema);
         final long schemaId = getSchemaId(schema.getFullName());
-        if (!schemaCache.containsKey(schemaId)) {
-            schemaCache.put(schemaId, schema);
+        if (store(schemaId, schemaInterner.intern(schema))) {
+            subjectsById.put(schemaId, schema.getFullName());
+            unknownIds.invalidate(schemaId);
+            unknownSubjects.invalidate(schema.getFullName());
+        }
+        return schemaId;
+    }
+
+    /**
+     * {@inheritDoc} The file based registry derives schema ids from the full name of the schema, so the schema JSON is not compared.
+     */
+    @Override
+    public long idFor(final Schema schema) throws SchemaRetrievalException {
+        checkArgumentIsNotNull("schema", schema);
+        final long schemaId = getSchemaId(schema.getFullName());
+        if (null == getSchema(schemaId)) {
+            throw new SchemaRetrievalException(getSchemaNotRegisteredMessage(schema));
         }
         return schemaId;
     }
@@ -100,16 +164,183 @@ public class FileBasedSchemaRegistryClient implements SchemaRegistryClient {
     public RegisteredSchema lookup(final String subject) throws SchemaRetrievalException {
         checkArgumentIsNotNull("subject", subject);
         final long schemaId = getSchemaId(subject);
-        if (!schemaCache.containsKey(schemaId)) {
+        final Schema schema = getSchema(schemaId);
+        if (null == schema) {
+            unknownSubjects.checkNotMissing(subject);
+            unknownSubjects.recordMiss(subject, "No schema exists with subject name: " + subject);
             throw new SchemaRetrievalException("No schema exists with subject name: " + subject);
         }
-        return new RegisteredSchema(schemaId, schemaCache.get(schemaId));
+        return new RegisteredSchema(schemaId, schema);
+    }
+
+    /**
+     * {@inheritDoc} The file based registry never replaces the schema of a subject, so each subject only has version 1.
+     */
+    @Override
+    public RegisteredSchema lookup(final String subject, final int version) throws SchemaRetrievalException {
+        final RegisteredSchema registeredSchema = lookup(subject);
+        if (FIRST_VERSION != version) {
+            throw new SchemaRetrievalException(String.format("Could not retrieve version %s of schema with subject: %s", version, subject));
+        }
+        return registeredSchema;
+    }
+
+    /**
+     * {@inheritDoc} The file based registry never replaces the schema of a subject, so each subject only has version 1.
+     */
+    @Override
+    public List<Integer> versions(final String subject) throws SchemaRetrievalException {
+        lookup(subject);
+        return Collections.singletonList(FIRST_VERSION);
+    }
+
+    /**
+     * {@inheritDoc} The subject of every schema is indexed when it is loaded or registered, so the schema is not parsed from off-heap JSON.
+     */
+    @Override
+    public SubjectVersion subjectOf(final long schemaId) throws SchemaRetrievalException {
+        final String subject = subjectsById.get(schemaId);
+        if (null == subject) {
+            throw new SchemaRetrievalException(getSchemaRetrievalExceptionMessage(schemaId));
+        }
+        return new SubjectVersion(subject, FIRST_VERSION);
+    }
+
+    /**
+     * {@inheritDoc} The file based registry is held in memory, so the returned future is always already completed.
+     */
+    @Override
+    public CompletableFuture<Schema> lookupAsync(final long schemaId) {
+        return AsyncCalls.supplyNow(new RegistryCall<Schema, SchemaRetrievalException>() {
+            @Override
+            public Schema call() throws SchemaRetrievalException {
+                return lookup(schemaId);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc} The file based registry is held in memory, so the returned future is always already completed.
+     */
+    @Override
+    public CompletableFuture<RegisteredSchema> lookupAsync(final String subject) {
+        checkArgumentIsNotNull("subject", subject);
+        return AsyncCalls.supplyNow(new RegistryCall<RegisteredSchema, SchemaRetrievalException>() {
+            @Override
+            public RegisteredSchema call() throws SchemaRetrievalException {
+                return lookup(subject);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc} The file based registry is held in memory, so the returned future is always already completed.
+     */
+    @Override
+    public CompletableFuture<Long> putAsync(final Schema schema) {
+        checkArgumentIsNotNull("schema", schema);
+        return AsyncCalls.supplyNow(new RegistryCall<Long, SchemaRegistrationException>() {
+            @Override
+            public Long call() {
+                return put(schema);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc} The file based registry is held in memory, so all ids are resolved on the calling thread.
+     */
+    @Override
+    public LookupResults<Long, Schema> lookupAll(final Collection<Long> schemaIds) {
+        checkArgumentIsNotNull("schemaIds", schemaIds);
+        return BulkLookup.lookupAll(schemaIds, new BulkLookup.Resolver<Long, Schema>() {
+            @Override
+            public Schema cached(final Long schemaId) {
+                return null;
+            }
+
+            @Override
+            public Schema resolve(final Long schemaId) throws SchemaRetrievalException {
+                return lookup(schemaId);
+            }
+        }, MoreExecutors.directExecutor(), 1);
+    }
+
+    /**
+     * {@inheritDoc} The file based registry is held in memory, so all subjects are resolved on the calling thread.
+     */
+    @Override
+    public LookupResults<String, RegisteredSchema> lookupAllSubjects(final Collection<String> subjects) {
+        checkArgumentIsNotNull("subjects", subjects);
+        return BulkLookup.lookupAll(subjects, new BulkLookup.Resolver<String, RegisteredSchema>() {
+            @Override
+            public RegisteredSchema cached(final String subject) {
+                return null;
+            }
+
+            @Override
+            public RegisteredSchema resolve(final String subject) throws SchemaRetrievalException {
+                return lookup(subject);
+            }
+        }, MoreExecutors.directExecutor(), 1);
+    }
+
+    /**
+     * Returns the schema with the specified {@code schemaId}, parsing it from its off-heap JSON if it is not in the hot set.
+     */
+    private Schema getSchema(final long schemaId) {
+        Schema schema = schemaCache.get(schemaId);
+        if (null == schema && null != offHeapArena) {
+            schema = hotSchemas.getIfPresent(schemaId);
+            if (null == schema) {
+                final byte[] rawSchema = offHeapArena.get(schemaId);
+                if (null != rawSchema) {
+                    schema = schemaInterner.intern(SchemaParseCache.INSTANCE.parse(new String(rawSchema, UTF_8)));
+                    hotSchemas.put(schemaId, schema);
+                }
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Stores the specified {@code schema} off-heap if enabled and there is room, otherwise on heap.
+     *
+     * @return true if no schema was stored under {@code schemaId} before.
+     */
+    private boolean store(final long schemaId, final Schema schema) {
+        if (null == offHeapArena) {
+            return null == schemaCache.putIfAbsent(schemaId, schema);
+        }
+        synchronized (offHeapArena) {
+            if (schemaCache.containsKey(schemaId) || offHeapArena.contains(schemaId)) {
+                return false;
+            }
+            if (!offHeapArena.put(schemaId, schema.toString().getBytes(UTF_8))) {
+                schemaCache.put(schemaId, schema);
+            }
+            return true;
+        }
     }
 
     private Map<Long, Schema> createSchemaCache(final String schemaDirectory) {
-        final Map<Long, Schema> schemaCache = new HashMap<>();
+        final Map<Long, Schema> schemaCache = new ConcurrentHashMap<>();
         try {
-            schemaCache.putAll(AvroSchemaUtils.createSchemaCache(schemaDirectory));
+            final Map<Long, Schema> loadedSchemas = AvroSchemaUtils.createSchemaCache(schemaDirectory, schemaInterner);
+            for (final Map.Entry<Long, Schema> entry : loadedSchemas.entrySet()) {
+                subjectsById.put(entry.getKey(), entry.getValue().getFullName());
+            }
+            if (null == offHeapArena) {
+                schemaCache.putAll(loadedSchemas);
+            } else {
+                for (final Map.Entry<Long, Schema> entry : loadedSchemas.entrySet()) {
+                    if (!offHeapArena.put(entry.getKey(), entry.getValue().toString().getBytes(UTF_8))) {
+                        schemaCache.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                LOGGER.info("Holding {} schemas in {} bytes off-heap, {} on heap", new Object[] { offHeapArena.size(), offHeapArena.bytes(),
+                    schemaCache.size() });
+            }
         } catch (final IOException e) {
             LOGGER.error("Failed to populate Schema cache. Some schemas may be missing from cache.", e);
         }
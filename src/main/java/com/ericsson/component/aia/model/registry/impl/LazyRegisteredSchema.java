@@ -0,0 +1,123 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+
+import com.ericsson.component.aia.model.registry.utils.SchemaParseCache;
+
+/**
+ * {@link RegisteredSchema} holding the raw schema JSON, which is only parsed the first time {@link #getSchema()} is called. Callers that only need
+ * the schema id or the JSON never pay for parsing. Parsing happens at most once, even when several threads ask for the schema concurrently.
+ */
+public class LazyRegisteredSchema extends RegisteredSchema {
+
+    private static final long serialVersionUID = 1L;
+    private final byte[] rawSchema;
+    private final transient RawSchemaParser parser;
+    private transient volatile Schema schema;
+
+    /**
+     * Creates a LazyRegisteredSchema instance with the specified {@code schemaId} and {@code rawSchema}.
+     *
+     * @param schemaId
+     *            the unique identifier for the schema.
+     * @param rawSchema
+     *            the UTF-8 encoded schema JSON.
+     */
+    public LazyRegisteredSchema(final long schemaId, final byte[] rawSchema) {
+        super(schemaId);
+        checkArgumentIsNotNull("rawSchema", rawSchema);
+        this.rawSchema = rawSchema.clone();
+        this.parser = null;
+    }
+
+    /**
+     * Creates a LazyRegisteredSchema instance whose schema is parsed by the specified {@code parser}. Takes ownership of {@code rawSchema}, which is
+     * null if the subclass supplies the JSON through {@link #rawSchema()}.
+     */
+    LazyRegisteredSchema(final long schemaId, final byte[] rawSchema, final RawSchemaParser parser) {
+        super(schemaId);
+        this.rawSchema = rawSchema;
+        this.parser = parser;
+    }
+
+    /**
+     * @return a copy of the UTF-8 encoded schema JSON.
+     */
+    public byte[] getRawSchema() {
+        return rawSchema().clone();
+    }
+
+    /**
+     * @return the UTF-8 encoded schema JSON, which callers must not modify.
+     */
+    byte[] rawSchema() {
+        return rawSchema;
+    }
+
+    /**
+     * @return the length of the UTF-8 encoded schema JSON.
+     */
+    int getRawSchemaLength() {
+        return rawSchema.length;
+    }
+
+    /**
+     * @return true if the schema JSON is held on the Java heap.
+     */
+    boolean isRawSchemaOnHeap() {
+        return true;
+    }
+
+    /**
+     * @return true if the schema has already been parsed.
+     */
+    public boolean isParsed() {
+        return null != schema;
+    }
+
+    /**
+     * @return the schema, parsed from the raw JSON on first call.
+     */
+    @Override
+    public Schema getSchema() {
+        Schema parsedSchema = schema;
+        if (null == parsedSchema) {
+            synchronized (this) {
+                parsedSchema = schema;
+                if (null == parsedSchema) {
+                    parsedSchema = null == parser ? SchemaParseCache.INSTANCE.parse(new String(rawSchema(), UTF_8)) : parser.parse(getSchemaId(), rawSchema());
+                    schema = parsedSchema;
+                }
+            }
+        }
+        return parsedSchema;
+    }
+
+    /**
+     * Compares parsed schemas, like {@link RegisteredSchema}, so that equality stays transitive across lazy and eager instances. Two lazily parsed
+     * instances holding identical raw JSON are equal without parsing either; differently formatted JSON is parsed and compared.
+     */
+    @Override
+    boolean hasSameSchema(final RegisteredSchema other) {
+        if (other instanceof LazyRegisteredSchema && Arrays.equals(rawSchema(), ((LazyRegisteredSchema) other).rawSchema())) {
+            return true;
+        }
+        return getSchema().equals(other.getSchema());
+    }
+}
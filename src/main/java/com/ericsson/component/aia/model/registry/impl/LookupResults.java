@@ -0,0 +1,74 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+
+/**
+ * DTO holding the outcome of a bulk lookup: the values found per key, and the failure per key for every key that could not be resolved.
+ *
+ * @param <K>
+ *            the key type, a schema id or a subject.
+ * @param <V>
+ *            the value type.
+ */
+public class LookupResults<K, V> {
+
+    private final Map<K, V> found;
+    private final Map<K, SchemaRetrievalException> failures;
+
+    /**
+     * Creates a LookupResults instance.
+     *
+     * @param found
+     *            the values resolved, by key.
+     * @param failures
+     *            the failures, by key.
+     */
+    public LookupResults(final Map<K, V> found, final Map<K, SchemaRetrievalException> failures) {
+        checkArgumentIsNotNull("found", found);
+        checkArgumentIsNotNull("failures", failures);
+        this.found = Collections.unmodifiableMap(found);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the values resolved, by key.
+     */
+    public Map<K, V> getFound() {
+        return found;
+    }
+
+    /**
+     * @return the failures, by key, for every key that could not be resolved.
+     */
+    public Map<K, SchemaRetrievalException> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return true if every key was resolved.
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "LookupResults [found=" + found.keySet() + ", failures=" + failures.keySet() + "]";
+    }
+}
@@ -0,0 +1,102 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.getNegativeCacheSizeProperty;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getNegativeCacheTtlProperty;
+
+import java.util.Properties;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Bounded, time limited record of keys the registry answered with "not found". Only definitive "not found" answers belong here; transport errors
+ * must never be recorded, otherwise a registry outage would outlive itself by the cache TTL.
+ *
+ * @param <K>
+ *            the key type, a schema id or a subject.
+ */
+final class NegativeCache<K> {
+
+    private final Cache<K, String> misses;
+
+    /**
+     * Creates a negative cache configured from "schemaRegistry.negativeCacheTtlSeconds" and "schemaRegistry.negativeCacheMaximumSize" in the
+     * specified {@code properties}. A TTL of zero disables negative caching.
+     *
+     * @param properties
+     *            the properties to read the configuration from.
+     */
+    NegativeCache(final Properties properties) {
+        this(getNegativeCacheSizeProperty(properties), getNegativeCacheTtlProperty(properties));
+    }
+
+    /**
+     * Creates a negative cache.
+     *
+     * @param maximumSize
+     *            the maximum number of keys held.
+     * @param ttlInSeconds
+     *            how long a "not found" answer is remembered. Zero disables negative caching.
+     */
+    NegativeCache(final long maximumSize, final long ttlInSeconds) {
+        misses = CacheBuilder.newBuilder().maximumSize(ttlInSeconds > 0 ? maximumSize : 0).expireAfterWrite(ttlInSeconds, SECONDS).build();
+    }
+
+    /**
+     * Records that the registry does not know the specified {@code key}.
+     *
+     * @param key
+     *            the key that was not found.
+     * @param message
+     *            the message to report to later callers asking for the same key.
+     */
+    void recordMiss(final K key, final String message) {
+        misses.put(key, message);
+    }
+
+    /**
+     * Fails fast if the specified {@code key} is known to be missing.
+     *
+     * @param key
+     *            the key to check.
+     * @throws SchemaRetrievalException
+     *             without a stack trace, if a "not found" answer for {@code key} is still cached.
+     */
+    void checkNotMissing(final K key) throws SchemaRetrievalException {
+        final String message = misses.getIfPresent(key);
+        if (message != null) {
+            throw new SchemaRetrievalException(message, false);
+        }
+    }
+
+    /**
+     * Forgets any "not found" answer for the specified {@code key}, e.g. after it was registered.
+     *
+     * @param key
+     *            the key to forget.
+     */
+    void invalidate(final K key) {
+        misses.invalidate(key);
+    }
+
+    /**
+     * @return the number of keys currently recorded as missing.
+     */
+    long size() {
+        return misses.size();
+    }
+}
@@ -0,0 +1,56 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+/**
+ * {@link LazyRegisteredSchema} whose raw schema JSON is only held in an {@link OffHeapSchemaArena}, and read back from it whenever the JSON is
+ * needed. The arena never drops stored JSON, so the instance stays valid for the lifetime of the arena. Serialized as a plain
+ * {@link LazyRegisteredSchema} carrying the JSON.
+ */
+final class OffHeapRegisteredSchema extends LazyRegisteredSchema {
+
+    private static final long serialVersionUID = 1L;
+    private final transient OffHeapSchemaArena arena;
+    private final int rawSchemaLength;
+
+    /**
+     * Creates an OffHeapRegisteredSchema instance for JSON already stored in {@code arena} under {@code schemaId}.
+     */
+    OffHeapRegisteredSchema(final long schemaId, final int rawSchemaLength, final OffHeapSchemaArena arena, final RawSchemaParser parser) {
+        super(schemaId, null, parser);
+        this.arena = arena;
+        this.rawSchemaLength = rawSchemaLength;
+    }
+
+    @Override
+    byte[] rawSchema() {
+        final byte[] rawSchema = arena.get(getSchemaId());
+        if (null == rawSchema) {
+            throw new IllegalStateException("Schema " + getSchemaId() + " is no longer held off-heap");
+        }
+        return rawSchema;
+    }
+
+    @Override
+    int getRawSchemaLength() {
+        return rawSchemaLength;
+    }
+
+    @Override
+    boolean isRawSchemaOnHeap() {
+        return false;
+    }
+
+    private Object writeReplace() {
+        return new LazyRegisteredSchema(getSchemaId(), rawSchema());
+    }
+}
@@ -0,0 +1,180 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_OFF_HEAP_MAX_BYTES;
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryByteSizeProperty;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only {@link ColdSchemaTier} holding schema JSON outside the Java heap, in direct {@link ByteBuffer} slabs allocated on demand up to a
+ * fixed budget. The heap only holds the slab references and a map from schema id to the slab and offset of its JSON, so a large number of
+ * resident schemas adds little to the work of the garbage collector.
+ *
+ * <p>
+ * Schema ids are immutable, so stored JSON is never rewritten and is kept when its schema is promoted; once the budget is used up, further schemas
+ * are refused. Reads take no lock. The direct memory is only released when the arena itself is garbage collected, so the budget must fit within
+ * the JVM's maximum direct memory size.
+ */
+final class OffHeapSchemaArena implements ColdSchemaTier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapSchemaArena.class);
+    private static final int SLAB_SIZE = 4 * 1024 * 1024;
+    private static final int LENGTH_BYTES = 4;
+
+    private final long maximumBytes;
+    private final ConcurrentMap<Long, Long> locations = new ConcurrentHashMap<>();
+    private final AtomicLong refusedCount = new AtomicLong();
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private long allocatedBytes;
+    private long usedBytes;
+
+    /**
+     * Creates the arena configured by the "schemaRegistry.offHeapMaximumBytes" property.
+     *
+     * @param properties
+     *            the client properties.
+     * @return the arena, or null if off-heap storage is disabled.
+     */
+    static OffHeapSchemaArena fromProperties(final Properties properties) {
+        final long maximumBytes = getSchemaRegistryByteSizeProperty(properties, SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER,
+                DEFAULT_OFF_HEAP_MAX_BYTES);
+        if (maximumBytes <= 0) {
+            return null;
+        }
+        LOGGER.info("Holding raw schemas in up to {} bytes of off-heap memory", maximumBytes);
+        return new OffHeapSchemaArena(maximumBytes);
+    }
+
+    /**
+     * Creates an empty arena.
+     *
+     * @param maximumBytes
+     *            the maximum amount of direct memory allocated by the arena.
+     */
+    OffHeapSchemaArena(final long maximumBytes) {
+        this.maximumBytes = Math.max(0, maximumBytes);
+    }
+
+    @Override
+    public byte[] get(final long schemaId) {
+        final Long location = locations.get(schemaId);
+        if (null == location) {
+            return null;
+        }
+        final ByteBuffer slab = slabs[(int) (location >>> 32)].duplicate();
+        final int offset = (int) (long) location;
+        final byte[] rawSchema = new byte[slab.getInt(offset)];
+        slab.position(offset + LENGTH_BYTES);
+        slab.get(rawSchema);
+        return rawSchema;
+    }
+
+    @Override
+    public synchronized boolean put(final long schemaId, final byte[] rawSchema) {
+        if (locations.containsKey(schemaId)) {
+            return true;
+        }
+        final int recordLength = LENGTH_BYTES + rawSchema.length;
+        ByteBuffer slab = slabs.length == 0 ? null : slabs[slabs.length - 1];
+        if (null == slab || slab.remaining() < recordLength) {
+            slab = allocate(recordLength);
+            if (null == slab) {
+                refusedCount.incrementAndGet();
+                return false;
+            }
+        }
+        final int offset = slab.position();
+        slab.putInt(rawSchema.length);
+        slab.put(rawSchema);
+        usedBytes += recordLength;
+        locations.put(schemaId, (long) (slabs.length - 1) << 32 | offset);
+        return true;
+    }
+
+    @Override
+    public boolean contains(final long schemaId) {
+        return locations.containsKey(schemaId);
+    }
+
+    @Override
+    public void onPromotion(final long schemaId) {
+        // Kept, so demoting the schema again is free.
+    }
+
+    @Override
+    public Collection<Long> schemaIds() {
+        return new ArrayList<>(locations.keySet());
+    }
+
+    @Override
+    public long size() {
+        return locations.size();
+    }
+
+    /**
+     * @return the number of direct memory bytes holding schema JSON.
+     */
+    @Override
+    public synchronized long bytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return the number of direct memory bytes allocated, including the unused remainder of the slabs.
+     */
+    synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long evictionCount() {
+        return refusedCount.get();
+    }
+
+    /**
+     * Removes all stored schemas, releasing the slabs to the garbage collector.
+     */
+    @Override
+    public synchronized void clear() {
+        locations.clear();
+        slabs = new ByteBuffer[0];
+        allocatedBytes = 0;
+        usedBytes = 0;
+    }
+
+    private ByteBuffer allocate(final int recordLength) {
+        final int slabSize = Math.max(SLAB_SIZE, recordLength);
+        final long available = maximumBytes - allocatedBytes;
+        if (available < recordLength) {
+            return null;
+        }
+        final ByteBuffer slab = ByteBuffer.allocateDirect((int) Math.min(slabSize, available));
+        allocatedBytes += slab.capacity();
+        final ByteBuffer[] grown = Arrays.copyOf(slabs, slabs.length + 1);
+        grown[slabs.length] = slab;
+        slabs = grown;
+        return slab;
+    }
+}
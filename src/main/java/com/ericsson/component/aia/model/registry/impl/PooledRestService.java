@@ -0,0 +1,519 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.ErrorMessage;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * {@link RestService} sending its requests over keep-alive connections. Confluent's implementation disconnects every connection once the answer is
+ * read, so each request pays a TCP connect and, over HTTPS, a TLS handshake. Here response bodies are read to the end and closed without
+ * disconnecting, which hands the connection back to the JDK keep-alive cache for the next request to the same registry instance; only connections
+ * that failed are discarded.
+ *
+ * <p>
+ * The number of connections open at once to each registry instance is bounded. A request waits at most the pool timeout for a connection before
+ * failing, and connects and reads within their own timeouts, which Confluent's implementation leaves unbounded. The JDK keeps at most
+ * "http.maxConnections" (default 5) idle connections per instance.
+ *
+ * <p>
+ * Where Confluent's implementation always starts with the same instance, requests here go to the instance {@link RegistryInstances} ranks first,
+ * the fastest and least busy one, and fail over down the ranking when an instance cannot be reached or answers with a server error, unless the
+ * caller retries failed requests itself: each retry then goes to the next ranked instance, so a request is sent once per attempt. If hedging is
+ * enabled, a read still unanswered after the hedge delay is duplicated to the next instance from a bounded executor, which {@link #close()} shuts
+ * down, and the first answer wins; the read itself is sent from the calling thread, and writes are never duplicated.
+ *
+ * <p>
+ * Answers are requested gzip compressed, which the registry does unless its compression is disabled. If a compression threshold is set, request
+ * bodies above it, such as the registration of a large schema, are sent gzip compressed too. An instance that answers its first compressed bodies
+ * with an error is sent the body again uncompressed, and receives uncompressed bodies from then on if the uncompressed body is answered differently.
+ */
+final class PooledRestService extends RestService implements Closeable {
+
+    private static final int JSON_PARSE_ERROR_CODE = 50005;
+    private static final String GET = "GET";
+    private static final String GZIP = "gzip";
+    private static final long HEDGE_THREAD_KEEP_ALIVE_SECONDS = 60;
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledRestService.class);
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ConcurrentMap<String, Semaphore> connectionPermits = new ConcurrentHashMap<>();
+    private final Set<String> uncompressedHosts = ConcurrentHashMap.newKeySet();
+    private final Set<String> compressedHosts = ConcurrentHashMap.newKeySet();
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long poolTimeoutMillis;
+    private final int maxConnectionsPerHost;
+    private final int compressRequestsAboveBytes;
+    private final RegistryInstances instances;
+    private final boolean failOver;
+    private final ScheduledThreadPoolExecutor hedgeExecutor;
+
+    /**
+     * Creates a PooledRestService instance.
+     *
+     * @param registryUrlString
+     *            the comma separated registry instance urls.
+     * @param connectTimeoutMillis
+     *            how long connecting to a registry instance may take.
+     * @param readTimeoutMillis
+     *            how long a registry instance may take to answer.
+     * @param poolTimeoutMillis
+     *            how long a request may wait for a connection once {@code maxConnectionsPerHost} are in use.
+     * @param maxConnectionsPerHost
+     *            the maximum number of connections open at once to each registry instance.
+     * @param compressRequestsAboveBytes
+     *            the size above which request bodies are sent gzip compressed, or zero to never compress them.
+     * @param instances
+     *            the tracker of the registry instances listed in {@code registryUrlString}.
+     * @param failOver
+     *            true to send a request that an instance failed to the next one at once, false to only send it to the first ranked instance, for
+     *            callers that retry failed requests themselves.
+     */
+    PooledRestService(final String registryUrlString, final int connectTimeoutMillis, final int readTimeoutMillis, final long poolTimeoutMillis,
+                      final int maxConnectionsPerHost, final int compressRequestsAboveBytes, final RegistryInstances instances,
+                      final boolean failOver) {
+        super(registryUrlString);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.poolTimeoutMillis = poolTimeoutMillis;
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+        this.compressRequestsAboveBytes = Math.max(0, compressRequestsAboveBytes);
+        this.instances = instances;
+        this.failOver = failOver;
+        this.hedgeExecutor = instances.hedgesReads() ? newHedgeExecutor(this.maxConnectionsPerHost) : null;
+    }
+
+    /**
+     * Creates the executor sending duplicated reads, with at most one thread per connection allowed to an instance, released once idle.
+     */
+    private static ScheduledThreadPoolExecutor newHedgeExecutor(final int threads) {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads,
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("schema-registry-hedge-%d").build());
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setKeepAliveTime(HEDGE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public <T> T httpRequest(final String path, final String method, final byte[] requestBodyData, final Map<String, String> requestProperties,
+                             final TypeReference<T> responseFormat)
+            throws IOException, RestClientException {
+        final List<String> baseUrls = instances.ranked();
+        final long hedgeDelayNanos = null != hedgeExecutor && GET.equals(method) ? instances.getHedgeDelayNanos() : -1;
+        if (hedgeDelayNanos >= 0 && baseUrls.size() > 1) {
+            return hedgedRequest(baseUrls, hedgeDelayNanos, path, method, requestBodyData, requestProperties, responseFormat);
+        }
+        return failOver(baseUrls, 0, null, path, method, requestBodyData, requestProperties, responseFormat);
+    }
+
+    /**
+     * Stops duplicating reads, releasing the threads that sent the duplicates.
+     */
+    @Override
+    public void close() {
+        if (null != hedgeExecutor) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends a request to each of the {@code baseUrls} from the {@code first} one on in turn, until one answers. Unavailable instances are skipped;
+     * {@code failure} is thrown if there is none left to try. Without fail over, only the first of the {@code baseUrls} is ever tried.
+     */
+    private <T> T failOver(final List<String> baseUrls, final int first, final Exception failure, final String path, final String method,
+                           final byte[] requestBodyData, final Map<String, String> requestProperties, final TypeReference<T> responseFormat)
+            throws IOException, RestClientException {
+        Exception lastFailure = failure;
+        final int end = failOver ? baseUrls.size() : Math.min(1, baseUrls.size());
+        for (int next = first; next < end; next++) {
+            try {
+                return attempt(baseUrls.get(next), path, method, requestBodyData, requestProperties, responseFormat, null);
+            } catch (final IOException | RestClientException e) {
+                if (!CircuitBreaker.isUnavailable(e)) {
+                    throw e;
+                }
+                lastFailure = e;
+            }
+        }
+        throw rethrow(lastFailure);
+    }
+
+    /**
+     * Sends a read to the first of the {@code baseUrls} on the calling thread, and duplicates it to the second one from the hedge executor if it is
+     * still unanswered after {@code hedgeDelayNanos}. The first answer is returned and the connection of the other attempt is closed, releasing its
+     * connection permit at once. If both fail, the remaining instances are tried in turn when failing over.
+     */
+    private <T> T hedgedRequest(final List<String> baseUrls, final long hedgeDelayNanos, final String path, final String method,
+                                final byte[] requestBodyData, final Map<String, String> requestProperties, final TypeReference<T> responseFormat)
+            throws IOException, RestClientException {
+        final HedgedRead<T> read = new HedgedRead<>();
+        final String hedgeUrl = baseUrls.get(1);
+        final Future<?> hedge;
+        try {
+            hedge = hedgeExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (read.claimHedge()) {
+                        try {
+                            read.onHedgeAnswer(attempt(hedgeUrl, path, method, requestBodyData, requestProperties, responseFormat, read));
+                        } catch (final Exception | Error e) {
+                            read.onHedgeFailure(e);
+                        }
+                    }
+                }
+            }, hedgeDelayNanos, TimeUnit.NANOSECONDS);
+        } catch (final RejectedExecutionException e) {
+            return failOver(baseUrls, 0, null, path, method, requestBodyData, requestProperties, responseFormat);
+        }
+        try {
+            final T answer = attempt(baseUrls.get(0), path, method, requestBodyData, requestProperties, responseFormat, read);
+            read.claimHedge();
+            return answer;
+        } catch (final IOException | RestClientException e) {
+            if (read.isFinished()) {
+                return read.getHedgeAnswer(path);
+            }
+            if (read.claimHedge()) {
+                if (!CircuitBreaker.isUnavailable(e)) {
+                    throw e;
+                }
+                return failOver(baseUrls, 1, e, path, method, requestBodyData, requestProperties, responseFormat);
+            }
+            if (!CircuitBreaker.isUnavailable(e)) {
+                throw e;
+            }
+            try {
+                return read.getHedgeAnswer(path);
+            } catch (final IOException | RestClientException hedgeFailure) {
+                if (!CircuitBreaker.isUnavailable(hedgeFailure)) {
+                    throw hedgeFailure;
+                }
+                return failOver(baseUrls, 2, hedgeFailure, path, method, requestBodyData, requestProperties, responseFormat);
+            }
+        } finally {
+            hedge.cancel(false);
+            read.finish();
+        }
+    }
+
+    /**
+     * Sends a request to one registry instance and records its outcome: server errors and unreachable instances count as failures of the instance,
+     * other answers as its latency.
+     */
+    private <T> T attempt(final String baseUrl, final String path, final String method, final byte[] requestBodyData,
+                          final Map<String, String> requestProperties, final TypeReference<T> responseFormat, final HedgedRead<T> read)
+            throws IOException, RestClientException {
+        instances.onStart(baseUrl);
+        final long startNanos = System.nanoTime();
+        try {
+            final T answer = send(baseUrl, path, method, requestBodyData, requestProperties, responseFormat, read);
+            instances.onAnswer(baseUrl, System.nanoTime() - startNanos);
+            return answer;
+        } catch (final IOException | RestClientException e) {
+            if (null != read && read.isFinished()) {
+                instances.onAbandoned(baseUrl);
+            } else if (CircuitBreaker.isUnavailable(e)) {
+                instances.onFailure(baseUrl);
+            } else {
+                instances.onAnswer(baseUrl, System.nanoTime() - startNanos);
+            }
+            throw e;
+        } catch (final RuntimeException | Error e) {
+            instances.onFailure(baseUrl);
+            throw e;
+        }
+    }
+
+    /**
+     * Throws {@code failure} if it is one of the exceptions a request may throw, otherwise wraps it in an {@link IOException} for the caller to
+     * throw.
+     */
+    private static IOException rethrow(final Throwable failure) throws IOException, RestClientException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RestClientException) {
+            throw (RestClientException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return new IOException("Schema registry request failed", failure);
+    }
+
+    private <T> T send(final String baseUrl, final String path, final String method, final byte[] requestBodyData,
+                       final Map<String, String> requestProperties, final TypeReference<T> responseFormat, final HedgedRead<T> read)
+            throws IOException, RestClientException {
+        final URL url = new URL(baseUrl.replaceFirst("/$", "") + "/" + path.replaceFirst("^/", ""));
+        final Semaphore permits = getConnectionPermits(url);
+        acquire(permits, url);
+        try {
+            if (isCompressed(url, requestBodyData)) {
+                return sendCompressed(url, method, requestBodyData, requestProperties, responseFormat, read);
+            }
+            return exchange(url, method, requestBodyData, false, requestProperties, responseFormat, read);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Sends a request body gzip compressed. Until an instance has accepted a compressed body, any error it answers one with is assumed to be caused by
+     * the compression: the body is sent again uncompressed, and if that is answered differently the instance receives uncompressed bodies from
+     * then on.
+     */
+    private <T> T sendCompressed(final URL url, final String method, final byte[] requestBodyData, final Map<String, String> requestProperties,
+                                 final TypeReference<T> responseFormat, final HedgedRead<T> read)
+            throws IOException, RestClientException {
+        final String host = getHost(url);
+        final RestClientException compressedFailure;
+        try {
+            final T answer = exchange(url, method, gzip(requestBodyData), true, requestProperties, responseFormat, read);
+            compressedHosts.add(host);
+            return answer;
+        } catch (final RestClientException e) {
+            if (compressedHosts.contains(host) || e.getStatus() < HttpURLConnection.HTTP_BAD_REQUEST) {
+                throw e;
+            }
+            compressedFailure = e;
+        }
+        try {
+            final T answer = exchange(url, method, requestBodyData, false, requestProperties, responseFormat, read);
+            onCompressionRejected(url, compressedFailure);
+            return answer;
+        } catch (final RestClientException e) {
+            if (e.getStatus() != compressedFailure.getStatus()) {
+                onCompressionRejected(url, compressedFailure);
+            }
+            throw e;
+        }
+    }
+
+    private void onCompressionRejected(final URL url, final RestClientException compressedFailure) {
+        if (uncompressedHosts.add(getHost(url))) {
+            LOGGER.info("Schema registry instance {} answered a compressed request body with HTTP status {}, sending uncompressed bodies from now on",
+                    url.getAuthority(), compressedFailure.getStatus());
+        }
+    }
+
+    private <T> T exchange(final URL url, final String method, final byte[] requestBodyData, final boolean compressed,
+                           final Map<String, String> requestProperties, final TypeReference<T> responseFormat, final HedgedRead<T> read)
+            throws IOException, RestClientException {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            if (null != read) {
+                read.register(connection);
+            }
+            connection.setConnectTimeout(connectTimeoutMillis);
+            connection.setReadTimeout(readTimeoutMillis);
+            connection.setRequestMethod(method);
+            connection.setUseCaches(false);
+            if (null != requestProperties) {
+                for (final Map.Entry<String, String> requestProperty : requestProperties.entrySet()) {
+                    connection.setRequestProperty(requestProperty.getKey(), requestProperty.getValue());
+                }
+            }
+            connection.setRequestProperty("Accept-Encoding", GZIP);
+            if (null != requestBodyData) {
+                if (compressed) {
+                    connection.setRequestProperty("Content-Encoding", GZIP);
+                }
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(requestBodyData.length);
+                try (OutputStream requestBody = connection.getOutputStream()) {
+                    requestBody.write(requestBodyData);
+                }
+            }
+            final int responseCode = connection.getResponseCode();
+            if (HttpURLConnection.HTTP_OK == responseCode) {
+                return jsonMapper.readValue(readFully(connection, connection.getInputStream()), responseFormat);
+            }
+            if (HttpURLConnection.HTTP_NO_CONTENT == responseCode) {
+                return null;
+            }
+            throw toRestClientException(connection, responseCode);
+        } catch (final IOException e) {
+            if (null != connection) {
+                connection.disconnect();
+            }
+            throw e;
+        } finally {
+            if (null != read && null != connection) {
+                read.unregister(connection);
+            }
+        }
+    }
+
+    private boolean isCompressed(final URL url, final byte[] requestBodyData) {
+        return compressRequestsAboveBytes > 0 && null != requestBodyData && requestBodyData.length > compressRequestsAboveBytes
+                && !uncompressedHosts.contains(getHost(url));
+    }
+
+    private RestClientException toRestClientException(final HttpURLConnection connection, final int responseCode) throws IOException {
+        final InputStream errorBody = connection.getErrorStream();
+        if (null == errorBody) {
+            return new RestClientException("Schema registry answered with HTTP status " + responseCode, responseCode, JSON_PARSE_ERROR_CODE);
+        }
+        final byte[] errorJson = readFully(connection, errorBody);
+        try {
+            final ErrorMessage errorMessage = jsonMapper.readValue(errorJson, ErrorMessage.class);
+            return new RestClientException(errorMessage.getMessage(), responseCode, errorMessage.getErrorCode());
+        } catch (final IOException e) {
+            return new RestClientException("Schema registry answered with HTTP status " + responseCode + " and an unreadable error", responseCode,
+                    JSON_PARSE_ERROR_CODE);
+        }
+    }
+
+    private Semaphore getConnectionPermits(final URL url) {
+        final String host = getHost(url);
+        Semaphore permits = connectionPermits.get(host);
+        if (null == permits) {
+            final Semaphore newPermits = new Semaphore(maxConnectionsPerHost);
+            permits = connectionPermits.putIfAbsent(host, newPermits);
+            if (null == permits) {
+                permits = newPermits;
+            }
+        }
+        return permits;
+    }
+
+    private static String getHost(final URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    private void acquire(final Semaphore permits, final URL url) throws IOException {
+        try {
+            if (!permits.tryAcquire(poolTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out after " + poolTimeoutMillis + " ms waiting for a connection to " + url.getAuthority());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection to " + url.getAuthority(), e);
+        }
+    }
+
+    /**
+     * Reads {@code body} to the end, inflating it if the answer is gzip compressed, and closes it, so the connection it belongs to can be reused.
+     */
+    private static byte[] readFully(final HttpURLConnection connection, final InputStream body) throws IOException {
+        try (InputStream stream = GZIP.equalsIgnoreCase(connection.getContentEncoding()) ? new GZIPInputStream(body) : body) {
+            return ByteStreams.toByteArray(stream);
+        }
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * State shared by the two attempts of a hedged read: whether the duplicate was started, its outcome, and the open connections of both attempts,
+     * closed once the read is finished so that the losing attempt stops at once.
+     */
+    private static final class HedgedRead<T> {
+
+        private final AtomicBoolean hedgeClaimed = new AtomicBoolean();
+        private final CompletableFuture<T> hedgeAnswer = new CompletableFuture<>();
+        private final Set<HttpURLConnection> connections = ConcurrentHashMap.newKeySet();
+        private volatile boolean finished;
+
+        /**
+         * @return true if the caller is the first to claim the duplicate: the hedge executor to send it, or the original attempt to prevent it.
+         */
+        private boolean claimHedge() {
+            return hedgeClaimed.compareAndSet(false, true);
+        }
+
+        private void onHedgeAnswer(final T answer) {
+            hedgeAnswer.complete(answer);
+            finish();
+        }
+
+        private void onHedgeFailure(final Throwable failure) {
+            hedgeAnswer.completeExceptionally(failure);
+        }
+
+        /**
+         * Waits for the outcome of the duplicate, which has been claimed by the hedge executor.
+         */
+        private T getHedgeAnswer(final String path) throws IOException, RestClientException {
+            try {
+                return hedgeAnswer.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for schema registry to answer " + path);
+            } catch (final ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+
+        private void register(final HttpURLConnection connection) throws IOException {
+            connections.add(connection);
+            if (finished) {
+                connection.disconnect();
+                throw new IOException("Another schema registry instance already answered");
+            }
+        }
+
+        private void unregister(final HttpURLConnection connection) {
+            connections.remove(connection);
+        }
+
+        private boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * Marks the read as answered and closes the connections of the attempts still waiting for an answer.
+         */
+        private void finish() {
+            finished = true;
+            for (final HttpURLConnection connection : connections) {
+                connection.disconnect();
+            }
+        }
+    }
+}
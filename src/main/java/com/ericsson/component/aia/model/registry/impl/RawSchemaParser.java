@@ -0,0 +1,31 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import org.apache.avro.Schema;
+
+/**
+ * Turns the raw JSON of a registered schema into a parsed {@link Schema}, letting a client share, index or cache the result.
+ */
+interface RawSchemaParser {
+
+    /**
+     * Parses the specified {@code rawSchema}.
+     *
+     * @param schemaId
+     *            the unique identifier of the schema.
+     * @param rawSchema
+     *            the UTF-8 encoded schema JSON.
+     * @return the parsed schema.
+     */
+    Schema parse(long schemaId, byte[] rawSchema);
+}
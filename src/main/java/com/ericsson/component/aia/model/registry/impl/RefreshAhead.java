@@ -0,0 +1,145 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.concurrent.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Refresh-after-write bookkeeping for cached entries. Each written key gets a refresh deadline, spread by a random jitter so entries written
+ * together do not all come due together. The first read past the deadline hands the refresh to a background executor and returns immediately; the
+ * stale value keeps being served until the refresh writes a new one.
+ *
+ * @param <K>
+ *            the key type.
+ */
+final class RefreshAhead<K> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshAhead.class);
+    private static final long IN_FLIGHT = Long.MAX_VALUE;
+    private static final int PERCENT = 100;
+
+    private final ConcurrentMap<K, Long> deadlines = new ConcurrentHashMap<>();
+    private final long refreshAfterNanos;
+    private final int jitterPercent;
+    private final Executor executor;
+    private final Refresher<K> refresher;
+
+    /**
+     * Re-fetches the value for a key and writes it to the cache.
+     *
+     * @param <K>
+     *            the key type.
+     */
+    interface Refresher<K> {
+        void refresh(K key);
+    }
+
+    /**
+     * Creates a refresh schedule.
+     *
+     * @param refreshAfterMillis
+     *            the age after which an entry is refreshed. Zero or less disables refreshing.
+     * @param jitterPercent
+     *            the maximum percentage by which each deadline is randomly moved earlier or later.
+     * @param executor
+     *            runs the refreshes.
+     * @param refresher
+     *            re-fetches and writes the value for a key that came due.
+     */
+    RefreshAhead(final long refreshAfterMillis, final int jitterPercent, final Executor executor, final Refresher<K> refresher) {
+        this.refreshAfterNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, refreshAfterMillis));
+        this.jitterPercent = Math.max(0, Math.min(PERCENT, jitterPercent));
+        this.executor = executor;
+        this.refresher = refresher;
+    }
+
+    /**
+     * @return true if entries are refreshed.
+     */
+    boolean isEnabled() {
+        return refreshAfterNanos > 0;
+    }
+
+    /**
+     * Starts the refresh clock for the specified {@code key}. Called whenever a fresh value is written.
+     *
+     * @param key
+     *            the key written.
+     */
+    void onWrite(final K key) {
+        if (isEnabled()) {
+            deadlines.put(key, System.nanoTime() + jitteredRefreshAfterNanos());
+        }
+    }
+
+    /**
+     * Schedules a refresh if {@code key} is past its deadline and no refresh for it is already running. Never blocks.
+     *
+     * @param key
+     *            the key read.
+     */
+    void onRead(final K key) {
+        if (!isEnabled()) {
+            return;
+        }
+        final Long deadline = deadlines.get(key);
+        if (deadline == null || deadline == IN_FLIGHT || System.nanoTime() - deadline < 0 || !deadlines.replace(key, deadline, IN_FLIGHT)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresher.refresh(key);
+                    } finally {
+                        deadlines.replace(key, IN_FLIGHT, System.nanoTime() + jitteredRefreshAfterNanos());
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Refresh of [{}] was rejected, will retry after next refresh interval", key, e);
+            onWrite(key);
+        }
+    }
+
+    /**
+     * Stops refreshing the specified {@code key}.
+     *
+     * @param key
+     *            the key to forget.
+     */
+    void forget(final K key) {
+        deadlines.remove(key);
+    }
+
+    /**
+     * Stops refreshing: forgets every key and shuts the executor down if it is an {@link ExecutorService}. Refreshes already running complete.
+     */
+    void close() {
+        deadlines.clear();
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    private long jitteredRefreshAfterNanos() {
+        if (jitterPercent == 0) {
+            return refreshAfterNanos;
+        }
+        final long jitter = refreshAfterNanos * jitterPercent / PERCENT;
+        return refreshAfterNanos - jitter + (long) (ThreadLocalRandom.current().nextDouble() * 2 * jitter);
+    }
+}
@@ -42,6 +42,17 @@ public class RegisteredSchema implements Serializable {
         this.schema = schema;
     }
 
+    /**
+     * Creates a RegisteredSchema instance with the specified {@code schemaId} whose schema is supplied by the subclass through {@link #getSchema()}.
+     *
+     * @param schemaId
+     *            the unique identifier for the schema.
+     */
+    protected RegisteredSchema(final long schemaId) {
+        this.schemaId = schemaId;
+        this.schema = null;
+    }
+
     /**
      * @return the schemaId
      */
@@ -56,13 +67,20 @@ public class RegisteredSchema implements Serializable {
         return schema;
     }
 
+    /**
+     * @return true if schema registry could not be reached and this is the last schema known for the subject, which a newer version may since have
+     *         replaced.
+     */
+    public boolean isStale() {
+        return false;
+    }
+
+    /**
+     * Hashes the schema id only, so that hashing a {@link LazyRegisteredSchema} never parses it. Equal instances always share a schema id.
+     */
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + (schema == null ? 0 : schema.hashCode());
-        result = prime * result + (int) (schemaId ^ schemaId >>> 32);
-        return result;
+        return (int) (schemaId ^ schemaId >>> 32);
     }
 
     @Override
@@ -73,19 +91,30 @@ public class RegisteredSchema implements Serializable {
         if (obj == null) {
             return false;
         }
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof RegisteredSchema)) {
             return false;
         }
         final RegisteredSchema other = (RegisteredSchema) obj;
         if (schemaId != other.schemaId) {
             return false;
         }
-        return schema.equals(other.schema);
+        return hasSameSchema(other);
+    }
+
+    /**
+     * Compares the schema of this instance with the schema of {@code other}, which has the same schema id.
+     *
+     * @param other
+     *            the registered schema to compare with.
+     * @return true if both hold the same schema.
+     */
+    boolean hasSameSchema(final RegisteredSchema other) {
+        return getSchema().equals(other.getSchema());
     }
 
     @Override
     public String toString() {
-        return "{" + QUOTE + "schemaId" + QUOTE + ":" + schemaId + "," + QUOTE + "schema" + QUOTE + ":" + schema + "}";
+        return "{" + QUOTE + "schemaId" + QUOTE + ":" + schemaId + "," + QUOTE + "schema" + QUOTE + ":" + getSchema() + "}";
     }
 
 }
@@ -0,0 +1,90 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.avro.Schema;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Ids of the schemas known to be registered under their full name, keyed by their canonical JSON. Looking up a schema renders its JSON once per
+ * {@link Schema} instance; the rendering, whose hash code the string caches, is remembered for as long as the instance is reachable, so repeated
+ * lookups with the same instance cost a single identity hash lookup, and freshly parsed but equal instances cost one rendering instead of a registry
+ * request. Keys are compared in full, so a schema is never answered with the id of another schema.
+ *
+ * <p>
+ * The canonical JSON is the full {@link Schema#toString()} rendering, which is what is registered, rather than Avro's parsing canonical form: schemas
+ * that differ only in documentation or default values share a parsing canonical form but are distinct schemas to the registry.
+ */
+final class RegisteredSchemaIndex {
+
+    private final Cache<Schema, String> canonicalJsons = CacheBuilder.newBuilder().weakKeys().build();
+    private final Cache<String, Long> schemaIds;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param cacheEngine
+     *            the eviction policy of the schema ids.
+     * @param maximumSize
+     *            the maximum number of schema ids held. The least valuable ones are dropped beyond it and are then fetched from the registry again.
+     */
+    RegisteredSchemaIndex(final CacheEngine cacheEngine, final long maximumSize) {
+        schemaIds = cacheEngine.newCache(maximumSize);
+    }
+
+    /**
+     * @param schema
+     *            the schema.
+     * @return the canonical JSON of the specified {@code schema}, rendered at most once per instance.
+     */
+    String canonicalJson(final Schema schema) {
+        try {
+            return canonicalJsons.get(schema, new Callable<String>() {
+                @Override
+                public String call() {
+                    return schema.toString();
+                }
+            });
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Failed to render schema " + schema.getFullName(), e.getCause());
+        }
+    }
+
+    /**
+     * @param canonicalJson
+     *            the canonical JSON of a schema.
+     * @return the id of the schema with the specified {@code canonicalJson}, or null if it is not known.
+     */
+    Long getSchemaId(final String canonicalJson) {
+        return schemaIds.getIfPresent(canonicalJson);
+    }
+
+    /**
+     * Records that the schema with the specified {@code canonicalJson} is registered with id {@code schemaId}.
+     */
+    void put(final String canonicalJson, final long schemaId) {
+        schemaIds.put(canonicalJson, schemaId);
+    }
+
+    /**
+     * @return the number of schema ids held.
+     */
+    long size() {
+        return schemaIds.size();
+    }
+}
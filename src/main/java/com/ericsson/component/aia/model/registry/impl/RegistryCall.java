@@ -0,0 +1,32 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+/**
+ * A blocking call against a schema registry which may fail with a checked exception.
+ *
+ * @param <V>
+ *            the result type.
+ * @param <E>
+ *            the checked exception the call may throw.
+ */
+interface RegistryCall<V, E extends Exception> {
+
+    /**
+     * Performs the call.
+     *
+     * @return the result of the call.
+     * @throws E
+     *             if the call fails.
+     */
+    V call() throws E;
+}
@@ -0,0 +1,227 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Tracks the registry instances of a cluster to decide where requests go. Each instance has an exponentially weighted moving average of its latency
+ * and a count of its outstanding requests; instances are ranked by their average latency scaled by their outstanding requests, so a slow or busy
+ * replica receives less traffic while it stays slow or busy, and an instance without measurements is tried first so that it gets measured.
+ *
+ * <p>
+ * Failures never produce a latency, so an instance whose latest request failed is ranked behind every instance whose latest request was answered,
+ * however fast it used to be. An instance failing several requests in a row is quarantined for a while: it is ranked last, behind every other
+ * instance, until the quarantine ends. The latencies of the latest requests to any instance also give the hedge delay, the chosen percentile of those latencies, after which a
+ * read still unanswered is duplicated to the next instance.
+ */
+final class RegistryInstances {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistryInstances.class);
+    private static final double LATENCY_WEIGHT = 0.2;
+    private static final int LATENCY_SAMPLES = 128;
+    private static final int MINIMUM_HEDGE_SAMPLES = 20;
+    private static final int HEDGE_DELAY_RECOMPUTE_SAMPLES = 16;
+    private static final int PERCENT = 100;
+
+    private final Map<String, Instance> instances = new LinkedHashMap<>();
+    private final int hedgePercentile;
+    private final int quarantineFailures;
+    private final long quarantineNanos;
+    private final Ticker ticker;
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int recordedLatencies;
+    private int nextLatency;
+    private int latenciesSinceHedgeDelay = HEDGE_DELAY_RECOMPUTE_SAMPLES;
+    private long hedgeDelayNanos = -1;
+
+    /**
+     * Creates the tracker of the specified registry instances.
+     *
+     * @param baseUrls
+     *            the registry instance urls.
+     * @param hedgePercentile
+     *            the percentile of the latest latencies after which a read is duplicated to another instance, or zero to never duplicate reads.
+     * @param quarantineFailures
+     *            the number of consecutive failed requests after which an instance is quarantined, or zero to never quarantine.
+     * @param quarantineMillis
+     *            how long an instance stays quarantined.
+     * @param ticker
+     *            the time source.
+     */
+    RegistryInstances(final List<String> baseUrls, final int hedgePercentile, final int quarantineFailures, final long quarantineMillis,
+                      final Ticker ticker) {
+        for (final String baseUrl : baseUrls) {
+            instances.put(baseUrl, new Instance(baseUrl));
+        }
+        this.hedgePercentile = Math.max(0, Math.min(PERCENT, hedgePercentile));
+        this.quarantineFailures = Math.max(0, quarantineFailures);
+        this.quarantineNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quarantineMillis));
+        this.ticker = ticker;
+    }
+
+    /**
+     * Parses a comma separated list of registry instance urls.
+     *
+     * @param registryUrlString
+     *            the comma separated registry instance urls.
+     * @return the urls.
+     */
+    static List<String> parseBaseUrls(final String registryUrlString) {
+        final List<String> baseUrls = new ArrayList<>();
+        for (final String baseUrl : registryUrlString.split(",")) {
+            if (!baseUrl.trim().isEmpty()) {
+                baseUrls.add(baseUrl.trim());
+            }
+        }
+        return baseUrls;
+    }
+
+    /**
+     * @return the registry instance urls, the instance the next request should go to first, failing instances after those answering, quarantined
+     *         instances last.
+     */
+    synchronized List<String> ranked() {
+        final long now = ticker.read();
+        final List<Instance> available = new ArrayList<>();
+        final List<Instance> quarantined = new ArrayList<>();
+        for (final Instance instance : instances.values()) {
+            if (instance.isQuarantined(now)) {
+                quarantined.add(instance);
+            } else {
+                available.add(instance);
+            }
+        }
+        Collections.sort(available, new Comparator<Instance>() {
+            @Override
+            public int compare(final Instance left, final Instance right) {
+                if (left.consecutiveFailures != right.consecutiveFailures) {
+                    return Integer.compare(left.consecutiveFailures, right.consecutiveFailures);
+                }
+                return Double.compare(left.score(), right.score());
+            }
+        });
+        final List<String> ranked = new ArrayList<>(instances.size());
+        for (final Instance instance : available) {
+            ranked.add(instance.baseUrl);
+        }
+        for (final Instance instance : quarantined) {
+            ranked.add(instance.baseUrl);
+        }
+        return ranked;
+    }
+
+    /**
+     * Records that a request is being sent to the specified instance.
+     */
+    synchronized void onStart(final String baseUrl) {
+        instances.get(baseUrl).outstanding++;
+    }
+
+    /**
+     * Records that the specified instance answered a request, successfully or with a client error, after {@code latencyNanos}.
+     */
+    synchronized void onAnswer(final String baseUrl, final long latencyNanos) {
+        final Instance instance = instances.get(baseUrl);
+        instance.outstanding--;
+        instance.consecutiveFailures = 0;
+        instance.averageLatencyNanos = instance.averageLatencyNanos == 0 ? latencyNanos
+                : LATENCY_WEIGHT * latencyNanos + (1 - LATENCY_WEIGHT) * instance.averageLatencyNanos;
+        latencies[nextLatency] = latencyNanos;
+        nextLatency = (nextLatency + 1) % latencies.length;
+        recordedLatencies = Math.min(recordedLatencies + 1, latencies.length);
+        latenciesSinceHedgeDelay++;
+    }
+
+    /**
+     * Records that a request to the specified instance was abandoned because another instance answered it first.
+     */
+    synchronized void onAbandoned(final String baseUrl) {
+        instances.get(baseUrl).outstanding--;
+    }
+
+    /**
+     * Records that the specified instance could not be reached or failed a request, quarantining it if it failed too many in a row.
+     */
+    synchronized void onFailure(final String baseUrl) {
+        final Instance instance = instances.get(baseUrl);
+        instance.outstanding--;
+        instance.consecutiveFailures++;
+        if (quarantineFailures > 0 && instance.consecutiveFailures >= quarantineFailures && !instance.isQuarantined(ticker.read())) {
+            LOGGER.warn("Quarantining schema registry instance {} for {} ms after {} consecutive failures", new Object[] { baseUrl,
+                TimeUnit.NANOSECONDS.toMillis(quarantineNanos), instance.consecutiveFailures });
+            instance.quarantined = true;
+            instance.quarantinedUntilNanos = ticker.read() + quarantineNanos;
+            instance.consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * @return true if reads may be duplicated to another instance, because hedging is enabled and there are several instances.
+     */
+    boolean hedgesReads() {
+        return hedgePercentile > 0 && instances.size() > 1;
+    }
+
+    /**
+     * @return how long to wait for an answer to a read before duplicating it to another instance, or -1 if reads are not duplicated, because
+     *         hedging is disabled, there is a single instance, or too few latencies are known yet.
+     */
+    synchronized long getHedgeDelayNanos() {
+        if (hedgePercentile == 0 || instances.size() < 2 || recordedLatencies < MINIMUM_HEDGE_SAMPLES) {
+            return -1;
+        }
+        if (latenciesSinceHedgeDelay >= HEDGE_DELAY_RECOMPUTE_SAMPLES) {
+            final long[] sortedLatencies = Arrays.copyOf(latencies, recordedLatencies);
+            Arrays.sort(sortedLatencies);
+            final int index = (int) Math.ceil(hedgePercentile / (double) PERCENT * sortedLatencies.length) - 1;
+            hedgeDelayNanos = sortedLatencies[Math.max(0, index)];
+            latenciesSinceHedgeDelay = 0;
+        }
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * State of one registry instance.
+     */
+    private final class Instance {
+
+        private final String baseUrl;
+        private double averageLatencyNanos;
+        private int outstanding;
+        private int consecutiveFailures;
+        private long quarantinedUntilNanos;
+        private boolean quarantined;
+
+        private Instance(final String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        private double score() {
+            return averageLatencyNanos * (1 + outstanding);
+        }
+
+        private boolean isQuarantined(final long now) {
+            if (quarantined && now - quarantinedUntilNanos >= 0) {
+                LOGGER.info("Schema registry instance {} is out of quarantine", baseUrl);
+                quarantined = false;
+            }
+            return quarantined;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.IOException;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * A single HTTP request to schema registry through the Confluent client.
+ *
+ * @param <V>
+ *            the result type.
+ */
+interface RegistryRequest<V> {
+
+    /**
+     * Sends the request.
+     *
+     * @return the registry answer.
+     * @throws IOException
+     *             if the registry cannot be reached.
+     * @throws RestClientException
+     *             if the registry answers with an error.
+     */
+    V send() throws IOException, RestClientException;
+}
@@ -0,0 +1,111 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Constants.*;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryLongProperty;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Ticker;
+
+import io.confluent.kafka.schemaregistry.client.rest.RestService;
+
+/**
+ * HTTP transports selectable through the "restSchemaRegistryClient.transport" property, each creating the {@link RestService} the REST client sends
+ * its requests through.
+ */
+enum RegistryTransport {
+
+    /**
+     * Bounded keep-alive connections with connect, read and pool timeouts, latency-aware instance selection, hedged reads and gzip compressed
+     * payloads, see {@link PooledRestService}. Requests only fail over to the next instance at once if the client does not retry them itself.
+     */
+    POOLED("pooled") {
+        @Override
+        RestService newRestService(final String registryUrlString, final Properties properties) {
+            return new PooledRestService(registryUrlString,
+                    (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CONNECT_TIMEOUT_PARAMETER,
+                            DEFAULT_REST_CLIENT_CONNECT_TIMEOUT_MILLIS),
+                    (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_READ_TIMEOUT_PARAMETER,
+                            DEFAULT_REST_CLIENT_READ_TIMEOUT_MILLIS),
+                    getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_POOL_TIMEOUT_PARAMETER, DEFAULT_REST_CLIENT_POOL_TIMEOUT_MILLIS),
+                    (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_MAX_CONNECTIONS_PER_HOST_PARAMETER,
+                            DEFAULT_REST_CLIENT_MAX_CONNECTIONS_PER_HOST),
+                    (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_COMPRESS_REQUESTS_ABOVE_PARAMETER,
+                            DEFAULT_REST_CLIENT_COMPRESS_REQUESTS_ABOVE_BYTES),
+                    new RegistryInstances(RegistryInstances.parseBaseUrls(registryUrlString),
+                            (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_HEDGE_PERCENTILE_PARAMETER,
+                                    DEFAULT_REST_CLIENT_HEDGE_PERCENTILE),
+                            (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_QUARANTINE_FAILURES_PARAMETER,
+                                    DEFAULT_REST_CLIENT_QUARANTINE_FAILURES),
+                            TimeUnit.SECONDS.toMillis(getSchemaRegistryLongProperty(properties,
+                                    REST_SCHEMA_REGISTRY_CLIENT_QUARANTINE_SECONDS_PARAMETER, DEFAULT_REST_CLIENT_QUARANTINE_SECONDS)),
+                            Ticker.systemTicker()),
+                    getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER,
+                            DEFAULT_REST_CLIENT_RETRY_MAX_ATTEMPTS) <= 1);
+        }
+    },
+
+    /**
+     * Confluent's own implementation, which opens a new connection for every request.
+     */
+    REST_SERVICE("restservice") {
+        @Override
+        RestService newRestService(final String registryUrlString, final Properties properties) {
+            return new RestService(registryUrlString);
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistryTransport.class);
+
+    private final String propertyValue;
+
+    RegistryTransport(final String propertyValue) {
+        this.propertyValue = propertyValue;
+    }
+
+    /**
+     * Creates the {@link RestService} sending requests to the specified registry instances.
+     *
+     * @param registryUrlString
+     *            the comma separated registry instance urls.
+     * @param properties
+     *            the client properties.
+     * @return the rest service.
+     */
+    abstract RestService newRestService(String registryUrlString, Properties properties);
+
+    /**
+     * Returns the transport named by the "restSchemaRegistryClient.transport" property of the specified {@code properties}, falling back to the
+     * default transport if the property is missing or unknown.
+     *
+     * @param properties
+     *            the client properties.
+     * @return the transport.
+     */
+    static RegistryTransport fromProperties(final Properties properties) {
+        final String value = properties.getProperty(REST_SCHEMA_REGISTRY_CLIENT_TRANSPORT_PARAMETER, DEFAULT_REST_CLIENT_TRANSPORT).trim();
+        for (final RegistryTransport transport : values()) {
+            if (transport.propertyValue.equalsIgnoreCase(value)) {
+                return transport;
+            }
+        }
+        LOGGER.warn("Unknown value [{}] for property [{}], using default value [{}]", new Object[] { value,
+            REST_SCHEMA_REGISTRY_CLIENT_TRANSPORT_PARAMETER, DEFAULT_REST_CLIENT_TRANSPORT });
+        return REST_SERVICE;
+    }
+}
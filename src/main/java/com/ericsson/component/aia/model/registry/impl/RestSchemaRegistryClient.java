@@ -12,27 +12,87 @@
 
 package com.ericsson.component.aia.model.registry.impl;
 
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_ASYNC_THREADS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_BULK_PARALLELISM;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CACHE_MAX_BYTES;
 import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CACHE_SIZE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CIRCUIT_FAILURE_RATE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CIRCUIT_OPEN_SECONDS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CIRCUIT_PROBE_TIMEOUT_MILLIS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CIRCUIT_SLOW_CALL_MILLIS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_CIRCUIT_WINDOW_SIZE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_COLD_TIER_MAX_BYTES;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_HOT_TIER_MAX_SIZE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_OFF_HEAP_HOT_TIER_MAX_SIZE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_ID_INDEX_MAX_ID;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_REFRESH_AFTER_WRITE_SECONDS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_REFRESH_JITTER_PERCENT;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_RETRY_BUDGET_PERCENT;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_RETRY_INITIAL_BACKOFF_MILLIS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_RETRY_MAX_ATTEMPTS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_RETRY_MAX_BACKOFF_MILLIS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_REST_CLIENT_SHARED_CACHE_MAX_BYTES;
 import static com.ericsson.component.aia.model.registry.utils.Constants.INVALID_REST_ENDPOINT_MESSAGE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_ASYNC_THREADS_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_BULK_PARALLELISM_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER;
 import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_SIZE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_FAILURE_RATE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_OPEN_SECONDS_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_PROBE_TIMEOUT_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_SLOW_CALL_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_WINDOW_SIZE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_COLD_TIER_MAX_BYTES_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_ID_INDEX_MAX_ID_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_REFRESH_AFTER_WRITE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_REFRESH_JITTER_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_RETRY_BUDGET_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_RETRY_INITIAL_BACKOFF_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_BACKOFF_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_SHARED_CACHE_FILE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_SHARED_CACHE_MAX_BYTES_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_SNAPSHOT_FILE_PARAMETER;
 import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_ADDRESS_PARAMETER;
 import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_CACHE_MAX_SIZE_PARAMETER;
 import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_RETRIEVAL_MESSAGE;
 import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaNotRegisteredMessage;
 import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistrationExceptionMessage;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryByteSizeProperty;
 import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryCacheSizeProperty;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryLongProperty;
 import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryUrlProperty;
 import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRetrievalExceptionMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
 import io.confluent.kafka.schemaregistry.client.rest.RestService;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaString;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
@@ -42,22 +102,77 @@ import org.slf4j.LoggerFactory;
 import com.ericsson.component.aia.model.registry.client.SchemaRegistryClient;
 import com.ericsson.component.aia.model.registry.exception.SchemaRegistrationException;
 import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+import com.ericsson.component.aia.model.registry.utils.SchemaInterner;
+import com.ericsson.component.aia.model.registry.utils.SchemaParseCache;
 import com.ericsson.component.aia.model.registry.utils.Utils;
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Schema registry client for interacting with Confluent schema registry. Uses a wrapped version of Confluent's schema registry client. Accepts a list
  * of schema registry instances as long as they are separated by commas.
  */
-public class RestSchemaRegistryClient implements SchemaRegistryClient {
+public class RestSchemaRegistryClient implements SchemaRegistryClient, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestSchemaRegistryClient.class);
     private static final String EVENT_ID_FIELD = "_ID";
     private static final int URL_NOT_FOUND = 404;
+    private static final int SUBJECT_NOT_FOUND = 40401;
+    private static final int VERSION_NOT_FOUND = 40402;
+    private static final int SCHEMA_NOT_FOUND = 40403;
+    private static final String ALL_SUBJECTS = "*";
+    /**
+     * The byte budget is split evenly between the subject cache, the last known versions, the raw JSON cache and the parsed schemas by id.
+     */
+    private static final int CACHE_BUDGET_SHARES = 4;
+    private static final Set<RestSchemaRegistryClient> SNAPSHOT_CLIENTS = Collections.newSetFromMap(
+            new WeakHashMap<RestSchemaRegistryClient, Boolean>());
+    private static boolean snapshotHookAdded;
     protected Cache<String, RegisteredSchema> registeredSchemaCache;
+    private final Cache<Long, byte[]> rawSchemaCache;
     private final CachedSchemaRegistryClient client;
     private final RestService restService;
+    private final TieredSchemaStore schemaStore;
+    private final RegisteredSchemaIndex registeredSchemaIds;
+    private final OffHeapSchemaArena offHeapArena;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+    private final Cache<String, RegisteredSchema> lastKnownSubjects;
+    private final ConcurrentMap<String, SubjectVersions> subjectVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, SubjectVersion> subjectsById = new ConcurrentHashMap<>();
+    private final SchemaInterner schemaInterner = new SchemaInterner();
+    private final RawSchemaParser rawSchemaParser = new RawSchemaParser() {
+        @Override
+        public Schema parse(final long schemaId, final byte[] rawSchema) {
+            if (null != offHeapArena) {
+                offHeapArena.put(schemaId, rawSchema);
+            }
+            final Schema schema = schemaInterner.intern(SchemaParseCache.INSTANCE.parse(new String(rawSchema, UTF_8)));
+            schemaStore.put(schemaId, schema);
+            return schema;
+        }
+    };
+    private final SingleFlight<Long, Schema> idLookups = new SingleFlight<>();
+    private final SingleFlight<Long, byte[]> rawIdLookups = new SingleFlight<>();
+    private final SingleFlight<String, RegisteredSchema> subjectLookups = new SingleFlight<>();
+    private final SingleFlight<String, Long> registrations = new SingleFlight<>();
+    private final SingleFlight<String, Collection<RegisteredSchema>> enumerations = new SingleFlight<>();
+    private final SingleFlight<String, SchemaSyncResult> syncs = new SingleFlight<>();
+    private final NegativeCache<Long> unknownIds;
+    private final NegativeCache<String> unknownSubjects;
+    private final RefreshAhead<String> subjectRefresh;
+    private final int asyncThreads;
+    private final int bulkParallelism;
+    private final Path snapshotFile;
+    private final SharedSchemaRegion sharedRegion;
+    private volatile Executor asyncExecutor;
+    private volatile Map<String, SyncedSubject> syncedSubjects = Collections.emptyMap();
 
     /**
      * Default Constructor. Constructs an instance of RestSchemaRegistryClient that connects to a schema registry running on the url specified by the
@@ -75,7 +190,7 @@ public class RestSchemaRegistryClient implements SchemaRegistryClient {
      *            used to instantiate client. Should contain properties "schemaRegistry.address" and (optional) "schemaRegistry.cacheMaximumSize".
      */
     public RestSchemaRegistryClient(final Properties properties) {
-        this(getSchemaRegistryUrlProperty(properties), getSchemaRegistryCacheSizeProperty(properties));
+        this(getSchemaRegistryUrlProperty(properties), getSchemaRegistryCacheSizeProperty(properties), properties);
     }
 
     /**
@@ -88,64 +203,506 @@ public class RestSchemaRegistryClient implements SchemaRegistryClient {
      *            the size of the registry client cache
      */
     public RestSchemaRegistryClient(final String registryUrlString, final int cacheSize) {
+        this(registryUrlString, cacheSize, System.getProperties());
+    }
+
+    private RestSchemaRegistryClient(final String registryUrlString, final int cacheSize, final Properties properties) {
         checkArgumentIsNotNull("registryUrlString", registryUrlString);
         isValidRestEndpoint(registryUrlString);
-        restService = new RestService(registryUrlString);
+        restService = RegistryTransport.fromProperties(properties).newRestService(registryUrlString, properties);
         LOGGER.info("Starting RestSchemaRegistryClient with following properties [{}={}, {}={}]", new Object[] { SCHEMA_REGISTRY_ADDRESS_PARAMETER,
             registryUrlString, SCHEMA_REGISTRY_CACHE_MAX_SIZE_PARAMETER, String.valueOf(cacheSize) });
         client = new CachedSchemaRegistryClient(restService, cacheSize);
-        registeredSchemaCache =
-                CacheBuilder.newBuilder().maximumSize(getRestSchemaRegistryClientCacheSize()).build();
+        final CacheEngine cacheEngine = CacheEngine.fromProperties(properties);
+        final long clientCacheSize = getRestSchemaRegistryClientCacheSize(properties);
+        final long cacheMaximumBytes = getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER,
+                DEFAULT_REST_CLIENT_CACHE_MAX_BYTES);
+        subjectRefresh = createSubjectRefresh(properties);
+        final RemovalListener<String, RegisteredSchema> subjectRemovalListener = createSubjectRemovalListener();
+        final long cacheShareBytes = cacheMaximumBytes / CACHE_BUDGET_SHARES;
+        if (cacheMaximumBytes > 0) {
+            LOGGER.info("Bounding RestSchemaRegistryClient caches to an estimated {} bytes in total, {} bytes per cache", cacheMaximumBytes,
+                    cacheShareBytes);
+            final Weigher<String, RegisteredSchema> registeredSchemaWeigher = SchemaWeighers.countBounded(SchemaWeighers.REGISTERED_SCHEMA,
+                    cacheShareBytes, clientCacheSize);
+            registeredSchemaCache = cacheEngine.newCache(cacheShareBytes, clientCacheSize, registeredSchemaWeigher, subjectRemovalListener);
+            lastKnownSubjects = cacheEngine.newCache(cacheShareBytes, clientCacheSize, registeredSchemaWeigher);
+            rawSchemaCache = cacheEngine.newCache(cacheShareBytes, clientCacheSize, SchemaWeighers.countBounded(SchemaWeighers.RAW_SCHEMA,
+                    cacheShareBytes, clientCacheSize));
+        } else {
+            registeredSchemaCache = cacheEngine.newCache(clientCacheSize, subjectRemovalListener);
+            lastKnownSubjects = cacheEngine.newCache(clientCacheSize);
+            rawSchemaCache = cacheEngine.newCache(clientCacheSize);
+        }
+        registeredSchemaIds = new RegisteredSchemaIndex(cacheEngine, clientCacheSize);
+        offHeapArena = OffHeapSchemaArena.fromProperties(properties);
+        final ColdSchemaTier coldTier = null != offHeapArena ? offHeapArena : new DeflatedSchemaTier(getSchemaRegistryByteSizeProperty(properties,
+                REST_SCHEMA_REGISTRY_CLIENT_COLD_TIER_MAX_BYTES_PARAMETER, DEFAULT_REST_CLIENT_COLD_TIER_MAX_BYTES));
+        final int hotTierMaximumSize = (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER,
+                null != offHeapArena ? DEFAULT_REST_CLIENT_OFF_HEAP_HOT_TIER_MAX_SIZE : DEFAULT_REST_CLIENT_HOT_TIER_MAX_SIZE);
+        schemaStore = new TieredSchemaStore(getRestSchemaRegistryClientIdIndexMaxId(properties), hotTierMaximumSize, cacheShareBytes, coldTier,
+                schemaInterner);
+        unknownIds = new NegativeCache<>(properties);
+        unknownSubjects = new NegativeCache<>(properties);
+        circuitBreaker = createCircuitBreaker(properties);
+        retryPolicy = createRetryPolicy(properties);
+        asyncThreads = (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_ASYNC_THREADS_PARAMETER,
+                DEFAULT_REST_CLIENT_ASYNC_THREADS);
+        bulkParallelism = (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_BULK_PARALLELISM_PARAMETER,
+                DEFAULT_REST_CLIENT_BULK_PARALLELISM);
+        sharedRegion = openSharedRegion(properties);
+        snapshotFile = getSnapshotFile(properties);
+        if (null != snapshotFile) {
+            loadSnapshot();
+            saveSnapshotOnShutdown(this);
+        }
+    }
+
+    /**
+     * Stops the background refresh of subjects and the duplication of reads, and saves the snapshot if "restSchemaRegistryClient.snapshotFile" is
+     * set, no longer saving it on JVM shutdown.
+     */
+    @Override
+    public void close() {
+        subjectRefresh.close();
+        if (restService instanceof PooledRestService) {
+            ((PooledRestService) restService).close();
+        }
+        if (null != snapshotFile) {
+            synchronized (SNAPSHOT_CLIENTS) {
+                SNAPSHOT_CLIENTS.remove(this);
+            }
+            saveSnapshotQuietly();
+        }
+    }
+
+    /**
+     * Registers the specified {@code client} to save its snapshot on JVM shutdown. A single shutdown hook serves every client, and only holds them
+     * weakly, so creating many clients neither piles up hooks nor keeps discarded clients alive.
+     */
+    private static void saveSnapshotOnShutdown(final RestSchemaRegistryClient client) {
+        synchronized (SNAPSHOT_CLIENTS) {
+            SNAPSHOT_CLIENTS.add(client);
+            if (!snapshotHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread("schema-registry-snapshot") {
+                    @Override
+                    public void run() {
+                        final List<RestSchemaRegistryClient> clients;
+                        synchronized (SNAPSHOT_CLIENTS) {
+                            clients = new ArrayList<>(SNAPSHOT_CLIENTS);
+                        }
+                        for (final RestSchemaRegistryClient snapshotClient : clients) {
+                            snapshotClient.saveSnapshotQuietly();
+                        }
+                    }
+                });
+                snapshotHookAdded = true;
+            }
+        }
     }
 
+    /**
+     * {@inheritDoc} Schemas already resolved are served from a lock-free index keyed by schema id, or inflated from the compressed cold tier if
+     * they were demoted, then from the host-wide shared region if "restSchemaRegistryClient.sharedCacheFile" is set; only misses reach schema
+     * registry. Concurrent misses for the same id share a single request, and ids the registry recently reported as unknown fail without a request.
+     */
     @Override
     public Schema lookup(final long schemaId) throws SchemaRetrievalException {
+        final Schema indexedSchema = schemaStore.get(schemaId);
+        if (null != indexedSchema) {
+            return indexedSchema;
+        }
+        unknownIds.checkNotMissing(schemaId);
+        return idLookups.execute(schemaId, new RegistryCall<Schema, SchemaRetrievalException>() {
+            @Override
+            public Schema call() throws SchemaRetrievalException {
+                Schema schema = schemaStore.get(schemaId);
+                if (null == schema) {
+                    final byte[] sharedSchema = getShared(schemaId);
+                    schema = null == sharedSchema ? lookupSchemaRegistry(schemaId) : rawSchemaParser.parse(schemaId, sharedSchema);
+                }
+                return schema;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc} Schemas already registered through this client, or found by {@link #idFor(Schema)}, are answered locally from their JSON, which
+     * is rendered once per {@link Schema} instance. Concurrent registrations of the same schema share a single request.
+     */
+    @Override
+    public long put(final Schema schema) throws SchemaRegistrationException {
+        checkArgumentIsNotNull("schema", schema);
+        final String canonicalJson = registeredSchemaIds.canonicalJson(schema);
+        final Long registeredSchemaId = registeredSchemaIds.getSchemaId(canonicalJson);
+        if (null != registeredSchemaId) {
+            return registeredSchemaId;
+        }
+        return registrations.execute(canonicalJson, new RegistryCall<Long, SchemaRegistrationException>() {
+            @Override
+            public Long call() throws SchemaRegistrationException {
+                final long schemaId = register(schema);
+                registeredSchemaIds.put(canonicalJson, schemaId);
+                unknownIds.invalidate(schemaId);
+                unknownSubjects.invalidate(schema.getFullName());
+                return schemaId;
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc} Schemas already registered or looked up through this client are answered from their JSON without a request.
+     */
+    @Override
+    public long idFor(final Schema schema) throws SchemaRetrievalException {
+        checkArgumentIsNotNull("schema", schema);
+        final String canonicalJson = registeredSchemaIds.canonicalJson(schema);
+        final Long registeredSchemaId = registeredSchemaIds.getSchemaId(canonicalJson);
+        if (null != registeredSchemaId) {
+            return registeredSchemaId;
+        }
         try {
-            return client.getByID((int) schemaId);
+            final long schemaId = callRegistry(new RegistryRequest<io.confluent.kafka.schemaregistry.client.rest.entities.Schema>() {
+                @Override
+                public io.confluent.kafka.schemaregistry.client.rest.entities.Schema send() throws IOException, RestClientException {
+                    return restService.lookUpSubjectVersion(schema.toString(), schema.getFullName());
+                }
+            }).getId();
+            registeredSchemaIds.put(canonicalJson, schemaId);
+            return schemaId;
         } catch (final IOException | RestClientException e) {
-            if (e instanceof IOException || URL_NOT_FOUND == ((RestClientException) e).getErrorCode()) {
-                throw new SchemaRetrievalException("Schema registry url not found " + restService.getBaseUrls(), e);
-            } else {
-                throw new SchemaRetrievalException(getSchemaRetrievalExceptionMessage(schemaId), e);
+            if (isNotFound(e)) {
+                throw new SchemaRetrievalException(getSchemaNotRegisteredMessage(schema), e);
             }
+            throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, e);
+        }
+    }
+
+    private Schema lookupSchemaRegistry(final long schemaId) throws SchemaRetrievalException {
+        try {
+            final byte[] rawSchema = getSchemaString(schemaId).getBytes(UTF_8);
+            share(schemaId, rawSchema);
+            return rawSchemaParser.parse(schemaId, rawSchema);
+        } catch (final IOException | RestClientException e) {
+            throw toSchemaRetrievalException(schemaId, e);
         }
     }
 
+    /**
+     * {@inheritDoc} The JSON is cached as returned by the registry and never parsed, off-heap if "schemaRegistry.offHeapMaximumBytes" is set.
+     * Concurrent misses for the same id share a single request, and ids the registry recently reported as unknown fail without a request.
+     */
     @Override
-    public long put(final Schema schema) throws SchemaRegistrationException {
-        checkArgumentIsNotNull("schema", schema);
+    public byte[] lookupRaw(final long schemaId) throws SchemaRetrievalException {
+        if (null != offHeapArena) {
+            final byte[] offHeapSchema = offHeapArena.get(schemaId);
+            if (null != offHeapSchema) {
+                return offHeapSchema;
+            }
+        }
+        byte[] rawSchema = rawSchemaCache.getIfPresent(schemaId);
+        if (null == rawSchema) {
+            unknownIds.checkNotMissing(schemaId);
+            rawSchema = rawIdLookups.execute(schemaId, new RegistryCall<byte[], SchemaRetrievalException>() {
+                @Override
+                public byte[] call() throws SchemaRetrievalException {
+                    try {
+                        byte[] loadedSchema = getShared(schemaId);
+                        if (null == loadedSchema) {
+                            loadedSchema = getSchemaString(schemaId).getBytes(UTF_8);
+                            share(schemaId, loadedSchema);
+                        }
+                        if (null == offHeapArena || !offHeapArena.put(schemaId, loadedSchema)) {
+                            rawSchemaCache.put(schemaId, loadedSchema);
+                        }
+                        return loadedSchema;
+                    } catch (final IOException | RestClientException e) {
+                        throw toSchemaRetrievalException(schemaId, e);
+                    }
+                }
+            });
+        }
+        return rawSchema.clone();
+    }
+
+    private String getSchemaString(final long schemaId) throws IOException, RestClientException {
+        return callRegistry(new RegistryRequest<SchemaString>() {
+            @Override
+            public SchemaString send() throws IOException, RestClientException {
+                return restService.getId((int) schemaId);
+            }
+        }).getSchemaString();
+    }
+
+    private byte[] getShared(final long schemaId) {
+        return null == sharedRegion ? null : sharedRegion.get(schemaId);
+    }
+
+    /**
+     * Publishes the specified schema to the host-wide shared region, if enabled. Failures only cost other processes a registry call, so they are
+     * logged and ignored.
+     */
+    private void share(final long schemaId, final byte[] rawSchema) {
+        if (null == sharedRegion) {
+            return;
+        }
+        try {
+            if (!sharedRegion.put(schemaId, rawSchema)) {
+                LOGGER.debug("Shared schema region is full, schema with id::{} is not shared", schemaId);
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to share schema with id::{}", schemaId, e);
+        }
+    }
+
+    private static SharedSchemaRegion openSharedRegion(final Properties properties) {
+        final String sharedFileName = properties.getProperty(REST_SCHEMA_REGISTRY_CLIENT_SHARED_CACHE_FILE_PARAMETER);
+        if (null == sharedFileName || sharedFileName.trim().isEmpty()) {
+            return null;
+        }
+        final long maximumBytes = getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_SHARED_CACHE_MAX_BYTES_PARAMETER,
+                DEFAULT_REST_CLIENT_SHARED_CACHE_MAX_BYTES);
+        try {
+            return SharedSchemaRegion.open(Paths.get(sharedFileName.trim()), maximumBytes);
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to open shared schema region {}, continuing without it", sharedFileName, e);
+            return null;
+        }
+    }
+
+    private SchemaRetrievalException toSchemaRetrievalException(final long schemaId, final Exception exception) {
+        if (exception instanceof CircuitOpenException) {
+            return new SchemaRetrievalException(getSchemaRetrievalExceptionMessage(schemaId) + ", schema registry is unavailable", exception);
+        }
+        if (exception instanceof IOException || URL_NOT_FOUND == ((RestClientException) exception).getErrorCode()) {
+            return new SchemaRetrievalException("Schema registry url not found " + restService.getBaseUrls(), exception);
+        }
+        if (isNotFound(exception)) {
+            unknownIds.recordMiss(schemaId, getSchemaRetrievalExceptionMessage(schemaId));
+        }
+        return new SchemaRetrievalException(getSchemaRetrievalExceptionMessage(schemaId), exception);
+    }
+
+    private long register(final Schema schema) throws SchemaRegistrationException {
         try {
-            return client.register(schema.getFullName(), schema);
+            return callRegistry(new RegistryRequest<Integer>() {
+                @Override
+                public Integer send() throws IOException, RestClientException {
+                    return client.register(schema.getFullName(), schema);
+                }
+            });
         } catch (IOException | RestClientException e) {
             throw new SchemaRegistrationException(getSchemaRegistrationExceptionMessage(schema), e);
         }
     }
 
+    /**
+     * {@inheritDoc} A registered version never changes, so every version fetched, including the latest versions returned by {@link #lookup(String)},
+     * is kept for the lifetime of the client and answered without a request.
+     */
+    @Override
+    public RegisteredSchema lookup(final String subject, final int version) throws SchemaRetrievalException {
+        checkArgumentIsNotNull("subject", subject);
+        final RegisteredSchema fetchedSchema = getFetchedVersion(subject, version);
+        if (null != fetchedSchema) {
+            return fetchedSchema;
+        }
+        unknownSubjects.checkNotMissing(subject);
+        try {
+            final io.confluent.kafka.schemaregistry.client.rest.entities.Schema registeredVersion =
+                    callRegistry(new RegistryRequest<io.confluent.kafka.schemaregistry.client.rest.entities.Schema>() {
+                        @Override
+                        public io.confluent.kafka.schemaregistry.client.rest.entities.Schema send() throws IOException, RestClientException {
+                            return restService.getVersion(subject, version);
+                        }
+                    });
+            final byte[] rawSchema = registeredVersion.getSchema().getBytes(UTF_8);
+            share(registeredVersion.getId(), rawSchema);
+            return addFetchedVersion(subject, version, newLazyRegisteredSchema(registeredVersion.getId(), rawSchema));
+        } catch (final IOException | RestClientException e) {
+            if (isSubjectNotFound(e)) {
+                unknownSubjects.recordMiss(subject, "No schema exists with subject name: " + subject);
+            }
+            throw new SchemaRetrievalException(String.format("Could not retrieve version %s of schema with subject: %s", version, subject), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc} The list of versions is fetched from the registry on every call, as new versions may have been registered since.
+     */
+    @Override
+    public List<Integer> versions(final String subject) throws SchemaRetrievalException {
+        checkArgumentIsNotNull("subject", subject);
+        unknownSubjects.checkNotMissing(subject);
+        try {
+            final List<Integer> versions = new ArrayList<>(getAllVersions(subject));
+            Collections.sort(versions);
+            return Collections.unmodifiableList(versions);
+        } catch (final IOException | RestClientException e) {
+            if (isSubjectNotFound(e)) {
+                unknownSubjects.recordMiss(subject, "No schema exists with subject name: " + subject);
+            }
+            throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc} Every subject version this client fetches is indexed by schema id, so only ids it has not yet seen under a subject, such as ids
+     * only looked up by id or registered through {@link #put(Schema)}, which does not report the version, are resolved with a request.
+     */
+    @Override
+    public SubjectVersion subjectOf(final long schemaId) throws SchemaRetrievalException {
+        final SubjectVersion indexedSubject = subjectsById.get(schemaId);
+        if (null != indexedSubject) {
+            return indexedSubject;
+        }
+        unknownIds.checkNotMissing(schemaId);
+        try {
+            final List<io.confluent.kafka.schemaregistry.client.rest.entities.SubjectVersion> registeredVersions =
+                    callRegistry(new RegistryRequest<List<io.confluent.kafka.schemaregistry.client.rest.entities.SubjectVersion>>() {
+                        @Override
+                        public List<io.confluent.kafka.schemaregistry.client.rest.entities.SubjectVersion> send()
+                                throws IOException, RestClientException {
+                            return restService.getAllVersionsById((int) schemaId);
+                        }
+                    });
+            if (registeredVersions.isEmpty()) {
+                throw new SchemaRetrievalException(getSchemaRetrievalExceptionMessage(schemaId));
+            }
+            final SubjectVersion subjectVersion = new SubjectVersion(registeredVersions.get(0).getSubject(), registeredVersions.get(0).getVersion());
+            final SubjectVersion racedSubject = subjectsById.putIfAbsent(schemaId, subjectVersion);
+            return null == racedSubject ? subjectVersion : racedSubject;
+        } catch (final IOException | RestClientException e) {
+            throw toSchemaRetrievalException(schemaId, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Schema> lookupAsync(final long schemaId) {
+        final Schema indexedSchema = schemaStore.get(schemaId);
+        if (null != indexedSchema) {
+            return CompletableFuture.completedFuture(indexedSchema);
+        }
+        return AsyncCalls.supplyAsync(new RegistryCall<Schema, SchemaRetrievalException>() {
+            @Override
+            public Schema call() throws SchemaRetrievalException {
+                return lookup(schemaId);
+            }
+        }, getAsyncExecutor());
+    }
+
+    @Override
+    public CompletableFuture<RegisteredSchema> lookupAsync(final String subject) {
+        checkArgumentIsNotNull("subject", subject);
+        final RegisteredSchema registeredSchema = registeredSchemaCache.getIfPresent(subject);
+        if (null != registeredSchema) {
+            subjectRefresh.onRead(subject);
+            return CompletableFuture.completedFuture(registeredSchema);
+        }
+        return AsyncCalls.supplyAsync(new RegistryCall<RegisteredSchema, SchemaRetrievalException>() {
+            @Override
+            public RegisteredSchema call() throws SchemaRetrievalException {
+                return lookup(subject);
+            }
+        }, getAsyncExecutor());
+    }
+
+    @Override
+    public CompletableFuture<Long> putAsync(final Schema schema) {
+        checkArgumentIsNotNull("schema", schema);
+        final Long registeredSchemaId = registeredSchemaIds.getSchemaId(registeredSchemaIds.canonicalJson(schema));
+        if (null != registeredSchemaId) {
+            return CompletableFuture.completedFuture(registeredSchemaId);
+        }
+        return AsyncCalls.supplyAsync(new RegistryCall<Long, SchemaRegistrationException>() {
+            @Override
+            public Long call() throws SchemaRegistrationException {
+                return put(schema);
+            }
+        }, getAsyncExecutor());
+    }
+
+    /**
+     * {@inheritDoc} At most "restSchemaRegistryClient.bulkParallelism" ids are fetched at once.
+     */
+    @Override
+    public LookupResults<Long, Schema> lookupAll(final Collection<Long> schemaIds) {
+        checkArgumentIsNotNull("schemaIds", schemaIds);
+        return BulkLookup.lookupAll(schemaIds, new BulkLookup.Resolver<Long, Schema>() {
+            @Override
+            public Schema cached(final Long schemaId) {
+                return schemaStore.get(schemaId);
+            }
+
+            @Override
+            public Schema resolve(final Long schemaId) throws SchemaRetrievalException {
+                return lookup(schemaId);
+            }
+        }, getAsyncExecutor(), bulkParallelism);
+    }
+
+    /**
+     * {@inheritDoc} At most "restSchemaRegistryClient.bulkParallelism" subjects are fetched at once.
+     */
+    @Override
+    public LookupResults<String, RegisteredSchema> lookupAllSubjects(final Collection<String> subjects) {
+        checkArgumentIsNotNull("subjects", subjects);
+        return BulkLookup.lookupAll(subjects, new BulkLookup.Resolver<String, RegisteredSchema>() {
+            @Override
+            public RegisteredSchema cached(final String subject) {
+                return registeredSchemaCache.getIfPresent(subject);
+            }
+
+            @Override
+            public RegisteredSchema resolve(final String subject) throws SchemaRetrievalException {
+                return lookup(subject);
+            }
+        }, getAsyncExecutor(), bulkParallelism);
+    }
+
+    /**
+     * Sets the executor the asynchronous lookups, registrations and bulk lookups run on. If not set, a pool of "restSchemaRegistryClient.asyncThreads" daemon
+     * threads is created on first use.
+     *
+     * @param executor
+     *            the executor to run registry calls on.
+     */
+    public void setAsyncExecutor(final Executor executor) {
+        checkArgumentIsNotNull("executor", executor);
+        asyncExecutor = executor;
+    }
+
+    private Executor getAsyncExecutor() {
+        Executor executor = asyncExecutor;
+        if (null == executor) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (null == executor) {
+                    executor = AsyncCalls.newDefaultExecutor(asyncThreads);
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
     /**
      * Returns a set of all {@link RegisteredSchema} stored in schema registry. Additional functionality the Confluent
-     * {@link CachedSchemaRegistryClient} lacks.
+     * {@link CachedSchemaRegistryClient} lacks. Subjects are fetched concurrently, at most "restSchemaRegistryClient.bulkParallelism" at once, and
+     * concurrent callers share a single enumeration of the registry.
      *
      * @return set of registered schemas stored in registry.
      * @throws SchemaRetrievalException
      *             if the schemas cannot be retrieved from schema registry.
      */
-    public synchronized Set<RegisteredSchema> getAllSchemas() throws SchemaRetrievalException {
-        try {
-            final List<String> subjects = restService.getAllSubjects();
-            final Set<RegisteredSchema> schemas = new HashSet<>();
-            for (final String subject : subjects) {
-                final RegisteredSchema registeredSchema = lookup(subject);
-                schemas.add(registeredSchema);
-            }
-            return schemas;
-        } catch (IOException | RestClientException e) {
-            throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, e);
-        }
+    public Set<RegisteredSchema> getAllSchemas() throws SchemaRetrievalException {
+        return new HashSet<>(enumerateAllSchemas());
     }
 
     /**
      * Returns a set of all {@link RegisteredSchema} stored in schema registry which have an event_id matching an event_is in the specified
-     * {@code whitelistedEventIds}. Additional functionality the Confluent {@link CachedSchemaRegistryClient} lacks.
+     * {@code whitelistedEventIds}. Additional functionality the Confluent {@link CachedSchemaRegistryClient} lacks. Shares the enumeration of the
+     * registry with any concurrent {@link #getAllSchemas()} call.
      *
      * @param whitelistedEventIds
      *            list of eventIds to filter schemas on.
@@ -153,39 +710,335 @@ public class RestSchemaRegistryClient implements SchemaRegistryClient {
      * @throws SchemaRetrievalException
      *             if the schemas cannot be retrieved from schema registry.
      */
-    public synchronized Set<RegisteredSchema> getSchemasByEventIds(final List<Integer> whitelistedEventIds) throws SchemaRetrievalException {
+    public Set<RegisteredSchema> getSchemasByEventIds(final List<Integer> whitelistedEventIds) throws SchemaRetrievalException {
         checkArgumentIsNotNull("whitelistedEventIds", whitelistedEventIds);
+        final Set<RegisteredSchema> schemas = new HashSet<>();
+        for (final RegisteredSchema registeredSchema : enumerateAllSchemas()) {
+            final Field eventIdField = registeredSchema.getSchema().getField(EVENT_ID_FIELD);
+            if (eventIdField != null && whitelistedEventIds.contains(eventIdField.defaultVal())) {
+                schemas.add(registeredSchema);
+            }
+        }
+        return schemas;
+    }
+
+    private Collection<RegisteredSchema> enumerateAllSchemas() throws SchemaRetrievalException {
+        return enumerations.execute(ALL_SUBJECTS, new RegistryCall<Collection<RegisteredSchema>, SchemaRetrievalException>() {
+            @Override
+            public Collection<RegisteredSchema> call() throws SchemaRetrievalException {
+                final LookupResults<String, RegisteredSchema> results = lookupAllSubjects(getAllSubjects());
+                if (!results.isComplete()) {
+                    throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, results.getFailures().values().iterator().next());
+                }
+                return Collections.unmodifiableCollection(results.getFound().values());
+            }
+        });
+    }
+
+    /**
+     * Incrementally synchronises with schema registry. Remembers the subjects and the latest version per subject seen by the previous call, and only
+     * fetches the schemas of subjects that are new or whose latest version changed; unchanged subjects only cost a version listing. The first call
+     * fetches every subject. Concurrent callers share a single synchronisation.
+     *
+     * @return the subjects added, updated and removed since the previous call, and the full view of the latest schema per subject.
+     * @throws SchemaRetrievalException
+     *             if the schemas cannot be retrieved from schema registry. The remembered state is left unchanged.
+     */
+    public SchemaSyncResult syncAllSchemas() throws SchemaRetrievalException {
+        return syncs.execute(ALL_SUBJECTS, new RegistryCall<SchemaSyncResult, SchemaRetrievalException>() {
+            @Override
+            public SchemaSyncResult call() throws SchemaRetrievalException {
+                return synchronise();
+            }
+        });
+    }
+
+    private SchemaSyncResult synchronise() throws SchemaRetrievalException {
+        final Map<String, SyncedSubject> previousSubjects = syncedSubjects;
+        final LookupResults<String, SyncedSubject> results = BulkLookup.lookupAll(getAllSubjects(),
+                new BulkLookup.Resolver<String, SyncedSubject>() {
+                    @Override
+                    public SyncedSubject cached(final String subject) {
+                        return null;
+                    }
+
+                    @Override
+                    public SyncedSubject resolve(final String subject) throws SchemaRetrievalException {
+                        return syncSubject(subject, previousSubjects.get(subject));
+                    }
+                }, getAsyncExecutor(), bulkParallelism);
+        if (!results.isComplete()) {
+            throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, results.getFailures().values().iterator().next());
+        }
+        final Map<String, SyncedSubject> currentSubjects = new HashMap<>(results.getFound());
+        final Map<String, RegisteredSchema> added = new HashMap<>();
+        final Map<String, RegisteredSchema> updated = new HashMap<>();
+        final Map<String, RegisteredSchema> removed = new HashMap<>();
+        final Map<String, RegisteredSchema> allSchemas = new HashMap<>();
+        for (final Map.Entry<String, SyncedSubject> entry : currentSubjects.entrySet()) {
+            final SyncedSubject previous = previousSubjects.get(entry.getKey());
+            final RegisteredSchema registeredSchema = entry.getValue().registeredSchema;
+            allSchemas.put(entry.getKey(), registeredSchema);
+            if (null == previous) {
+                added.put(entry.getKey(), registeredSchema);
+            } else if (previous != entry.getValue()) {
+                updated.put(entry.getKey(), registeredSchema);
+            }
+        }
+        for (final Map.Entry<String, SyncedSubject> entry : previousSubjects.entrySet()) {
+            if (!currentSubjects.containsKey(entry.getKey())) {
+                removed.put(entry.getKey(), entry.getValue().registeredSchema);
+                registeredSchemaCache.invalidate(entry.getKey());
+                subjectRefresh.forget(entry.getKey());
+            }
+        }
+        syncedSubjects = currentSubjects;
+        return new SchemaSyncResult(added, updated, removed, allSchemas);
+    }
+
+    private SyncedSubject syncSubject(final String subject, final SyncedSubject previous) throws SchemaRetrievalException {
         try {
-            final List<String> subjects = restService.getAllSubjects();
-            final Set<RegisteredSchema> schemas = new HashSet<>();
-            for (final String subject : subjects) {
-                final RegisteredSchema registeredSchema = lookup(subject);
-                final Field eventIdField = registeredSchema.getSchema().getField(EVENT_ID_FIELD);
-                if (eventIdField != null && whitelistedEventIds.contains(eventIdField.defaultVal())) {
-                    schemas.add(registeredSchema);
+            final SchemaMetadata confluentSchemaMetadata;
+            if (null == previous) {
+                confluentSchemaMetadata = getLatestSchemaMetadata(subject);
+            } else {
+                final int latestVersion = Collections.max(getAllVersions(subject));
+                if (latestVersion == previous.version) {
+                    return previous;
+                }
+                final RegisteredSchema fetchedSchema = getFetchedVersion(subject, latestVersion);
+                if (null != fetchedSchema) {
+                    lastKnownSubjects.put(subject, fetchedSchema);
+                    registeredSchemaCache.put(subject, fetchedSchema);
+                    subjectRefresh.onWrite(subject);
+                    return new SyncedSubject(latestVersion, fetchedSchema);
                 }
+                confluentSchemaMetadata = callRegistry(new RegistryRequest<SchemaMetadata>() {
+                    @Override
+                    public SchemaMetadata send() throws IOException, RestClientException {
+                        return client.getSchemaMetadata(subject, latestVersion);
+                    }
+                });
+            }
+            final RegisteredSchema registeredSchema = toRegisteredSchema(subject, confluentSchemaMetadata);
+            registeredSchemaCache.put(subject, registeredSchema);
+            subjectRefresh.onWrite(subject);
+            return new SyncedSubject(confluentSchemaMetadata.getVersion(), registeredSchema);
+        } catch (IOException | RestClientException e) {
+            throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, e);
+        }
+    }
+
+    private List<Integer> getAllVersions(final String subject) throws IOException, RestClientException {
+        return callRegistry(new RegistryRequest<List<Integer>>() {
+            @Override
+            public List<Integer> send() throws IOException, RestClientException {
+                return restService.getAllVersions(subject);
             }
-            return schemas;
+        });
+    }
+
+    private List<String> getAllSubjects() throws SchemaRetrievalException {
+        try {
+            return callRegistry(new RegistryRequest<List<String>>() {
+                @Override
+                public List<String> send() throws IOException, RestClientException {
+                    return restService.getAllSubjects();
+                }
+            });
         } catch (IOException | RestClientException e) {
             throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, e);
         }
     }
 
+    /**
+     * Saves the schemas resolved so far to the file named by the "restSchemaRegistryClient.snapshotFile" property, so the next client started with
+     * that property serves them without contacting schema registry. Called automatically on {@link #close()} and on JVM shutdown when the property
+     * is set.
+     *
+     * @return true if a snapshot was saved, false if no snapshot file is configured.
+     * @throws IOException
+     *             if the snapshot cannot be written.
+     */
+    public boolean saveSnapshot() throws IOException {
+        if (null == snapshotFile) {
+            return false;
+        }
+        final SchemaSnapshot snapshot = new SchemaSnapshot(schemaStore.entries(), new HashMap<>(lastKnownSubjects.asMap()));
+        snapshot.writeTo(snapshotFile);
+        LOGGER.info("Saved {} schema ids and {} subjects to {}", new Object[] { snapshot.getSchemasById().size(),
+            snapshot.getSchemasBySubject().size(), snapshotFile });
+        return true;
+    }
+
+    private void saveSnapshotQuietly() {
+        try {
+            saveSnapshot();
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to save schema snapshot to {}", snapshotFile, e);
+        }
+    }
+
+    /**
+     * Warms the caches from the snapshot file, if one exists. Schema ids are immutable and served as they are, while the subjects are only kept as
+     * their last known version: a subject is still looked up in schema registry first, and its snapshot version is served as stale only while the
+     * registry is unavailable. A missing, corrupt or unreadable snapshot is logged and the client starts cold.
+     */
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        final SchemaSnapshot snapshot;
+        try {
+            snapshot = SchemaSnapshot.readFrom(snapshotFile);
+        } catch (final IOException e) {
+            LOGGER.warn("Ignoring unreadable schema snapshot {}", snapshotFile, e);
+            return;
+        }
+        for (final Map.Entry<Long, Schema> entry : snapshot.getSchemasById().entrySet()) {
+            schemaStore.put(entry.getKey(), schemaInterner.intern(entry.getValue()));
+        }
+        for (final Map.Entry<String, RegisteredSchema> entry : snapshot.getSchemasBySubject().entrySet()) {
+            final RegisteredSchema registeredSchema = new RegisteredSchema(entry.getValue().getSchemaId(),
+                    schemaInterner.intern(entry.getValue().getSchema()));
+            lastKnownSubjects.put(entry.getKey(), registeredSchema);
+        }
+        LOGGER.info("Loaded {} schema ids and {} subjects from {}", new Object[] { snapshot.getSchemasById().size(),
+            snapshot.getSchemasBySubject().size(), snapshotFile });
+    }
+
+    private static Path getSnapshotFile(final Properties properties) {
+        final String snapshotFileName = properties.getProperty(REST_SCHEMA_REGISTRY_CLIENT_SNAPSHOT_FILE_PARAMETER);
+        return null == snapshotFileName || snapshotFileName.trim().isEmpty() ? null : Paths.get(snapshotFileName.trim());
+    }
+
     private static void isValidRestEndpoint(final String registryUrlString) {
         if (!Utils.isValidRestEndpoint(registryUrlString)) {
             throw new IllegalArgumentException(INVALID_REST_ENDPOINT_MESSAGE);
         }
     }
 
+    /**
+     * {@inheritDoc} Concurrent misses for the same subject share a single request, and subjects the registry recently reported as unknown fail
+     * without a request. If "restSchemaRegistryClient.refreshAfterWriteSeconds" is set, entries older than that are still returned immediately while
+     * the latest version is re-fetched in the background.
+     */
     @Override
     public RegisteredSchema lookup(final String subject) throws SchemaRetrievalException {
         checkArgumentIsNotNull("subject", subject);
-        RegisteredSchema registeredSchema = registeredSchemaCache.getIfPresent(subject);
-        if (null == registeredSchema) {
-            registeredSchema = lookupSchemaRegistry(subject);
-            registeredSchemaCache.put(subject, registeredSchema);
+        final RegisteredSchema registeredSchema = registeredSchemaCache.getIfPresent(subject);
+        if (null != registeredSchema) {
+            subjectRefresh.onRead(subject);
+            return registeredSchema;
+        }
+        unknownSubjects.checkNotMissing(subject);
+        return subjectLookups.execute(subject, new RegistryCall<RegisteredSchema, SchemaRetrievalException>() {
+            @Override
+            public RegisteredSchema call() throws SchemaRetrievalException {
+                RegisteredSchema loadedSchema = registeredSchemaCache.getIfPresent(subject);
+                if (null == loadedSchema) {
+                    try {
+                        loadedSchema = lookupSchemaRegistry(subject);
+                    } catch (final SchemaRetrievalException e) {
+                        return lastKnownOrThrow(subject, e);
+                    }
+                    registeredSchemaCache.put(subject, loadedSchema);
+                    subjectRefresh.onWrite(subject);
+                }
+                return loadedSchema;
+            }
+        });
+    }
+
+    private void refreshSubject(final String subject) {
+        if (null == registeredSchemaCache.getIfPresent(subject)) {
+            subjectRefresh.forget(subject);
+            return;
+        }
+        try {
+            registeredSchemaCache.put(subject, lookupSchemaRegistry(subject));
+        } catch (final SchemaRetrievalException e) {
+            if (e.getCause() instanceof CircuitOpenException) {
+                LOGGER.debug("Skipped refresh of schema with subject::{} while schema registry is unavailable", subject);
+            } else if (e.getCause() instanceof Exception && isNotFound((Exception) e.getCause())) {
+                LOGGER.info("Schema with subject::{} no longer exists in schema registry, dropping it from the cache", subject);
+                registeredSchemaCache.invalidate(subject);
+                lastKnownSubjects.invalidate(subject);
+                subjectRefresh.forget(subject);
+            } else {
+                LOGGER.warn("Failed to refresh schema with subject::{}, serving previous version", subject, e);
+            }
+        }
+    }
+
+    /**
+     * Answers a subject lookup that schema registry failed, with the last version known for the subject marked as stale if the registry is
+     * unavailable rather than reporting the subject as unknown.
+     */
+    private RegisteredSchema lastKnownOrThrow(final String subject, final SchemaRetrievalException exception) throws SchemaRetrievalException {
+        final RegisteredSchema lastKnownSchema = lastKnownSubjects.getIfPresent(subject);
+        if (null == lastKnownSchema || !(exception.getCause() instanceof Exception) || !CircuitBreaker.isUnavailable((Exception) exception.getCause())) {
+            throw exception;
         }
-        return registeredSchema;
+        LOGGER.debug("Serving last known schema with subject::{} while schema registry is unavailable", subject);
+        return new StaleRegisteredSchema(lastKnownSchema);
+    }
+
+    /**
+     * @return true if requests to schema registry are currently failing immediately because the registry was found unavailable or too slow. Subject
+     *         lookups are then answered with the last known version, see {@link RegisteredSchema#isStale()}.
+     */
+    public boolean isRegistryCircuitOpen() {
+        return circuitBreaker.getState() != CircuitBreaker.State.CLOSED;
+    }
+
+    private SchemaMetadata getLatestSchemaMetadata(final String subject) throws IOException, RestClientException {
+        return callRegistry(new RegistryRequest<SchemaMetadata>() {
+            @Override
+            public SchemaMetadata send() throws IOException, RestClientException {
+                return client.getLatestSchemaMetadata(subject);
+            }
+        });
+    }
+
+    /**
+     * Sends a request to schema registry through the circuit breaker, retrying it according to the retry policy while it fails transiently.
+     */
+    private <V> V callRegistry(final RegistryRequest<V> request) throws IOException, RestClientException {
+        return retryPolicy.call(new RegistryRequest<V>() {
+            @Override
+            public V send() throws IOException, RestClientException {
+                return circuitBreaker.call(request);
+            }
+        });
+    }
+
+    private static RetryPolicy createRetryPolicy(final Properties properties) {
+        return new RetryPolicy(
+                (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER,
+                        DEFAULT_REST_CLIENT_RETRY_MAX_ATTEMPTS),
+                getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_RETRY_INITIAL_BACKOFF_PARAMETER,
+                        DEFAULT_REST_CLIENT_RETRY_INITIAL_BACKOFF_MILLIS),
+                getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_BACKOFF_PARAMETER,
+                        DEFAULT_REST_CLIENT_RETRY_MAX_BACKOFF_MILLIS),
+                (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_RETRY_BUDGET_PARAMETER,
+                        DEFAULT_REST_CLIENT_RETRY_BUDGET_PERCENT),
+                RetryPolicy.THREAD_SLEEPER);
+    }
+
+    private static CircuitBreaker createCircuitBreaker(final Properties properties) {
+        return new CircuitBreaker(
+                (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_FAILURE_RATE_PARAMETER,
+                        DEFAULT_REST_CLIENT_CIRCUIT_FAILURE_RATE),
+                getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_SLOW_CALL_PARAMETER,
+                        DEFAULT_REST_CLIENT_CIRCUIT_SLOW_CALL_MILLIS),
+                (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_WINDOW_SIZE_PARAMETER,
+                        DEFAULT_REST_CLIENT_CIRCUIT_WINDOW_SIZE),
+                TimeUnit.SECONDS.toMillis(getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_OPEN_SECONDS_PARAMETER,
+                        DEFAULT_REST_CLIENT_CIRCUIT_OPEN_SECONDS)),
+                getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_PROBE_TIMEOUT_PARAMETER,
+                        DEFAULT_REST_CLIENT_CIRCUIT_PROBE_TIMEOUT_MILLIS),
+                Ticker.systemTicker());
     }
 
     /**
@@ -200,16 +1053,155 @@ public class RestSchemaRegistryClient implements SchemaRegistryClient {
     protected RegisteredSchema lookupSchemaRegistry(final String subject) throws SchemaRetrievalException {
         try {
             LOGGER.info("Loading Schemas from Registry with subject::{}", subject);
-            final SchemaMetadata confluentSchemaMetadata = client.getLatestSchemaMetadata(subject);
-            final Schema avroSchema = new Schema.Parser().parse(confluentSchemaMetadata.getSchema());
-            return new RegisteredSchema(confluentSchemaMetadata.getId(), avroSchema);
+            final RegisteredSchema registeredSchema = toRegisteredSchema(subject, getLatestSchemaMetadata(subject));
+            LOGGER.debug("Shared {} repeated schema types so far, saving an estimated {} bytes", schemaInterner.getSharedCount(),
+                    schemaInterner.getEstimatedBytesSaved());
+            return registeredSchema;
         } catch (IOException | RestClientException e) {
+            if (isNotFound(e)) {
+                unknownSubjects.recordMiss(subject, "No schema exists with subject name: " + subject);
+            }
             throw new SchemaRetrievalException(SCHEMA_RETRIEVAL_MESSAGE, e);
         }
     }
 
-    private int getRestSchemaRegistryClientCacheSize() {
-        return Integer.parseInt(System.getProperty(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_SIZE_PARAMETER, DEFAULT_REST_CLIENT_CACHE_SIZE));
+    /**
+     * Wraps the registry answer without parsing it; the schema is parsed, interned and indexed by id the first time a caller asks for it. An unparsed
+     * copy sharing the same JSON is kept as the last known version of the subject and in its version history.
+     */
+    private RegisteredSchema toRegisteredSchema(final String subject, final SchemaMetadata confluentSchemaMetadata) {
+        final byte[] rawSchema = confluentSchemaMetadata.getSchema().getBytes(UTF_8);
+        share(confluentSchemaMetadata.getId(), rawSchema);
+        final RegisteredSchema unparsedSchema = newLazyRegisteredSchema(confluentSchemaMetadata.getId(), rawSchema);
+        lastKnownSubjects.put(subject, unparsedSchema);
+        addFetchedVersion(subject, confluentSchemaMetadata.getVersion(), unparsedSchema);
+        return newLazyRegisteredSchema(confluentSchemaMetadata.getId(), rawSchema);
+    }
+
+    /**
+     * Wraps the JSON of a schema without parsing it. If "schemaRegistry.offHeapMaximumBytes" is set and the arena has room for it, the JSON is only
+     * kept off-heap.
+     */
+    private LazyRegisteredSchema newLazyRegisteredSchema(final long schemaId, final byte[] rawSchema) {
+        if (null != offHeapArena && offHeapArena.put(schemaId, rawSchema)) {
+            return new OffHeapRegisteredSchema(schemaId, rawSchema.length, offHeapArena, rawSchemaParser);
+        }
+        return new LazyRegisteredSchema(schemaId, rawSchema, rawSchemaParser);
+    }
+
+    private RegisteredSchema getFetchedVersion(final String subject, final int version) {
+        final SubjectVersions versions = subjectVersions.get(subject);
+        return null == versions ? null : versions.get(version);
+    }
+
+    /**
+     * Adds the specified {@code version} to the history of {@code subject} and to the subjects indexed by schema id, and returns the schema held for
+     * that version.
+     */
+    private RegisteredSchema addFetchedVersion(final String subject, final int version, final RegisteredSchema schema) {
+        subjectsById.putIfAbsent(schema.getSchemaId(), new SubjectVersion(subject, version));
+        while (true) {
+            final SubjectVersions versions = subjectVersions.get(subject);
+            if (null == versions) {
+                if (null == subjectVersions.putIfAbsent(subject, SubjectVersions.EMPTY.with(version, schema))) {
+                    return schema;
+                }
+            } else {
+                final SubjectVersions updatedVersions = versions.with(version, schema);
+                if (updatedVersions == versions) {
+                    return versions.get(version);
+                }
+                if (subjectVersions.replace(subject, versions, updatedVersions)) {
+                    return schema;
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the specified {@code exception} is a definitive "not found" answer from the registry, as opposed to a transport or server error.
+     */
+    private static boolean isNotFound(final Exception exception) {
+        if (!(exception instanceof RestClientException)) {
+            return false;
+        }
+        final int errorCode = ((RestClientException) exception).getErrorCode();
+        return SUBJECT_NOT_FOUND == errorCode || VERSION_NOT_FOUND == errorCode || SCHEMA_NOT_FOUND == errorCode;
+    }
+
+    private static boolean isSubjectNotFound(final Exception exception) {
+        return exception instanceof RestClientException && SUBJECT_NOT_FOUND == ((RestClientException) exception).getErrorCode();
+    }
+
+    private static long getRestSchemaRegistryClientCacheSize(final Properties properties) {
+        return getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_SIZE_PARAMETER, DEFAULT_REST_CLIENT_CACHE_SIZE);
+    }
+
+    private RefreshAhead<String> createSubjectRefresh(final Properties properties) {
+        final long refreshAfterSeconds = getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_REFRESH_AFTER_WRITE_PARAMETER,
+                DEFAULT_REST_CLIENT_REFRESH_AFTER_WRITE_SECONDS);
+        final int jitterPercent = (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_REFRESH_JITTER_PARAMETER,
+                DEFAULT_REST_CLIENT_REFRESH_JITTER_PERCENT);
+        final RefreshAhead.Refresher<String> refresher = new RefreshAhead.Refresher<String>() {
+            @Override
+            public void refresh(final String subject) {
+                refreshSubject(subject);
+            }
+        };
+        if (refreshAfterSeconds == 0) {
+            return new RefreshAhead<>(0, 0, null, refresher);
+        }
+        return new RefreshAhead<>(TimeUnit.SECONDS.toMillis(refreshAfterSeconds), jitterPercent, Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("schema-registry-refresh-%d").build()), refresher);
+    }
+
+    /**
+     * @return a listener that stops refreshing subjects evicted or invalidated from the subject cache, or null if subjects are not refreshed.
+     */
+    private RemovalListener<String, RegisteredSchema> createSubjectRemovalListener() {
+        if (!subjectRefresh.isEnabled()) {
+            return null;
+        }
+        return new RemovalListener<String, RegisteredSchema>() {
+            @Override
+            public void onRemoval(final RemovalNotification<String, RegisteredSchema> notification) {
+                if (notification.getCause() != RemovalCause.REPLACED) {
+                    subjectRefresh.forget(notification.getKey());
+                }
+            }
+        };
+    }
+
+    private static int getRestSchemaRegistryClientIdIndexMaxId(final Properties properties) {
+        return (int) getSchemaRegistryLongProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_ID_INDEX_MAX_ID_PARAMETER, DEFAULT_REST_CLIENT_ID_INDEX_MAX_ID);
+    }
+
+    /**
+     * Returns the statistics of the cache of latest schemas by subject, including hit rate and eviction count. A cache replaced through
+     * {@link #setCache(Cache)} only reports statistics if it records them.
+     *
+     * @return the subject cache statistics.
+     */
+    public CacheStats getSubjectCacheStats() {
+        return registeredSchemaCache.stats();
+    }
+
+    /**
+     * Returns the sizes of the hot tier of parsed schemas and the cold tier of compressed or off-heap schemas by schema id, with the number of
+     * promotions and demotions between them. Nothing is demoted unless "restSchemaRegistryClient.hotTierMaximumSize" or
+     * "schemaRegistry.offHeapMaximumBytes" is set.
+     *
+     * @return the schema tier statistics.
+     */
+    public SchemaTierStats getSchemaTierStats() {
+        return schemaStore.stats();
+    }
+
+    /**
+     * @return the statistics of the cache of raw schema JSON by schema id, see {@link #lookupRaw(long)}.
+     */
+    public CacheStats getRawSchemaCacheStats() {
+        return rawSchemaCache.stats();
     }
 
     protected Cache<String, RegisteredSchema> getCache() {
@@ -220,4 +1212,18 @@ public class RestSchemaRegistryClient implements SchemaRegistryClient {
         registeredSchemaCache = cache;
     }
 
+    /**
+     * Latest version of a subject as seen by the previous {@link RestSchemaRegistryClient#syncAllSchemas()}.
+     */
+    private static final class SyncedSubject {
+
+        private final int version;
+        private final RegisteredSchema registeredSchema;
+
+        private SyncedSubject(final int version, final RegisteredSchema registeredSchema) {
+            this.version = version;
+            this.registeredSchema = registeredSchema;
+        }
+    }
+
 }
@@ -0,0 +1,180 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * Retries registry requests that failed transiently: the registry could not be reached, answered with a server error, timed out the request (408)
+ * or asked the client to slow down (429). Other answers, such as an unknown subject or an invalid schema, are permanent and returned at once, as are
+ * requests rejected by an open {@link CircuitBreaker}.
+ *
+ * <p>
+ * The wait before each retry is drawn at random between zero and an exponentially growing bound, so clients failing together do not retry
+ * together. Retries are paid from a budget shared by every request of the client: each request adds the budget percentage of a retry to it, up to a
+ * reserve of {@value #BUDGET_RESERVE} retries, and each retry takes one. During an outage the budget runs dry and requests fail after their first
+ * attempt, so retries add at most the budget percentage to the load on a registry that is already struggling.
+ */
+final class RetryPolicy {
+
+    /**
+     * Waits between attempts.
+     */
+    interface Sleeper {
+
+        /**
+         * Waits for the specified duration.
+         *
+         * @param millis
+         *            the duration in milliseconds.
+         * @throws InterruptedException
+         *             if the thread is interrupted while waiting.
+         */
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    /**
+     * Sleeper pausing the calling thread.
+     */
+    static final Sleeper THREAD_SLEEPER = new Sleeper() {
+        @Override
+        public void sleep(final long millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    };
+
+    static final int BUDGET_RESERVE = 10;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicy.class);
+    private static final int PERCENT = 100;
+    private static final int SERVER_ERROR = 500;
+    private static final int REQUEST_TIMEOUT = 408;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double depositPerRequest;
+    private final Sleeper sleeper;
+    private double budget = BUDGET_RESERVE;
+
+    /**
+     * Creates a retry policy.
+     *
+     * @param maxAttempts
+     *            the maximum number of times a request is sent, one to never retry.
+     * @param initialBackoffMillis
+     *            the bound of the wait before the first retry, doubled for each following retry.
+     * @param maxBackoffMillis
+     *            the largest bound of the wait before a retry.
+     * @param budgetPercent
+     *            the percentage of requests that may be retried once the reserve is spent.
+     * @param sleeper
+     *            waits between attempts.
+     */
+    RetryPolicy(final int maxAttempts, final long initialBackoffMillis, final long maxBackoffMillis, final int budgetPercent, final Sleeper sleeper) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(0, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+        this.depositPerRequest = Math.max(0, budgetPercent) / (double) PERCENT;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Sends the specified {@code request}, retrying it while it fails transiently, attempts remain and the budget allows.
+     *
+     * @param request
+     *            the request.
+     * @param <V>
+     *            the result type.
+     * @return the registry answer.
+     * @throws IOException
+     *             if the registry cannot be reached.
+     * @throws RestClientException
+     *             if the registry answers with an error.
+     */
+    <V> V call(final RegistryRequest<V> request) throws IOException, RestClientException {
+        deposit();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return request.send();
+            } catch (final IOException | RestClientException e) {
+                if (attempt >= maxAttempts || !isRetryable(e) || !withdraw()) {
+                    throw e;
+                }
+                final long backoffMillis = backoffMillis(attempt);
+                LOGGER.debug("Schema registry request failed transiently, retry {} in {} ms", new Object[] { attempt, backoffMillis, e });
+                pause(backoffMillis);
+            }
+        }
+    }
+
+    /**
+     * @param exception
+     *            a failure of a registry request.
+     * @return true if sending the request again may succeed.
+     */
+    static boolean isRetryable(final Exception exception) {
+        if (exception instanceof CircuitOpenException || exception instanceof InterruptedIOException) {
+            return false;
+        }
+        if (!(exception instanceof RestClientException)) {
+            return true;
+        }
+        final int status = ((RestClientException) exception).getStatus();
+        return status >= SERVER_ERROR || REQUEST_TIMEOUT == status || TOO_MANY_REQUESTS == status;
+    }
+
+    /**
+     * @return the retries the budget currently allows.
+     */
+    synchronized double getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return a random wait between zero and the bound for the specified retry, the first retry being 1.
+     */
+    long backoffMillis(final int retry) {
+        final long bound = initialBackoffMillis << Math.min(retry - 1, Long.numberOfLeadingZeros(Math.max(1, initialBackoffMillis)) - 1);
+        return ThreadLocalRandom.current().nextLong(Math.min(bound, maxBackoffMillis) + 1);
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(BUDGET_RESERVE, budget + depositPerRequest);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budget < 1) {
+            LOGGER.debug("Schema registry retry budget spent, not retrying");
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    private void pause(final long millis) throws InterruptedIOException {
+        try {
+            sleeper.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a schema registry request");
+        }
+    }
+}
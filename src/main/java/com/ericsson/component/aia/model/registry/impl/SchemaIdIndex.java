@@ -0,0 +1,154 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.avro.Schema;
+
+/**
+ * Table of resolved schemas indexed directly by schema id. Schema registry hands out small sequential ids, so the id is used as the array slot.
+ * Reads take no locks, do no boxing and allocate nothing; writes update a single slot in place and only copy the table when an id beyond its
+ * capacity is stored, publishing the larger table through a volatile reference. Ids that are negative or above {@code maxId} are not indexed and
+ * {@link #get(long)} returns null for them.
+ */
+final class SchemaIdIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxId;
+    private volatile AtomicReferenceArray<Schema> table = new AtomicReferenceArray<>(0);
+
+    /**
+     * Creates an empty index.
+     *
+     * @param maxId
+     *            the largest schema id that will be stored in the index.
+     */
+    SchemaIdIndex(final int maxId) {
+        if (maxId < 0) {
+            throw new IllegalArgumentException("Argument 'maxId' cannot be negative");
+        }
+        this.maxId = maxId;
+    }
+
+    /**
+     * Returns the schema stored for the specified {@code schemaId}.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @return the schema, or null if the id has not been stored.
+     */
+    Schema get(final long schemaId) {
+        final AtomicReferenceArray<Schema> current = table;
+        if (schemaId < 0 || schemaId >= current.length()) {
+            return null;
+        }
+        return current.get((int) schemaId);
+    }
+
+    /**
+     * Stores the specified {@code schema} under {@code schemaId}. Ids outside the indexable range are ignored.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @param schema
+     *            the resolved schema.
+     * @return true if the schema was stored.
+     */
+    synchronized boolean put(final long schemaId, final Schema schema) {
+        if (schemaId < 0 || schemaId > maxId || schema == null) {
+            return false;
+        }
+        final int slot = (int) schemaId;
+        AtomicReferenceArray<Schema> current = table;
+        if (slot >= current.length()) {
+            current = grow(current, capacityFor(slot));
+        }
+        current.set(slot, schema);
+        return true;
+    }
+
+    /**
+     * Removes the schema stored under {@code schemaId}, if any.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @return the removed schema, or null if the id was not stored.
+     */
+    synchronized Schema remove(final long schemaId) {
+        final AtomicReferenceArray<Schema> current = table;
+        if (schemaId < 0 || schemaId >= current.length()) {
+            return null;
+        }
+        return current.getAndSet((int) schemaId, null);
+    }
+
+    /**
+     * @return the number of schemas stored in the index.
+     */
+    int size() {
+        final AtomicReferenceArray<Schema> current = table;
+        int size = 0;
+        for (int slot = 0; slot < current.length(); slot++) {
+            if (current.get(slot) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return a copy of the stored schemas keyed by schema id.
+     */
+    Map<Long, Schema> entries() {
+        final AtomicReferenceArray<Schema> current = table;
+        final Map<Long, Schema> entries = new HashMap<>();
+        for (int slot = 0; slot < current.length(); slot++) {
+            final Schema schema = current.get(slot);
+            if (schema != null) {
+                entries.put((long) slot, schema);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Removes all stored schemas.
+     */
+    synchronized void clear() {
+        table = new AtomicReferenceArray<>(0);
+    }
+
+    /**
+     * Publishes a copy of {@code current} with the specified {@code capacity}. Called with the index lock held, so no write to {@code current} can
+     * be lost while it is copied.
+     */
+    private AtomicReferenceArray<Schema> grow(final AtomicReferenceArray<Schema> current, final int capacity) {
+        final AtomicReferenceArray<Schema> grown = new AtomicReferenceArray<>(capacity);
+        for (int slot = 0; slot < current.length(); slot++) {
+            grown.lazySet(slot, current.get(slot));
+        }
+        table = grown;
+        return grown;
+    }
+
+    private int capacityFor(final int slot) {
+        long capacity = Math.max(INITIAL_CAPACITY, table.length());
+        while (capacity <= slot) {
+            capacity = capacity << 1;
+        }
+        return (int) Math.min(capacity, (long) maxId + 1);
+    }
+}
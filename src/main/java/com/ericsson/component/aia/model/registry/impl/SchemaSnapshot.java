@@ -0,0 +1,257 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.apache.avro.Schema;
+
+import com.ericsson.component.aia.model.registry.utils.SchemaParseCache;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Point in time copy of the schemas resolved by a client, persisted to a local file so a restarted client can serve lookups before, or without,
+ * reaching schema registry.
+ *
+ * <p>
+ * File layout: magic number, format version, CRC32 of the uncompressed body, uncompressed body length, then the deflated body. The body holds
+ * each distinct schema text once, followed by the id entries and the subject entries, which refer to schema texts by index.
+ */
+final class SchemaSnapshot {
+
+    private static final int MAGIC = 0x53524353;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int TEXT_ENTRY_MIN_BYTES = 4;
+    private static final int ID_ENTRY_BYTES = 12;
+    private static final int SUBJECT_ENTRY_MIN_BYTES = 14;
+
+    private final Map<Long, Schema> schemasById;
+    private final Map<String, RegisteredSchema> schemasBySubject;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param schemasById
+     *            resolved schemas by schema id.
+     * @param schemasBySubject
+     *            latest registered schema by subject.
+     */
+    SchemaSnapshot(final Map<Long, Schema> schemasById, final Map<String, RegisteredSchema> schemasBySubject) {
+        this.schemasById = schemasById;
+        this.schemasBySubject = schemasBySubject;
+    }
+
+    /**
+     * @return resolved schemas by schema id.
+     */
+    Map<Long, Schema> getSchemasById() {
+        return schemasById;
+    }
+
+    /**
+     * @return latest registered schema by subject.
+     */
+    Map<String, RegisteredSchema> getSchemasBySubject() {
+        return schemasBySubject;
+    }
+
+    /**
+     * Writes the snapshot to the specified {@code file}. The file is replaced atomically where the file system supports it, so a concurrent reader
+     * or a crash never leaves a partially written snapshot behind.
+     *
+     * @param file
+     *            the snapshot file.
+     * @throws IOException
+     *             if the snapshot cannot be written.
+     */
+    void writeTo(final Path file) throws IOException {
+        final byte[] body = encodeBody();
+        final CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(crc.getValue());
+                output.writeInt(body.length);
+                try (final DeflaterOutputStream deflater = new DeflaterOutputStream(output)) {
+                    deflater.write(body);
+                }
+            }
+            moveIntoPlace(temporaryFile, file);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Reads a snapshot from the specified {@code file}.
+     *
+     * @param file
+     *            the snapshot file.
+     * @return the snapshot.
+     * @throws IOException
+     *             if the file cannot be read, is not a snapshot, or fails its integrity check.
+     */
+    static SchemaSnapshot readFrom(final Path file) throws IOException {
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(file + " is not a schema snapshot");
+            }
+            final int formatVersion = input.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(file + " has unsupported snapshot format version " + formatVersion);
+            }
+            final long expectedCrc = input.readLong();
+            final int bodyLength = input.readInt();
+            if (bodyLength < 0) {
+                throw new IOException(file + " has invalid body length " + bodyLength);
+            }
+            final byte[] body;
+            try (final InputStream inflater = new InflaterInputStream(input)) {
+                body = ByteStreams.toByteArray(ByteStreams.limit(inflater, bodyLength + 1L));
+            }
+            if (body.length != bodyLength) {
+                throw new IOException(file + " has a body of " + body.length + " bytes instead of " + bodyLength);
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(body, 0, body.length);
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException(file + " failed its integrity check");
+            }
+            return decodeBody(body);
+        } catch (final EOFException | ZipException | RuntimeException e) {
+            throw new IOException(file + " is truncated or corrupt", e);
+        }
+    }
+
+    private byte[] encodeBody() throws IOException {
+        final Map<Schema, Integer> schemaIndexes = new IdentityHashMap<>();
+        final Map<String, Integer> textIndexes = new LinkedHashMap<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (final DataOutputStream entries = new DataOutputStream(entryBytes)) {
+            entries.writeInt(schemasById.size());
+            for (final Map.Entry<Long, Schema> entry : schemasById.entrySet()) {
+                entries.writeLong(entry.getKey());
+                entries.writeInt(indexOf(entry.getValue(), schemaIndexes, textIndexes));
+            }
+            entries.writeInt(schemasBySubject.size());
+            for (final Map.Entry<String, RegisteredSchema> entry : schemasBySubject.entrySet()) {
+                entries.writeUTF(entry.getKey());
+                entries.writeLong(entry.getValue().getSchemaId());
+                entries.writeInt(indexOf(entry.getValue(), schemaIndexes, textIndexes));
+            }
+        }
+        try (final DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(textIndexes.size());
+            for (final String text : textIndexes.keySet()) {
+                final byte[] utf8 = text.getBytes(UTF_8);
+                output.writeInt(utf8.length);
+                output.write(utf8);
+            }
+            entryBytes.writeTo(output);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Lazily parsed subjects are written from their raw JSON, so saving a snapshot, possibly from a shutdown hook, never parses them or pulls them
+     * back through the schema store.
+     */
+    private static int indexOf(final RegisteredSchema registeredSchema, final Map<Schema, Integer> schemaIndexes,
+                               final Map<String, Integer> textIndexes) {
+        if (registeredSchema instanceof LazyRegisteredSchema) {
+            return indexOf(new String(((LazyRegisteredSchema) registeredSchema).rawSchema(), UTF_8), textIndexes);
+        }
+        return indexOf(registeredSchema.getSchema(), schemaIndexes, textIndexes);
+    }
+
+    private static int indexOf(final Schema schema, final Map<Schema, Integer> schemaIndexes, final Map<String, Integer> textIndexes) {
+        Integer index = schemaIndexes.get(schema);
+        if (index == null) {
+            index = indexOf(schema.toString(), textIndexes);
+            schemaIndexes.put(schema, index);
+        }
+        return index;
+    }
+
+    private static int indexOf(final String text, final Map<String, Integer> textIndexes) {
+        Integer index = textIndexes.get(text);
+        if (index == null) {
+            index = textIndexes.size();
+            textIndexes.put(text, index);
+        }
+        return index;
+    }
+
+    private static SchemaSnapshot decodeBody(final byte[] body) throws IOException {
+        try (final DataInputStream input = new DataInputStream(new ByteArrayInputStream(body))) {
+            final Schema[] schemas = new Schema[readCount(input, TEXT_ENTRY_MIN_BYTES)];
+            for (int i = 0; i < schemas.length; i++) {
+                final byte[] utf8 = new byte[readCount(input, 1)];
+                input.readFully(utf8);
+                schemas[i] = SchemaParseCache.INSTANCE.parse(new String(utf8, UTF_8));
+            }
+            final int idCount = readCount(input, ID_ENTRY_BYTES);
+            final Map<Long, Schema> schemasById = new HashMap<>();
+            for (int i = 0; i < idCount; i++) {
+                final long schemaId = input.readLong();
+                schemasById.put(schemaId, schemaAt(schemas, input.readInt()));
+            }
+            final int subjectCount = readCount(input, SUBJECT_ENTRY_MIN_BYTES);
+            final Map<String, RegisteredSchema> schemasBySubject = new HashMap<>();
+            for (int i = 0; i < subjectCount; i++) {
+                final String subject = input.readUTF();
+                final long schemaId = input.readLong();
+                schemasBySubject.put(subject, new RegisteredSchema(schemaId, schemaAt(schemas, input.readInt())));
+            }
+            return new SchemaSnapshot(schemasById, schemasBySubject);
+        }
+    }
+
+    /**
+     * Reads a count of items, or a length in bytes, checking that the rest of the body can hold that many items of at least
+     * {@code minimumItemBytes} each before anything is allocated for them.
+     */
+    private static int readCount(final DataInputStream input, final int minimumItemBytes) throws IOException {
+        final int count = input.readInt();
+        if (count < 0 || (long) count * minimumItemBytes > input.available()) {
+            throw new IOException("Snapshot declares " + count + " entries, more than its remaining " + input.available() + " bytes can hold");
+        }
+        return count;
+    }
+
+    private static Schema schemaAt(final Schema[] schemas, final int index) throws IOException {
+        if (index < 0 || index >= schemas.length) {
+            throw new IOException("Snapshot refers to unknown schema text " + index);
+        }
+        return schemas[index];
+    }
+
+    private static void moveIntoPlace(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
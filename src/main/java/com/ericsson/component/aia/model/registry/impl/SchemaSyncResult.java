@@ -0,0 +1,93 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+
+import java.util.*;
+
+/**
+ * DTO holding the outcome of an incremental synchronisation with schema registry: the subjects added, updated and removed since the previous
+ * synchronisation, and the full view of the latest {@link RegisteredSchema} per subject.
+ */
+public class SchemaSyncResult {
+
+    private final Map<String, RegisteredSchema> added;
+    private final Map<String, RegisteredSchema> updated;
+    private final Map<String, RegisteredSchema> removed;
+    private final Map<String, RegisteredSchema> allSchemas;
+
+    /**
+     * Creates a SchemaSyncResult instance.
+     *
+     * @param added
+     *            subjects that did not exist at the previous synchronisation, with their latest schema.
+     * @param updated
+     *            subjects whose latest version changed since the previous synchronisation, with their new latest schema.
+     * @param removed
+     *            subjects that no longer exist, with the schema last seen for them.
+     * @param allSchemas
+     *            the latest schema of every subject now in the registry.
+     */
+    public SchemaSyncResult(final Map<String, RegisteredSchema> added, final Map<String, RegisteredSchema> updated,
+                            final Map<String, RegisteredSchema> removed, final Map<String, RegisteredSchema> allSchemas) {
+        checkArgumentIsNotNull("added", added);
+        checkArgumentIsNotNull("updated", updated);
+        checkArgumentIsNotNull("removed", removed);
+        checkArgumentIsNotNull("allSchemas", allSchemas);
+        this.added = Collections.unmodifiableMap(added);
+        this.updated = Collections.unmodifiableMap(updated);
+        this.removed = Collections.unmodifiableMap(removed);
+        this.allSchemas = Collections.unmodifiableMap(allSchemas);
+    }
+
+    /**
+     * @return subjects that did not exist at the previous synchronisation, with their latest schema.
+     */
+    public Map<String, RegisteredSchema> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return subjects whose latest version changed since the previous synchronisation, with their new latest schema.
+     */
+    public Map<String, RegisteredSchema> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return subjects that no longer exist, with the schema last seen for them.
+     */
+    public Map<String, RegisteredSchema> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return the latest schema of every subject now in the registry, by subject.
+     */
+    public Map<String, RegisteredSchema> getAllSchemas() {
+        return allSchemas;
+    }
+
+    /**
+     * @return true if any subject was added, updated or removed.
+     */
+    public boolean hasChanges() {
+        return !(added.isEmpty() && updated.isEmpty() && removed.isEmpty());
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaSyncResult [added=" + added.keySet() + ", updated=" + updated.keySet() + ", removed=" + removed.keySet() + ", total="
+                + allSchemas.size() + "]";
+    }
+}
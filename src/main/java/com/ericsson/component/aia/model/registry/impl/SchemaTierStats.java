@@ -0,0 +1,100 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+/**
+ * DTO holding a point in time view of the hot tier of parsed schemas and the cold tier of compressed schemas kept by
+ * {@link RestSchemaRegistryClient}.
+ */
+public class SchemaTierStats {
+
+    private final long hotSize;
+    private final long coldSize;
+    private final long coldBytes;
+    private final long promotionCount;
+    private final long demotionCount;
+    private final long coldEvictionCount;
+
+    /**
+     * Creates a SchemaTierStats instance.
+     *
+     * @param hotSize
+     *            the number of parsed schemas in the hot tier.
+     * @param coldSize
+     *            the number of compressed schemas in the cold tier.
+     * @param coldBytes
+     *            the compressed size of the cold tier.
+     * @param promotionCount
+     *            the number of schemas moved from the cold to the hot tier.
+     * @param demotionCount
+     *            the number of schemas moved from the hot to the cold tier.
+     * @param coldEvictionCount
+     *            the number of schemas dropped from the cold tier.
+     */
+    public SchemaTierStats(final long hotSize, final long coldSize, final long coldBytes, final long promotionCount, final long demotionCount,
+                           final long coldEvictionCount) {
+        this.hotSize = hotSize;
+        this.coldSize = coldSize;
+        this.coldBytes = coldBytes;
+        this.promotionCount = promotionCount;
+        this.demotionCount = demotionCount;
+        this.coldEvictionCount = coldEvictionCount;
+    }
+
+    /**
+     * @return the number of parsed schemas in the hot tier.
+     */
+    public long getHotSize() {
+        return hotSize;
+    }
+
+    /**
+     * @return the number of compressed schemas in the cold tier.
+     */
+    public long getColdSize() {
+        return coldSize;
+    }
+
+    /**
+     * @return the compressed size of the cold tier, in bytes.
+     */
+    public long getColdBytes() {
+        return coldBytes;
+    }
+
+    /**
+     * @return the number of schemas moved from the cold to the hot tier on lookup.
+     */
+    public long getPromotionCount() {
+        return promotionCount;
+    }
+
+    /**
+     * @return the number of schemas moved from the hot to the cold tier because the hot tier was full.
+     */
+    public long getDemotionCount() {
+        return demotionCount;
+    }
+
+    /**
+     * @return the number of schemas dropped from the cold tier because it was full. These are resolved from schema registry again.
+     */
+    public long getColdEvictionCount() {
+        return coldEvictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaTierStats [hotSize=" + hotSize + ", coldSize=" + coldSize + ", coldBytes=" + coldBytes + ", promotionCount=" + promotionCount
+                + ", demotionCount=" + demotionCount + ", coldEvictionCount=" + coldEvictionCount + "]";
+    }
+}
@@ -0,0 +1,92 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import com.ericsson.component.aia.model.registry.utils.SchemaFootprint;
+import com.google.common.cache.Weigher;
+
+/**
+ * {@link Weigher}s estimating the heap retained by cache entries, in bytes, for caches bounded by a byte budget.
+ */
+final class SchemaWeighers {
+
+    /**
+     * Assumed ratio of the heap retained by a parsed schema to the length of its JSON, for lazily parsed schemas weighed before being parsed.
+     */
+    static final int PARSED_TO_RAW_RATIO = 4;
+
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int ARRAY_OVERHEAD = 16;
+    private static final int STRING_OVERHEAD = 40;
+
+    /**
+     * Weighs a {@link RegisteredSchema} keyed by subject. A {@link LazyRegisteredSchema} is weighed as if parsed, so its weight does not grow
+     * unaccounted once a caller parses it, plus its JSON unless that is held off-heap.
+     */
+    static final Weigher<String, RegisteredSchema> REGISTERED_SCHEMA = new Weigher<String, RegisteredSchema>() {
+        @Override
+        public int weigh(final String subject, final RegisteredSchema registeredSchema) {
+            final long schemaWeight;
+            if (registeredSchema instanceof LazyRegisteredSchema && !((LazyRegisteredSchema) registeredSchema).isParsed()) {
+                final LazyRegisteredSchema lazySchema = (LazyRegisteredSchema) registeredSchema;
+                final long rawLength = lazySchema.getRawSchemaLength();
+                schemaWeight = (lazySchema.isRawSchemaOnHeap() ? ARRAY_OVERHEAD + rawLength : 0) + PARSED_TO_RAW_RATIO * rawLength;
+            } else {
+                schemaWeight = SchemaFootprint.estimate(registeredSchema.getSchema());
+            }
+            return toWeight(ENTRY_OVERHEAD + STRING_OVERHEAD + subject.length() + schemaWeight);
+        }
+    };
+
+    /**
+     * Weighs raw schema JSON keyed by schema id.
+     */
+    static final Weigher<Long, byte[]> RAW_SCHEMA = new Weigher<Long, byte[]>() {
+        @Override
+        public int weigh(final Long schemaId, final byte[] rawSchema) {
+            return toWeight(ENTRY_OVERHEAD + ARRAY_OVERHEAD + rawSchema.length);
+        }
+    };
+
+    private SchemaWeighers() {
+    }
+
+    /**
+     * Returns a weigher giving every entry at least an equal share of {@code maximumWeight} among {@code maximumSize} entries, so that a cache
+     * bounded by {@code maximumWeight} never holds more than {@code maximumSize} entries either.
+     *
+     * @param weigher
+     *            the weigher estimating the heap retained by an entry.
+     * @param maximumWeight
+     *            the maximum total weight of the cache.
+     * @param maximumSize
+     *            the maximum number of entries of the cache.
+     * @param <K>
+     *            the key type.
+     * @param <V>
+     *            the value type.
+     * @return the weigher.
+     */
+    static <K, V> Weigher<K, V> countBounded(final Weigher<K, V> weigher, final long maximumWeight, final long maximumSize) {
+        final long minimumWeight = maximumSize > 0 ? (maximumWeight + maximumSize - 1) / maximumSize : Integer.MAX_VALUE;
+        return new Weigher<K, V>() {
+            @Override
+            public int weigh(final K key, final V value) {
+                return toWeight(Math.max(minimumWeight, weigher.weigh(key, value)));
+            }
+        };
+    }
+
+    private static int toWeight(final long bytes) {
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+}
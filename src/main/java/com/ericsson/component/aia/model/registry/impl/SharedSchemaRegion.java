@@ -0,0 +1,250 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only region of schema JSON by schema id, held in a memory-mapped file shared by every JVM on the host. Schema ids are immutable, so an
+ * entry written by one process is valid for all of them and is never rewritten.
+ *
+ * <p>
+ * Layout: magic number, format version and the committed end offset, followed by records of schema JSON length, schema id, schema JSON and CRC32.
+ * Writers append under an exclusive file lock and publish a record by advancing the committed end offset after writing it. Readers take no file
+ * lock: they scan records up to the committed end offset and stop at the first record failing its CRC, retrying it on a later lookup. When the
+ * region is full, further writes are dropped. Within a JVM, every client opening the same file shares one region instance.
+ *
+ * <p>
+ * Every process mapping the region trusts its content, so on POSIX file systems the file is created readable and writable by its owner only, and an
+ * existing file is only mapped if it is owned by the user running this JVM and cannot be written by anyone else.
+ */
+final class SharedSchemaRegion {
+
+    private static final int MAGIC = 0x53525348;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int END_OFFSET = 8;
+    private static final int HEADER_LENGTH = 16;
+    private static final int RECORD_OVERHEAD = 4 + 8 + 4;
+    private static final int MINIMUM_CAPACITY = 4096;
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rw-------");
+    private static final ConcurrentMap<Path, SharedSchemaRegion> OPEN_REGIONS = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final ConcurrentMap<Long, Integer> offsets = new ConcurrentHashMap<>();
+    private int scannedTo = HEADER_LENGTH;
+
+    private SharedSchemaRegion(final FileChannel channel, final MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+    }
+
+    /**
+     * Opens the region held in the specified {@code file}, creating and initialising the file if it does not exist yet.
+     *
+     * @param file
+     *            the region file.
+     * @param maximumBytes
+     *            the size of the region if this call creates it; an existing region keeps its size.
+     * @return the region.
+     * @throws IOException
+     *             if the file cannot be opened or mapped, or is not a schema region.
+     */
+    static SharedSchemaRegion open(final Path file, final long maximumBytes) throws IOException {
+        final Path key = file.toAbsolutePath().normalize();
+        synchronized (OPEN_REGIONS) {
+            SharedSchemaRegion region = OPEN_REGIONS.get(key);
+            if (null == region) {
+                region = map(key, maximumBytes);
+                OPEN_REGIONS.put(key, region);
+            }
+            return region;
+        }
+    }
+
+    private static SharedSchemaRegion map(final Path file, final long maximumBytes) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            createOwnerOnly(file);
+        }
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw");
+        final FileChannel channel = randomAccessFile.getChannel();
+        try {
+            try (final FileLock lock = channel.lock()) {
+                if (channel.size() < HEADER_LENGTH) {
+                    randomAccessFile.setLength(Math.max(MINIMUM_CAPACITY, Math.min(maximumBytes, Integer.MAX_VALUE)));
+                }
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+                if (buffer.getInt(MAGIC_OFFSET) == 0) {
+                    buffer.putInt(VERSION_OFFSET, FORMAT_VERSION);
+                    buffer.putInt(END_OFFSET, HEADER_LENGTH);
+                    buffer.putInt(MAGIC_OFFSET, MAGIC);
+                } else if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != FORMAT_VERSION) {
+                    throw new IOException(file + " is not a shared schema region");
+                }
+                return new SharedSchemaRegion(channel, buffer);
+            }
+        } catch (final IOException | RuntimeException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    private static void createOwnerOnly(final Path file) throws IOException {
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } catch (final FileAlreadyExistsException e) {
+            final PosixFileAttributes attributes = Files.readAttributes(file, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (!attributes.isRegularFile()) {
+                throw new IOException(file + " is not a regular file, refusing to map it");
+            }
+            if (!attributes.owner().equals(currentUser(file.getParent()))) {
+                throw new IOException(file + " is owned by " + attributes.owner() + ", refusing to map it");
+            }
+            final Set<PosixFilePermission> permissions = attributes.permissions();
+            if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                throw new IOException(file + " is writable by other users, refusing to map it");
+            }
+        }
+    }
+
+    /**
+     * @return the user owning the files this JVM creates, read from a temporary file since the user name may not resolve inside containers.
+     */
+    private static UserPrincipal currentUser(final Path directory) throws IOException {
+        final Path ownerProbe = Files.createTempFile(directory, ".owner", null);
+        try {
+            return Files.getOwner(ownerProbe);
+        } finally {
+            Files.deleteIfExists(ownerProbe);
+        }
+    }
+
+    /**
+     * Returns the JSON of the schema with the specified {@code schemaId}, if any process has written it.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @return the UTF-8 encoded schema JSON, or null if the region does not hold the schema.
+     */
+    byte[] get(final long schemaId) {
+        Integer offset = offsets.get(schemaId);
+        if (null == offset) {
+            scan();
+            offset = offsets.get(schemaId);
+            if (null == offset) {
+                return null;
+            }
+        }
+        final ByteBuffer view = buffer.duplicate();
+        final byte[] rawSchema = new byte[view.getInt(offset)];
+        view.position(offset + 4 + 8);
+        view.get(rawSchema);
+        return rawSchema;
+    }
+
+    /**
+     * Appends the specified schema to the region, unless it is already present or the region is full.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @param rawSchema
+     *            the UTF-8 encoded schema JSON.
+     * @return true if the schema is present in the region after the call.
+     * @throws IOException
+     *             if the file lock cannot be taken.
+     */
+    synchronized boolean put(final long schemaId, final byte[] rawSchema) throws IOException {
+        if (offsets.containsKey(schemaId)) {
+            return true;
+        }
+        try (final FileLock lock = channel.lock(0, HEADER_LENGTH, false)) {
+            scan();
+            if (offsets.containsKey(schemaId)) {
+                return true;
+            }
+            final int end = buffer.getInt(END_OFFSET);
+            final long recordEnd = (long) end + RECORD_OVERHEAD + rawSchema.length;
+            if (recordEnd > capacity) {
+                return false;
+            }
+            final ByteBuffer view = buffer.duplicate();
+            view.position(end);
+            view.putInt(rawSchema.length);
+            view.putLong(schemaId);
+            view.put(rawSchema);
+            view.putInt(checksum(schemaId, rawSchema));
+            buffer.putInt(END_OFFSET, (int) recordEnd);
+            scan();
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of schemas this process has seen in the region.
+     */
+    int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Indexes the records committed since the previous scan.
+     */
+    private synchronized void scan() {
+        final int end = Math.min(buffer.getInt(END_OFFSET), capacity);
+        final ByteBuffer view = buffer.duplicate();
+        while (scannedTo + RECORD_OVERHEAD <= end) {
+            final int length = view.getInt(scannedTo);
+            if (length < 0 || (long) scannedTo + RECORD_OVERHEAD + length > end) {
+                return;
+            }
+            final long schemaId = view.getLong(scannedTo + 4);
+            final byte[] rawSchema = new byte[length];
+            view.position(scannedTo + 4 + 8);
+            view.get(rawSchema);
+            if (view.getInt() != checksum(schemaId, rawSchema)) {
+                return;
+            }
+            offsets.putIfAbsent(schemaId, scannedTo);
+            scannedTo += RECORD_OVERHEAD + length;
+        }
+    }
+
+    private static int checksum(final long schemaId, final byte[] rawSchema) {
+        final CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, schemaId).array(), 0, 8);
+        crc.update(rawSchema, 0, rawSchema.length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,84 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.concurrent.*;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Deduplicates concurrent calls for the same key. The first caller for a key runs the call; every caller arriving while it is in flight waits for
+ * that result, including its failure, instead of running the call again.
+ *
+ * @param <K>
+ *            the key type.
+ * @param <V>
+ *            the result type.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the specified {@code call} for {@code key}, or waits for the result of the call already in flight for that key.
+     *
+     * @param key
+     *            the key identifying the call.
+     * @param call
+     *            the call to run if none is in flight for {@code key}.
+     * @param <E>
+     *            the checked exception the call may throw.
+     * @return the result of the call.
+     * @throws E
+     *             if the call failed, whether it was run by this caller or by a concurrent one.
+     */
+    <E extends Exception> V execute(final K key, final RegistryCall<V, E> call) throws E {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> existingFlight = inFlight.putIfAbsent(key, flight);
+        if (existingFlight != null) {
+            return await(existingFlight);
+        }
+        try {
+            final V result = call.call();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (final Exception | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of calls currently in flight.
+     */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Exception> V await(final Future<V> flight) throws E {
+        try {
+            return Uninterruptibles.getUninterruptibly(flight);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+}
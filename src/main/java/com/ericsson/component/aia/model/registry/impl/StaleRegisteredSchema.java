@@ -0,0 +1,45 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import org.apache.avro.Schema;
+
+/**
+ * {@link RegisteredSchema} served in place of the latest version of a subject while schema registry cannot be reached. It holds the last version
+ * known for the subject and reports itself as stale.
+ */
+final class StaleRegisteredSchema extends RegisteredSchema {
+
+    private static final long serialVersionUID = 1L;
+    private final RegisteredSchema lastKnownSchema;
+
+    /**
+     * Creates a stale view of the specified {@code lastKnownSchema}.
+     *
+     * @param lastKnownSchema
+     *            the last version known for the subject.
+     */
+    StaleRegisteredSchema(final RegisteredSchema lastKnownSchema) {
+        super(lastKnownSchema.getSchemaId());
+        this.lastKnownSchema = lastKnownSchema;
+    }
+
+    @Override
+    public Schema getSchema() {
+        return lastKnownSchema.getSchema();
+    }
+
+    @Override
+    public boolean isStale() {
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+
+import java.io.Serializable;
+
+/**
+ * DTO identifying where a schema is registered: the subject and the version of the schema under that subject.
+ */
+public class SubjectVersion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final String subject;
+    private final int version;
+
+    /**
+     * Creates a SubjectVersion instance.
+     *
+     * @param subject
+     *            the subject the schema is registered under.
+     * @param version
+     *            the version of the schema under that subject.
+     */
+    public SubjectVersion(final String subject, final int version) {
+        checkArgumentIsNotNull("subject", subject);
+        this.subject = subject;
+        this.version = version;
+    }
+
+    /**
+     * @return the subject the schema is registered under.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @return the version of the schema under that subject.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * subject.hashCode() + version;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SubjectVersion)) {
+            return false;
+        }
+        final SubjectVersion other = (SubjectVersion) obj;
+        return version == other.version && subject.equals(other.subject);
+    }
+
+    @Override
+    public String toString() {
+        return "SubjectVersion [subject=" + subject + ", version=" + version + "]";
+    }
+}
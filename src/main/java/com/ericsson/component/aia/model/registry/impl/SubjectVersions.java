@@ -0,0 +1,115 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Immutable history of the versions of one subject fetched so far. The versions are held in ascending order alongside their schemas, with a second
+ * index sorted by schema id, so a version is found by binary search on either. A registered version never changes, so entries are never invalidated;
+ * a version is added by creating a new history with {@link #with(int, RegisteredSchema)}.
+ */
+final class SubjectVersions {
+
+    /**
+     * History without any version.
+     */
+    static final SubjectVersions EMPTY = new SubjectVersions(new int[0], new RegisteredSchema[0]);
+
+    private final int[] versions;
+    private final RegisteredSchema[] schemas;
+    private final long[] sortedSchemaIds;
+    private final int[] versionIndexes;
+
+    private SubjectVersions(final int[] versions, final RegisteredSchema[] schemas) {
+        this.versions = versions;
+        this.schemas = schemas;
+        final long[][] idIndex = new long[versions.length][];
+        for (int index = 0; index < versions.length; index++) {
+            idIndex[index] = new long[] { schemas[index].getSchemaId(), index };
+        }
+        Arrays.sort(idIndex, new Comparator<long[]>() {
+            @Override
+            public int compare(final long[] left, final long[] right) {
+                return Long.compare(left[0], right[0]);
+            }
+        });
+        this.sortedSchemaIds = new long[versions.length];
+        this.versionIndexes = new int[versions.length];
+        for (int index = 0; index < versions.length; index++) {
+            sortedSchemaIds[index] = idIndex[index][0];
+            versionIndexes[index] = (int) idIndex[index][1];
+        }
+    }
+
+    /**
+     * @param version
+     *            the version.
+     * @return the schema registered as the specified {@code version}, or null if it has not been fetched.
+     */
+    RegisteredSchema get(final int version) {
+        final int index = Arrays.binarySearch(versions, version);
+        return index < 0 ? null : schemas[index];
+    }
+
+    /**
+     * @param schemaId
+     *            the schema id.
+     * @return the version under which the schema with the specified {@code schemaId} is registered, or -1 if no such version has been fetched. If the
+     *         schema is registered under several versions, any of them.
+     */
+    int versionOf(final long schemaId) {
+        final int index = Arrays.binarySearch(sortedSchemaIds, schemaId);
+        return index < 0 ? -1 : versions[versionIndexes[index]];
+    }
+
+    /**
+     * @return the highest version fetched, or -1 if none.
+     */
+    int latestVersion() {
+        return versions.length == 0 ? -1 : versions[versions.length - 1];
+    }
+
+    /**
+     * @return the number of versions fetched.
+     */
+    int size() {
+        return versions.length;
+    }
+
+    /**
+     * Returns a history holding the versions of this history and the specified {@code version}.
+     *
+     * @param version
+     *            the version.
+     * @param schema
+     *            the schema registered as that version.
+     * @return the new history, or this history if it already holds the version.
+     */
+    SubjectVersions with(final int version, final RegisteredSchema schema) {
+        final int index = Arrays.binarySearch(versions, version);
+        if (index >= 0) {
+            return this;
+        }
+        final int insertionPoint = -index - 1;
+        final int[] newVersions = new int[versions.length + 1];
+        final RegisteredSchema[] newSchemas = new RegisteredSchema[versions.length + 1];
+        System.arraycopy(versions, 0, newVersions, 0, insertionPoint);
+        System.arraycopy(schemas, 0, newSchemas, 0, insertionPoint);
+        newVersions[insertionPoint] = version;
+        newSchemas[insertionPoint] = schema;
+        System.arraycopy(versions, insertionPoint, newVersions, insertionPoint + 1, versions.length - insertionPoint);
+        System.arraycopy(schemas, insertionPoint, newSchemas, insertionPoint + 1, versions.length - insertionPoint);
+        return new SubjectVersions(newVersions, newSchemas);
+    }
+}
@@ -0,0 +1,204 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.Schema;
+
+import com.ericsson.component.aia.model.registry.utils.SchemaFootprint;
+import com.ericsson.component.aia.model.registry.utils.SchemaInterner;
+import com.ericsson.component.aia.model.registry.utils.SchemaParseCache;
+
+/**
+ * Two-tier store of resolved schemas by schema id. The hot tier holds parsed schemas in a {@link SchemaIdIndex}, so hits stay lock-free; the cold
+ * tier holds the JSON of schemas demoted from the hot tier, which is parsed and promoted back on their next lookup.
+ *
+ * <p>
+ * When the hot tier exceeds its maximum size, or the estimated heap of its parsed schemas exceeds its maximum bytes, the schema to demote is chosen
+ * by a second chance (CLOCK) sweep: a lookup marks the schema as referenced, and the sweep spares a referenced schema once by clearing its mark.
+ * Schemas the cold tier has no room for are resolved from schema registry again. With a hot tier maximum size and maximum bytes of zero, nothing is
+ * ever demoted.
+ */
+final class TieredSchemaStore {
+
+    private final SchemaIdIndex hotTier;
+    private final ColdSchemaTier coldTier;
+    private final SchemaInterner schemaInterner;
+    private final int hotMaximumSize;
+    private final long hotMaximumBytes;
+    private final byte[] referenced;
+    private final ArrayDeque<Long> clock = new ArrayDeque<>();
+    private final AtomicLong promotions = new AtomicLong();
+    private final AtomicLong demotions = new AtomicLong();
+    private long hotBytes;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param maxId
+     *            the largest schema id that will be stored.
+     * @param hotMaximumSize
+     *            the maximum number of parsed schemas, or zero for no count limit.
+     * @param hotMaximumBytes
+     *            the maximum estimated heap retained by the parsed schemas, or zero for no byte limit.
+     * @param coldTier
+     *            the tier holding the JSON of demoted schemas.
+     * @param schemaInterner
+     *            the interner canonicalizing promoted schemas.
+     */
+    TieredSchemaStore(final int maxId, final int hotMaximumSize, final long hotMaximumBytes, final ColdSchemaTier coldTier,
+                      final SchemaInterner schemaInterner) {
+        this.hotTier = new SchemaIdIndex(maxId);
+        this.hotMaximumSize = Math.max(0, hotMaximumSize);
+        this.hotMaximumBytes = Math.max(0, hotMaximumBytes);
+        this.referenced = this.hotMaximumSize > 0 || this.hotMaximumBytes > 0 ? new byte[maxId + 1] : null;
+        this.coldTier = coldTier;
+        this.schemaInterner = schemaInterner;
+    }
+
+    /**
+     * Returns the schema stored for the specified {@code schemaId}, promoting it to the hot tier if it was demoted.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @return the schema, or null if the id is in neither tier.
+     */
+    Schema get(final long schemaId) {
+        final Schema schema = hotTier.get(schemaId);
+        if (null != schema) {
+            if (null != referenced && referenced[(int) schemaId] == 0) {
+                referenced[(int) schemaId] = 1;
+            }
+            return schema;
+        }
+        return null == referenced ? null : promote(schemaId);
+    }
+
+    /**
+     * Stores the specified {@code schema} in the hot tier under {@code schemaId}, demoting the least recently referenced schemas if the hot tier is
+     * full. Ids outside the indexable range are ignored.
+     *
+     * @param schemaId
+     *            the schema id.
+     * @param schema
+     *            the resolved schema.
+     * @return true if the schema was stored.
+     */
+    synchronized boolean put(final long schemaId, final Schema schema) {
+        final Schema residentSchema = hotTier.get(schemaId);
+        if (!hotTier.put(schemaId, schema)) {
+            return false;
+        }
+        if (null == referenced) {
+            return true;
+        }
+        if (hotMaximumBytes > 0 && residentSchema != schema) {
+            hotBytes += SchemaFootprint.estimate(schema) - (null == residentSchema ? 0 : SchemaFootprint.estimate(residentSchema));
+        }
+        if (null == residentSchema) {
+            coldTier.onPromotion(schemaId);
+            referenced[(int) schemaId] = 0;
+            clock.addLast(schemaId);
+        }
+        while ((hotMaximumSize > 0 && clock.size() > hotMaximumSize) || (hotMaximumBytes > 0 && hotBytes > hotMaximumBytes && clock.size() > 1)) {
+            demoteOne();
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of schemas stored in either tier.
+     */
+    int size() {
+        int size = hotTier.size();
+        for (final Long schemaId : coldTier.schemaIds()) {
+            if (null == hotTier.get(schemaId)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return a copy of the stored schemas of both tiers keyed by schema id. Cold schemas are parsed but not promoted.
+     */
+    Map<Long, Schema> entries() {
+        final Map<Long, Schema> entries = hotTier.entries();
+        for (final Long schemaId : coldTier.schemaIds()) {
+            if (!entries.containsKey(schemaId)) {
+                final byte[] rawSchema = coldTier.get(schemaId);
+                if (null != rawSchema) {
+                    entries.put(schemaId, SchemaParseCache.INSTANCE.parse(new String(rawSchema, UTF_8)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Removes all stored schemas.
+     */
+    synchronized void clear() {
+        hotTier.clear();
+        coldTier.clear();
+        clock.clear();
+        hotBytes = 0;
+    }
+
+    /**
+     * @return statistics of both tiers.
+     */
+    SchemaTierStats stats() {
+        return new SchemaTierStats(hotTier.size(), coldTier.size(), coldTier.bytes(), promotions.get(), demotions.get(), coldTier.evictionCount());
+    }
+
+    private Schema promote(final long schemaId) {
+        final byte[] rawSchema = coldTier.get(schemaId);
+        if (null == rawSchema) {
+            return null;
+        }
+        final Schema schema = schemaInterner.intern(SchemaParseCache.INSTANCE.parse(new String(rawSchema, UTF_8)));
+        if (put(schemaId, schema)) {
+            promotions.incrementAndGet();
+        }
+        return schema;
+    }
+
+    private void demoteOne() {
+        while (true) {
+            final long schemaId = clock.pollFirst();
+            if (referenced[(int) schemaId] != 0) {
+                referenced[(int) schemaId] = 0;
+                clock.addLast(schemaId);
+                continue;
+            }
+            final Schema schema = hotTier.get(schemaId);
+            if (null != schema) {
+                // the cold copy is written before the hot one is dropped, so concurrent readers always find the schema in one of the tiers
+                if (!coldTier.contains(schemaId)) {
+                    coldTier.put(schemaId, schema.toString().getBytes(UTF_8));
+                }
+                hotTier.remove(schemaId);
+                if (hotMaximumBytes > 0) {
+                    hotBytes -= SchemaFootprint.estimate(schema);
+                }
+                demotions.incrementAndGet();
+            }
+            return;
+        }
+    }
+}
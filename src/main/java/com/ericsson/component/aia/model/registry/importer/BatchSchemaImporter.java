@@ -16,6 +16,10 @@ import static java.util.concurrent.TimeUnit.HOURS;
 
 import static com.ericsson.component.aia.model.registry.utils.AvroSchemaUtils.createSchemaCache;
 import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_CACHE_SIZE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_IMPORTER_RETRY_MAX_ATTEMPTS;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_ADDRESS_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_CACHE_MAX_SIZE_PARAMETER;
 import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
 import static com.ericsson.component.aia.model.registry.utils.Utils.executeCommandWithTimeOutConstraint;
 
@@ -82,11 +86,26 @@ public class BatchSchemaImporter {
         checkArgumentIsNotNull("directory", directory);
         checkArgumentIsNotNull("registry", registry);
         this.directory = directory;
-        client = new RestSchemaRegistryClient(registry, Integer.parseInt(DEFAULT_CACHE_SIZE));
+        client = new RestSchemaRegistryClient(createClientProperties(registry));
         this.checkOnly = checkOnly;
         this.timeout = timeout;
     }
 
+    /**
+     * Creates the properties of the client the schemas are imported through. An import would rather wait out a registry hiccup than leave schemas
+     * unregistered, so registrations are retried more often than by default, unless "restSchemaRegistryClient.retryMaxAttempts" is set.
+     */
+    private static Properties createClientProperties(final String registry) {
+        final Properties properties = new Properties();
+        properties.putAll(System.getProperties());
+        properties.setProperty(SCHEMA_REGISTRY_ADDRESS_PARAMETER, registry);
+        properties.setProperty(SCHEMA_REGISTRY_CACHE_MAX_SIZE_PARAMETER, DEFAULT_CACHE_SIZE);
+        if (!properties.containsKey(REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER)) {
+            properties.setProperty(REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER, DEFAULT_IMPORTER_RETRY_MAX_ATTEMPTS);
+        }
+        return properties;
+    }
+
     /**
      * Import schemas into schema registry.
      *
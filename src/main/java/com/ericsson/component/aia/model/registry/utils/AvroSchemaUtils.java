@@ -13,6 +13,7 @@ package com.ericsson.component.aia.model.registry.utils;
 
 import static com.ericsson.component.aia.model.registry.utils.Constants.AVRO_FILE_EXTENSION;
 import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.nio.file.*;
@@ -48,6 +49,23 @@ public final class AvroSchemaUtils {
      *             if specified {@code directory} wasn't processed successfully.
      */
     public static Map<Long, Schema> createSchemaCache(final String directory) throws IOException {
+        return createSchemaCache(directory, new SchemaInterner());
+    }
+
+    /**
+     * Scans the specified {@code directory} for any *.avsc files, parses the files to avro schemas and loads the schemas into a cache using a hash id
+     * generated from a combination of the schema namespace and name. Named types repeated across the files are shared through {@code interner}.
+     *
+     * @param directory
+     *            directory containing avro schemas.
+     * @param interner
+     *            the interner canonicalizing the parsed schemas.
+     * @return the cache of schemas and their associated unique schema ids.
+     * @throws IOException
+     *             if specified {@code directory} wasn't processed successfully.
+     */
+    public static Map<Long, Schema> createSchemaCache(final String directory, final SchemaInterner interner) throws IOException {
+        checkArgumentIsNotNull("interner", interner);
         final AtomicBoolean errors = new AtomicBoolean();
         checkArgumentIsNotNull("directory", directory);
         LOGGER.debug("Scanning files in directory: [{}]", directory);
@@ -71,7 +89,7 @@ public final class AvroSchemaUtils {
                 if (file.toString().endsWith(AVRO_FILE_EXTENSION)) {
                     LOGGER.debug("Processing file: [{}]", file.toString());
                     try {
-                        final Schema schema = new Schema.Parser().parse(file.toFile());
+                        final Schema schema = interner.intern(SchemaParseCache.INSTANCE.parse(new String(Files.readAllBytes(file), UTF_8)));
                         final long schemaId = getSchemaId(schema.getFullName());
                         if (schemaCache.containsKey(schemaId)) {
                             LOGGER.warn("Schema [{}] and [{}] have the same hash! What are the odds?!", schema.getFullName(),
@@ -99,6 +117,8 @@ public final class AvroSchemaUtils {
         final String logMessage = errors.get() ? "Errors occurred when processing directory. Check logs for more details."
                 : "Finished processing directories without any errors";
         LOGGER.info(logMessage);
+        LOGGER.info("Shared {} repeated schema types across {} schemas, saving an estimated {} bytes", new Object[] { interner.getSharedCount(),
+            schemaCache.size(), interner.getEstimatedBytesSaved() });
         return schemaCache;
     }
 
@@ -24,6 +24,76 @@ public interface Constants {
     String SCHEMA_REGISTRY_ADDRESS_PARAMETER = "schemaRegistry.address";
     String SCHEMA_REGISTRY_CACHE_MAX_SIZE_PARAMETER = "schemaRegistry.cacheMaximumSize";
     String REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_SIZE_PARAMETER = "restSchemaRegistryClient.cacheMaxiumSize";
+    String REST_SCHEMA_REGISTRY_CLIENT_ID_INDEX_MAX_ID_PARAMETER = "restSchemaRegistryClient.idIndexMaximumId";
+    String DEFAULT_REST_CLIENT_ID_INDEX_MAX_ID = "1048576";
+    String SCHEMA_REGISTRY_NEGATIVE_CACHE_TTL_PARAMETER = "schemaRegistry.negativeCacheTtlSeconds";
+    String SCHEMA_REGISTRY_NEGATIVE_CACHE_MAX_SIZE_PARAMETER = "schemaRegistry.negativeCacheMaximumSize";
+    String DEFAULT_NEGATIVE_CACHE_TTL_SECONDS = "30";
+    String DEFAULT_NEGATIVE_CACHE_SIZE = "10000";
+    String SCHEMA_REGISTRY_PARSE_CACHE_MAX_SIZE_PARAMETER = "schemaRegistry.parseCacheMaximumSize";
+    String DEFAULT_PARSE_CACHE_SIZE = "10000";
+    String REST_SCHEMA_REGISTRY_CLIENT_REFRESH_AFTER_WRITE_PARAMETER = "restSchemaRegistryClient.refreshAfterWriteSeconds";
+    String REST_SCHEMA_REGISTRY_CLIENT_REFRESH_JITTER_PARAMETER = "restSchemaRegistryClient.refreshJitterPercent";
+    String DEFAULT_REST_CLIENT_REFRESH_AFTER_WRITE_SECONDS = "0";
+    String DEFAULT_REST_CLIENT_REFRESH_JITTER_PERCENT = "10";
+    String REST_SCHEMA_REGISTRY_CLIENT_ASYNC_THREADS_PARAMETER = "restSchemaRegistryClient.asyncThreads";
+    String DEFAULT_REST_CLIENT_ASYNC_THREADS = "8";
+    String REST_SCHEMA_REGISTRY_CLIENT_BULK_PARALLELISM_PARAMETER = "restSchemaRegistryClient.bulkParallelism";
+    String DEFAULT_REST_CLIENT_BULK_PARALLELISM = "8";
+    String REST_SCHEMA_REGISTRY_CLIENT_SNAPSHOT_FILE_PARAMETER = "restSchemaRegistryClient.snapshotFile";
+    String REST_SCHEMA_REGISTRY_CLIENT_CACHE_ENGINE_PARAMETER = "restSchemaRegistryClient.cacheEngine";
+    String DEFAULT_REST_CLIENT_CACHE_ENGINE = "tinylfu";
+    String REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER = "restSchemaRegistryClient.cacheMaximumBytes";
+    String DEFAULT_REST_CLIENT_CACHE_MAX_BYTES = "0";
+    String REST_SCHEMA_REGISTRY_CLIENT_SHARED_CACHE_FILE_PARAMETER = "restSchemaRegistryClient.sharedCacheFile";
+    String REST_SCHEMA_REGISTRY_CLIENT_SHARED_CACHE_MAX_BYTES_PARAMETER = "restSchemaRegistryClient.sharedCacheMaximumBytes";
+    String DEFAULT_REST_CLIENT_SHARED_CACHE_MAX_BYTES = "64m";
+    String REST_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER = "restSchemaRegistryClient.hotTierMaximumSize";
+    String DEFAULT_REST_CLIENT_HOT_TIER_MAX_SIZE = "0";
+    String DEFAULT_REST_CLIENT_OFF_HEAP_HOT_TIER_MAX_SIZE = "10000";
+    String REST_SCHEMA_REGISTRY_CLIENT_COLD_TIER_MAX_BYTES_PARAMETER = "restSchemaRegistryClient.coldTierMaximumBytes";
+    String DEFAULT_REST_CLIENT_COLD_TIER_MAX_BYTES = "64m";
+    String SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER = "schemaRegistry.offHeapMaximumBytes";
+    String DEFAULT_OFF_HEAP_MAX_BYTES = "0";
+    String REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_FAILURE_RATE_PARAMETER = "restSchemaRegistryClient.circuitBreakerFailureRatePercent";
+    String DEFAULT_REST_CLIENT_CIRCUIT_FAILURE_RATE = "50";
+    String REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_SLOW_CALL_PARAMETER = "restSchemaRegistryClient.circuitBreakerSlowCallMillis";
+    String DEFAULT_REST_CLIENT_CIRCUIT_SLOW_CALL_MILLIS = "5000";
+    String REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_WINDOW_SIZE_PARAMETER = "restSchemaRegistryClient.circuitBreakerWindowSize";
+    String DEFAULT_REST_CLIENT_CIRCUIT_WINDOW_SIZE = "20";
+    String REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_OPEN_SECONDS_PARAMETER = "restSchemaRegistryClient.circuitBreakerOpenSeconds";
+    String DEFAULT_REST_CLIENT_CIRCUIT_OPEN_SECONDS = "30";
+    String REST_SCHEMA_REGISTRY_CLIENT_CIRCUIT_PROBE_TIMEOUT_PARAMETER = "restSchemaRegistryClient.circuitBreakerProbeTimeoutMillis";
+    String DEFAULT_REST_CLIENT_CIRCUIT_PROBE_TIMEOUT_MILLIS = "10000";
+    String REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_ATTEMPTS_PARAMETER = "restSchemaRegistryClient.retryMaxAttempts";
+    String DEFAULT_REST_CLIENT_RETRY_MAX_ATTEMPTS = "3";
+    String DEFAULT_IMPORTER_RETRY_MAX_ATTEMPTS = "6";
+    String REST_SCHEMA_REGISTRY_CLIENT_RETRY_INITIAL_BACKOFF_PARAMETER = "restSchemaRegistryClient.retryInitialBackoffMillis";
+    String DEFAULT_REST_CLIENT_RETRY_INITIAL_BACKOFF_MILLIS = "100";
+    String REST_SCHEMA_REGISTRY_CLIENT_RETRY_MAX_BACKOFF_PARAMETER = "restSchemaRegistryClient.retryMaxBackoffMillis";
+    String DEFAULT_REST_CLIENT_RETRY_MAX_BACKOFF_MILLIS = "5000";
+    String REST_SCHEMA_REGISTRY_CLIENT_RETRY_BUDGET_PARAMETER = "restSchemaRegistryClient.retryBudgetPercent";
+    String DEFAULT_REST_CLIENT_RETRY_BUDGET_PERCENT = "20";
+    String REST_SCHEMA_REGISTRY_CLIENT_TRANSPORT_PARAMETER = "restSchemaRegistryClient.transport";
+    String DEFAULT_REST_CLIENT_TRANSPORT = "restservice";
+    String REST_SCHEMA_REGISTRY_CLIENT_CONNECT_TIMEOUT_PARAMETER = "restSchemaRegistryClient.connectTimeoutMillis";
+    String DEFAULT_REST_CLIENT_CONNECT_TIMEOUT_MILLIS = "5000";
+    String REST_SCHEMA_REGISTRY_CLIENT_READ_TIMEOUT_PARAMETER = "restSchemaRegistryClient.readTimeoutMillis";
+    String DEFAULT_REST_CLIENT_READ_TIMEOUT_MILLIS = "10000";
+    String REST_SCHEMA_REGISTRY_CLIENT_POOL_TIMEOUT_PARAMETER = "restSchemaRegistryClient.poolTimeoutMillis";
+    String DEFAULT_REST_CLIENT_POOL_TIMEOUT_MILLIS = "5000";
+    String REST_SCHEMA_REGISTRY_CLIENT_MAX_CONNECTIONS_PER_HOST_PARAMETER = "restSchemaRegistryClient.maxConnectionsPerHost";
+    String DEFAULT_REST_CLIENT_MAX_CONNECTIONS_PER_HOST = "16";
+    String REST_SCHEMA_REGISTRY_CLIENT_COMPRESS_REQUESTS_ABOVE_PARAMETER = "restSchemaRegistryClient.compressRequestsAboveBytes";
+    String DEFAULT_REST_CLIENT_COMPRESS_REQUESTS_ABOVE_BYTES = "0";
+    String REST_SCHEMA_REGISTRY_CLIENT_HEDGE_PERCENTILE_PARAMETER = "restSchemaRegistryClient.hedgePercentile";
+    String DEFAULT_REST_CLIENT_HEDGE_PERCENTILE = "0";
+    String REST_SCHEMA_REGISTRY_CLIENT_QUARANTINE_FAILURES_PARAMETER = "restSchemaRegistryClient.quarantineFailures";
+    String DEFAULT_REST_CLIENT_QUARANTINE_FAILURES = "3";
+    String REST_SCHEMA_REGISTRY_CLIENT_QUARANTINE_SECONDS_PARAMETER = "restSchemaRegistryClient.quarantineSeconds";
+    String DEFAULT_REST_CLIENT_QUARANTINE_SECONDS = "30";
+    String FILE_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER = "fileSchemaRegistryClient.hotTierMaximumSize";
+    String DEFAULT_FILE_CLIENT_HOT_TIER_MAX_SIZE = "10000";
     String DEFAULT_SCHEMA_REGISTRY_ADDRESS = "http://localhost:8081";
     String DEFAULT_SCHEMA_REGISTRY_DIRECTORY = "/tmp/";
     String EMPTY_SPACE = "";
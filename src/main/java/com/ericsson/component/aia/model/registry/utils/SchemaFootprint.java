@@ -0,0 +1,120 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.utils;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+
+/**
+ * Rough estimate of the heap retained by a parsed {@link Schema}, based on typical object sizes of a 64-bit JVM with compressed references. Sub-schema
+ * instances reachable more than once are counted once. Intended for sizing caches and reporting savings, not for exact accounting.
+ */
+public final class SchemaFootprint {
+
+    private static final long SCHEMA_OVERHEAD = 96;
+    private static final long NAME_OVERHEAD = 32;
+    private static final long FIELD_OVERHEAD = 112;
+    private static final long STRING_OVERHEAD = 40;
+    private static final long LIST_OVERHEAD = 40;
+    private static final long MAP_OVERHEAD = 64;
+    private static final long REFERENCE_SIZE = 4;
+    private static final long MAP_ENTRY_SIZE = 36;
+
+    private SchemaFootprint() {
+    }
+
+    /**
+     * Estimates the heap retained by the specified {@code schema}.
+     *
+     * @param schema
+     *            the schema.
+     * @return the estimated number of bytes.
+     */
+    public static long estimate(final Schema schema) {
+        return estimate(schema, Collections.newSetFromMap(new IdentityHashMap<Schema, Boolean>()));
+    }
+
+    /**
+     * Estimates the heap retained by the specified {@code schema}, skipping sub-schemas already in {@code counted}.
+     *
+     * @param schema
+     *            the schema.
+     * @param counted
+     *            identity set of sub-schemas already counted; updated with those counted by this call.
+     * @return the estimated number of bytes not already accounted for by {@code counted}.
+     */
+    static long estimate(final Schema schema, final Set<Schema> counted) {
+        if (!counted.add(schema)) {
+            return 0;
+        }
+        long bytes = SCHEMA_OVERHEAD + propertiesSize(schema.getObjectProps());
+        switch (schema.getType()) {
+            case RECORD:
+                bytes += nameSize(schema) + LIST_OVERHEAD + MAP_OVERHEAD;
+                for (final Field field : schema.getFields()) {
+                    bytes += FIELD_OVERHEAD + REFERENCE_SIZE + MAP_ENTRY_SIZE + stringSize(field.name()) + stringSize(field.doc())
+                            + propertiesSize(field.getObjectProps()) + estimate(field.schema(), counted);
+                }
+                break;
+            case ENUM:
+                bytes += nameSize(schema) + LIST_OVERHEAD + MAP_OVERHEAD;
+                for (final String symbol : schema.getEnumSymbols()) {
+                    bytes += REFERENCE_SIZE + MAP_ENTRY_SIZE + stringSize(symbol);
+                }
+                break;
+            case FIXED:
+                bytes += nameSize(schema);
+                break;
+            case ARRAY:
+                bytes += estimate(schema.getElementType(), counted);
+                break;
+            case MAP:
+                bytes += estimate(schema.getValueType(), counted);
+                break;
+            case UNION:
+                bytes += LIST_OVERHEAD + MAP_OVERHEAD;
+                for (final Schema type : schema.getTypes()) {
+                    bytes += REFERENCE_SIZE + MAP_ENTRY_SIZE + estimate(type, counted);
+                }
+                break;
+            default:
+                break;
+        }
+        return bytes;
+    }
+
+    private static long nameSize(final Schema schema) {
+        long bytes = NAME_OVERHEAD + stringSize(schema.getName()) + stringSize(schema.getNamespace()) + stringSize(schema.getFullName())
+                + stringSize(schema.getDoc());
+        for (final String alias : schema.getAliases()) {
+            bytes += REFERENCE_SIZE + stringSize(alias);
+        }
+        return bytes;
+    }
+
+    private static long propertiesSize(final Map<String, Object> properties) {
+        long bytes = 0;
+        for (final Map.Entry<String, Object> property : properties.entrySet()) {
+            bytes += MAP_ENTRY_SIZE + stringSize(property.getKey()) + stringSize(String.valueOf(property.getValue()));
+        }
+        return bytes;
+    }
+
+    private static long stringSize(final String value) {
+        return null == value ? 0 : STRING_OVERHEAD + value.length();
+    }
+}
@@ -0,0 +1,209 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.utils;
+
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Canonicalizes structurally identical named types (records, enums, fixed) and primitive types across schemas, so schemas that repeat the same
+ * header records or enums share one instance of them instead of each holding its own copy. Identity is decided by {@link Schema#equals(Object)},
+ * which compares names, fields, symbols and properties, together with the documentation and aliases of the schemas and their fields, which
+ * {@link Schema#equals(Object)} ignores, so a shared instance always prints the same JSON as the schema it replaces.
+ *
+ * <p>
+ * Interned schemas are shared between every schema they were found in and must not be modified. They are weakly referenced, so the interner
+ * never keeps alive a schema that no longer appears in any schema held by its callers. Interned schemas are looked up by their hash code, and a
+ * schema whose hash code collides with a different interned schema is simply not shared.
+ */
+public final class SchemaInterner {
+
+    private final Cache<Integer, Schema> schemas = CacheBuilder.newBuilder().weakValues().build();
+    private final AtomicLong sharedCount = new AtomicLong();
+    private final AtomicLong estimatedBytesSaved = new AtomicLong();
+
+    /**
+     * Returns a schema equal to the specified {@code schema} whose named and primitive sub-schemas are the instances already interned, interning
+     * any that were not seen before. The specified schema is returned unchanged if none of its sub-schemas were seen before.
+     *
+     * @param schema
+     *            the schema to intern.
+     * @return the interned schema.
+     */
+    public Schema intern(final Schema schema) {
+        checkArgumentIsNotNull("schema", schema);
+        return intern(schema, new IdentityHashMap<Schema, Schema>(), Collections.newSetFromMap(new IdentityHashMap<Schema, Boolean>()));
+    }
+
+    /**
+     * @return the number of sub-schema instances replaced by an already interned instance.
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+
+    /**
+     * @return an estimate, in bytes, of the heap no longer retained because sub-schemas were replaced by interned instances.
+     * @see SchemaFootprint
+     */
+    public long getEstimatedBytesSaved() {
+        return estimatedBytesSaved.get();
+    }
+
+    /**
+     * @return the number of distinct interned schemas.
+     */
+    public int size() {
+        return (int) schemas.size();
+    }
+
+    private Schema intern(final Schema schema, final Map<Schema, Schema> inProgress, final Set<Schema> counted) {
+        final Schema inProgressSchema = inProgress.get(schema);
+        if (null != inProgressSchema) {
+            return inProgressSchema;
+        }
+        final boolean internable = isInternable(schema);
+        if (internable) {
+            final Schema interned = schemas.getIfPresent(schema.hashCode());
+            if (null != interned && isIdentical(interned, schema)) {
+                if (interned != schema) {
+                    sharedCount.incrementAndGet();
+                    estimatedBytesSaved.addAndGet(SchemaFootprint.estimate(schema, counted));
+                }
+                return interned;
+            }
+        }
+        inProgress.put(schema, schema);
+        final Schema rebuilt = rebuild(schema, inProgress, counted);
+        inProgress.put(schema, rebuilt);
+        if (!internable) {
+            return rebuilt;
+        }
+        final Schema interned = schemas.asMap().putIfAbsent(rebuilt.hashCode(), rebuilt);
+        return null != interned && isIdentical(interned, rebuilt) ? interned : rebuilt;
+    }
+
+    private static boolean isIdentical(final Schema interned, final Schema schema) {
+        return interned.equals(schema)
+                && hasSameDocumentation(interned, schema, Collections.newSetFromMap(new IdentityHashMap<Schema, Boolean>()));
+    }
+
+    /**
+     * Compares the documentation and aliases of two equal schemas and of their fields and sub-schemas.
+     */
+    private static boolean hasSameDocumentation(final Schema left, final Schema right, final Set<Schema> compared) {
+        if (left == right || !compared.add(left)) {
+            return true;
+        }
+        switch (left.getType()) {
+            case RECORD:
+                if (!Objects.equals(left.getDoc(), right.getDoc()) || !left.getAliases().equals(right.getAliases())) {
+                    return false;
+                }
+                for (int i = 0; i < left.getFields().size(); i++) {
+                    final Field leftField = left.getFields().get(i);
+                    final Field rightField = right.getFields().get(i);
+                    if (!Objects.equals(leftField.doc(), rightField.doc()) || !leftField.aliases().equals(rightField.aliases())
+                            || !hasSameDocumentation(leftField.schema(), rightField.schema(), compared)) {
+                        return false;
+                    }
+                }
+                return true;
+            case ENUM:
+            case FIXED:
+                return Objects.equals(left.getDoc(), right.getDoc()) && left.getAliases().equals(right.getAliases());
+            case ARRAY:
+                return hasSameDocumentation(left.getElementType(), right.getElementType(), compared);
+            case MAP:
+                return hasSameDocumentation(left.getValueType(), right.getValueType(), compared);
+            case UNION:
+                for (int i = 0; i < left.getTypes().size(); i++) {
+                    if (!hasSameDocumentation(left.getTypes().get(i), right.getTypes().get(i), compared)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Interns the children of the specified {@code schema}, returning a copy only if at least one child was replaced.
+     */
+    private Schema rebuild(final Schema schema, final Map<Schema, Schema> inProgress, final Set<Schema> counted) {
+        switch (schema.getType()) {
+            case RECORD:
+                return rebuildRecord(schema, inProgress, counted);
+            case ARRAY:
+                final Schema elementType = intern(schema.getElementType(), inProgress, counted);
+                return elementType == schema.getElementType() ? schema : copyProperties(schema, Schema.createArray(elementType));
+            case MAP:
+                final Schema valueType = intern(schema.getValueType(), inProgress, counted);
+                return valueType == schema.getValueType() ? schema : copyProperties(schema, Schema.createMap(valueType));
+            case UNION:
+                final List<Schema> types = new ArrayList<>(schema.getTypes().size());
+                boolean changed = false;
+                for (final Schema type : schema.getTypes()) {
+                    final Schema internedType = intern(type, inProgress, counted);
+                    changed |= internedType != type;
+                    types.add(internedType);
+                }
+                return changed ? copyProperties(schema, Schema.createUnion(types)) : schema;
+            default:
+                return schema;
+        }
+    }
+
+    private Schema rebuildRecord(final Schema schema, final Map<Schema, Schema> inProgress, final Set<Schema> counted) {
+        final List<Schema> fieldTypes = new ArrayList<>(schema.getFields().size());
+        boolean changed = false;
+        for (final Field field : schema.getFields()) {
+            final Schema fieldType = intern(field.schema(), inProgress, counted);
+            changed |= fieldType != field.schema();
+            fieldTypes.add(fieldType);
+        }
+        if (!changed) {
+            return schema;
+        }
+        final Schema record = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), schema.isError());
+        for (final String alias : schema.getAliases()) {
+            record.addAlias(alias);
+        }
+        final List<Field> fields = new ArrayList<>(fieldTypes.size());
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            fields.add(new Field(schema.getFields().get(i), fieldTypes.get(i)));
+        }
+        record.setFields(fields);
+        return copyProperties(schema, record);
+    }
+
+    private static Schema copyProperties(final Schema source, final Schema target) {
+        for (final Map.Entry<String, Object> property : source.getObjectProps().entrySet()) {
+            target.addProp(property.getKey(), property.getValue());
+        }
+        return target;
+    }
+
+    private static boolean isInternable(final Schema schema) {
+        final Schema.Type type = schema.getType();
+        return Schema.Type.ARRAY != type && Schema.Type.MAP != type && Schema.Type.UNION != type;
+    }
+}
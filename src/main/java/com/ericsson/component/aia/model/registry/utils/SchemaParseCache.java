@@ -0,0 +1,87 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.utils;
+
+import static com.ericsson.component.aia.model.registry.utils.Constants.DEFAULT_PARSE_CACHE_SIZE;
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_PARSE_CACHE_MAX_SIZE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Utils.checkArgumentIsNotNull;
+import static com.ericsson.component.aia.model.registry.utils.Utils.getSchemaRegistryLongProperty;
+
+import org.apache.avro.Schema;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Process-wide cache of parsed schemas keyed by their JSON text, so text that is parsed more than once, or shared by several subjects, is parsed
+ * once and yields one shared {@link Schema} instance. The text itself is the key, so different JSON never resolves to the same schema.
+ *
+ * <p>
+ * Cached schemas are shared by every caller that parsed the same text and must not be modified. Values are weakly referenced, so the cache never
+ * keeps alive a schema its callers have released, such as one demoted to a compressed cold tier.
+ */
+public final class SchemaParseCache {
+
+    /**
+     * The process-wide cache, bounded by the "schemaRegistry.parseCacheMaximumSize" system property.
+     */
+    public static final SchemaParseCache INSTANCE = new SchemaParseCache(
+            getSchemaRegistryLongProperty(System.getProperties(), SCHEMA_REGISTRY_PARSE_CACHE_MAX_SIZE_PARAMETER, DEFAULT_PARSE_CACHE_SIZE));
+
+    private final Cache<String, Schema> schemas;
+
+    /**
+     * Creates a cache holding at most {@code maximumSize} parsed schemas.
+     *
+     * @param maximumSize
+     *            the maximum number of parsed schemas retained.
+     */
+    public SchemaParseCache(final long maximumSize) {
+        schemas = CacheBuilder.newBuilder().maximumSize(maximumSize).weakValues().recordStats().build();
+    }
+
+    /**
+     * Returns the schema parsed from the specified {@code json}, parsing it only if the same text is not already cached. Concurrent callers parsing
+     * the same text all receive the same instance.
+     *
+     * @param json
+     *            the schema JSON.
+     * @return the parsed schema.
+     * @throws org.apache.avro.SchemaParseException
+     *             if {@code json} is not a valid schema.
+     */
+    public Schema parse(final String json) {
+        checkArgumentIsNotNull("json", json);
+        final Schema cached = schemas.getIfPresent(json);
+        if (null != cached) {
+            return cached;
+        }
+        final Schema parsed = new Schema.Parser().parse(json);
+        final Schema raced = schemas.asMap().putIfAbsent(json, parsed);
+        return null == raced ? parsed : raced;
+    }
+
+    /**
+     * @return hit, miss and eviction counts of the cache.
+     */
+    public CacheStats stats() {
+        return schemas.stats();
+    }
+
+    /**
+     * @return the number of parsed schemas currently cached.
+     */
+    public long size() {
+        return schemas.size();
+    }
+}
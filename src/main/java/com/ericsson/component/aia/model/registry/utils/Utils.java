@@ -36,6 +36,11 @@ public final class Utils {
     private static final Logger LOGGER = LoggerFactory.getLogger(Utils.class);
     private static final String INTEGER_REGEX = "\\d+";
     private static final String REGEX_FOR_ONLY_DECIMAL = "^\\d+$";
+    private static final Pattern BYTE_SIZE_PATTERN = Pattern.compile("(\\d{1,15})\\s*([kKmMgG%]?)");
+    private static final int KILOBYTE_SHIFT = 10;
+    private static final int MEGABYTE_SHIFT = 20;
+    private static final int GIGABYTE_SHIFT = 30;
+    private static final int PERCENT = 100;
 
     private Utils() {}
 
@@ -62,6 +67,18 @@ public final class Utils {
         return String.format("Could not register schema %s under subject %s", schema.getName(), schema.getFullName());
     }
 
+    /**
+     * Returns default exception message for a {@link SchemaRetrievalException} raised because the specified {@code schema} is not registered.
+     *
+     * @param schema
+     *            schema which is not registered.
+     * @return formatted string.
+     */
+    public static String getSchemaNotRegisteredMessage(final Schema schema) {
+        checkArgumentIsNotNull("schema", schema);
+        return String.format("Schema %s is not registered under subject %s", schema.getName(), schema.getFullName());
+    }
+
     /**
      * Useful method to ensure null arguments aren't passed into a method. Like guava preconditions library.
      *
@@ -141,6 +158,97 @@ public final class Utils {
         return Integer.parseInt(getSchemaRegistryIntegerProperty(properties, SCHEMA_REGISTRY_CACHE_MAX_SIZE_PARAMETER, DEFAULT_CACHE_SIZE));
     }
 
+    /**
+     * Returns the value of the "schemaRegistry.negativeCacheTtlSeconds" value if it exists in the specified {@code properties}. Otherwise, returns
+     * the default value and logs it.
+     *
+     * @param properties
+     *            to check for the "schemaRegistry.negativeCacheTtlSeconds" property
+     * @return Long value
+     */
+    public static long getNegativeCacheTtlProperty(final Properties properties) {
+        checkArgumentIsNotNull("properties", properties);
+        return Long.parseLong(
+                getSchemaRegistryIntegerProperty(properties, SCHEMA_REGISTRY_NEGATIVE_CACHE_TTL_PARAMETER, DEFAULT_NEGATIVE_CACHE_TTL_SECONDS));
+    }
+
+    /**
+     * Returns the value of the "schemaRegistry.negativeCacheMaximumSize" value if it exists in the specified {@code properties}. Otherwise, returns
+     * the default value and logs it.
+     *
+     * @param properties
+     *            to check for the "schemaRegistry.negativeCacheMaximumSize" property
+     * @return Long value
+     */
+    public static long getNegativeCacheSizeProperty(final Properties properties) {
+        checkArgumentIsNotNull("properties", properties);
+        return Long.parseLong(
+                getSchemaRegistryIntegerProperty(properties, SCHEMA_REGISTRY_NEGATIVE_CACHE_MAX_SIZE_PARAMETER, DEFAULT_NEGATIVE_CACHE_SIZE));
+    }
+
+    /**
+     * Returns the value of the specified {@code propertyName} if it exists in the specified {@code properties} and is a non-negative integer.
+     * Otherwise, returns the specified {@code defaultValue} and logs it.
+     *
+     * @param properties
+     *            to check for the property
+     * @param propertyName
+     *            the name of the property
+     * @param defaultValue
+     *            the value to use if the property is not set
+     * @return Long value
+     */
+    public static long getSchemaRegistryLongProperty(final Properties properties, final String propertyName, final String defaultValue) {
+        checkArgumentIsNotNull("properties", properties);
+        return Long.parseLong(getSchemaRegistryIntegerProperty(properties, propertyName, defaultValue));
+    }
+
+    /**
+     * Returns the size in bytes given by the specified {@code propertyName} if it exists in the specified {@code properties} and is either a number
+     * of bytes, optionally suffixed with "k", "m" or "g", or a percentage of the maximum heap size such as "10%". Otherwise, returns the size given
+     * by the specified {@code defaultValue} and logs it.
+     *
+     * @param properties
+     *            to check for the property
+     * @param propertyName
+     *            the name of the property
+     * @param defaultValue
+     *            the value to use if the property is not set, in the same format
+     * @return Long value
+     */
+    public static long getSchemaRegistryByteSizeProperty(final Properties properties, final String propertyName, final String defaultValue) {
+        checkArgumentIsNotNull("properties", properties);
+        final String value = properties.getProperty(propertyName);
+        if (null != value) {
+            final long bytes = parseByteSize(value.trim());
+            if (bytes >= 0) {
+                return bytes;
+            }
+            LOGGER.warn("Invalid value [{}] for property [{}]", value, propertyName);
+        }
+        return parseByteSize(getDefaultStringValueWithLogging(propertyName, defaultValue));
+    }
+
+    private static long parseByteSize(final String value) {
+        final Matcher matcher = BYTE_SIZE_PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            return -1;
+        }
+        final long amount = Long.parseLong(matcher.group(1));
+        switch (Character.toLowerCase(matcher.group(2).isEmpty() ? ' ' : matcher.group(2).charAt(0))) {
+            case 'k':
+                return amount << KILOBYTE_SHIFT;
+            case 'm':
+                return amount << MEGABYTE_SHIFT;
+            case 'g':
+                return amount << GIGABYTE_SHIFT;
+            case '%':
+                return amount > PERCENT ? -1 : (long) (Runtime.getRuntime().maxMemory() * (amount / (double) PERCENT));
+            default:
+                return amount;
+        }
+    }
+
     /**
      * Execute a command with a timeout constraint set.
      *
@@ -21,11 +21,13 @@ import static com.ericsson.component.aia.model.registry.testutils.TestConstants.
 import static com.ericsson.component.aia.model.registry.testutils.TestUtil.createRestSchemaRegistryClient;
 import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_ADDRESS_PARAMETER;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -39,6 +41,8 @@ import com.ericsson.component.aia.model.registry.exception.SchemaRegistrationExc
 import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
 import com.ericsson.component.aia.model.registry.impl.RegisteredSchema;
 import com.ericsson.component.aia.model.registry.impl.RestSchemaRegistryClient;
+import com.ericsson.component.aia.model.registry.impl.SchemaSyncResult;
+import com.ericsson.component.aia.model.registry.impl.SubjectVersion;
 import com.ericsson.component.aia.model.registry.importer.BatchSchemaImporter;
 import com.ericsson.component.aia.model.registry.testutils.RestSchemaRegistryClientTestHepler;
 import com.ericsson.component.aia.model.registry.testutils.SchemaRegistryEmbedded;
@@ -124,6 +128,38 @@ public class RestSchemaRegistryClientIntegrationTest {
         assertEquals(schema, client.lookup(firstSchemaId));
     }
 
+    @Test
+    public void test_registerSchema_reRegistrationAnsweredWithoutSchemaRegistry() throws Exception {
+        //Given a schema has been registered successfully
+        final long schemaId = client.put(new Schema.Parser().parse(sampleSchema1File));
+
+        //If all instances of schema registry go down
+        registry.stopAllSchemaRegistryInstances();
+
+        //Then registering a freshly parsed copy of the schema returns the schema id of the registered schema
+        assertEquals(schemaId, client.put(new Schema.Parser().parse(sampleSchema1File)));
+        assertEquals(schemaId, client.idFor(new Schema.Parser().parse(sampleSchema1File)));
+    }
+
+    @Test
+    public void test_idFor_schemaRegisteredByAnotherClient() throws Exception {
+        //Given a schema has been registered by another client
+        final Schema schema = new Schema.Parser().parse(sampleSchema1File);
+        final long schemaId = createRestSchemaRegistryClient(AVAILABLE_SCHEMA_REGISTRY_INSTANCES_URL_LIST).put(schema);
+
+        //When asking for the id of the schema
+        //Then the schema id of the registered schema is returned
+        assertEquals(schemaId, client.idFor(new Schema.Parser().parse(sampleSchema1File)));
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_idFor_unregisteredSchema() throws Exception {
+        //Given schema registry is available
+        //When asking for the id of a schema that has not been registered
+        //Then a SchemaRetrievalException should be thrown.
+        client.idFor(new Schema.Parser().parse(sampleSchema1File));
+    }
+
     @Test
     public void test_schemaRegistryShouldBeAvailableToQueryWhenOneInstanceGoesDown() throws Exception {
         //Given schema registry is available
@@ -143,6 +179,22 @@ public class RestSchemaRegistryClientIntegrationTest {
         assertEquals(schema2, client.lookup(schemaId2));
     }
 
+    @Test
+    public void test_versions_answeredByRemainingInstanceWhenOneInstanceGoesDown() throws Exception {
+        //Given schema registry is available
+        //And a schema has been registered successfully
+        final Schema schema = new Schema.Parser().parse(sampleSchema1File);
+        client.put(schema);
+
+        //If one instance of schema registry in a schema registry cluster goes down
+        registry.stopSchemaRegistryInstance();
+
+        //Then every request sent to schema registry should still be answered by the remaining instance
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Arrays.asList(1), client.versions(schema.getFullName()));
+        }
+    }
+
     @Test
     public void test_schemaRegistryShouldReturnCorrectSchemasAfterRestartOfAllInstances() throws Exception {
         //Given schema registry is available
@@ -273,6 +325,84 @@ public class RestSchemaRegistryClientIntegrationTest {
         assertEquals("Mismatch in amount of schemas retrieved", 2, retrievedSchemas.size());
     }
 
+    @Test
+    public void test_syncAllSchemas_returnsDeltaSincePreviousSync() throws Exception {
+        //Given schema registry is available
+        //And a schema has been registered and synchronised
+        final Schema schema1 = new Schema.Parser().parse(sampleSchema1File);
+        client.put(schema1);
+        final SchemaSyncResult firstSync = client.syncAllSchemas();
+        assertEquals(1, firstSync.getAdded().size());
+        assertEquals(schema1, firstSync.getAllSchemas().get(schema1.getFullName()).getSchema());
+
+        //When nothing changed, the next synchronisation reports no changes
+        final SchemaSyncResult unchangedSync = client.syncAllSchemas();
+        assertFalse(unchangedSync.hasChanges());
+        assertEquals(1, unchangedSync.getAllSchemas().size());
+
+        //When another schema is registered
+        final Schema schema2 = new Schema.Parser().parse(fourthLevelSchemaFile);
+        final long schemaId2 = client.put(schema2);
+
+        //Then only that schema is reported as added, alongside the full view
+        final SchemaSyncResult secondSync = client.syncAllSchemas();
+        assertEquals(1, secondSync.getAdded().size());
+        assertEquals(schemaId2, secondSync.getAdded().get(schema2.getFullName()).getSchemaId());
+        assertTrue(secondSync.getUpdated().isEmpty());
+        assertTrue(secondSync.getRemoved().isEmpty());
+        assertEquals(2, secondSync.getAllSchemas().size());
+    }
+
+    @Test
+    public void test_getSchemaBySubjectAndVersion_previousVersion() throws Exception {
+        //Given two versions of a schema have been registered under the same subject
+        final Schema version1 = new Schema.Parser().parse(sampleSchema1File);
+        final Schema version2 = new Schema.Parser().parse(version1.toString().replaceFirst("\"fields\":", "\"doc\":\"second version\",\"fields\":"));
+        final long schemaId1 = client.put(version1);
+        final long schemaId2 = client.put(version2);
+
+        //When listing the versions of the subject and looking up each of them
+        assertEquals(Arrays.asList(1, 2), client.versions(version1.getFullName()));
+        final RegisteredSchema retrievedVersion1 = client.lookup(version1.getFullName(), 1);
+        final RegisteredSchema retrievedVersion2 = client.lookup(version1.getFullName(), 2);
+
+        //Then each version is returned, and the latest version is still returned by subject
+        assertEquals(schemaId1, retrievedVersion1.getSchemaId());
+        assertEquals(version1, retrievedVersion1.getSchema());
+        assertEquals(schemaId2, retrievedVersion2.getSchemaId());
+        assertEquals(version2, retrievedVersion2.getSchema());
+        assertEquals(schemaId2, client.lookup(version1.getFullName()).getSchemaId());
+
+        //And fetched versions are served without schema registry
+        registry.stopAllSchemaRegistryInstances();
+        assertEquals(schemaId1, client.lookup(version1.getFullName(), 1).getSchemaId());
+    }
+
+    @Test
+    public void test_subjectOf_indexedFromSubjectLookups() throws Exception {
+        //Given a schema has been registered and looked up by subject
+        final Schema schema = new Schema.Parser().parse(sampleSchema1File);
+        final long schemaId = client.put(schema);
+        client.lookup(schema.getFullName());
+
+        //If all instances of schema registry go down
+        registry.stopAllSchemaRegistryInstances();
+
+        //Then the subject of the schema is still found by schema id
+        assertEquals(new SubjectVersion(schema.getFullName(), 1), client.subjectOf(schemaId));
+    }
+
+    @Test
+    public void test_subjectOf_schemaRegisteredByAnotherClient() throws Exception {
+        //Given a schema has been registered by another client
+        final Schema schema = new Schema.Parser().parse(fourthLevelSchemaFile);
+        final long schemaId = createRestSchemaRegistryClient(AVAILABLE_SCHEMA_REGISTRY_INSTANCES_URL_LIST).put(schema);
+
+        //When asking for the subject of the schema id
+        //Then the subject and version of the schema are returned
+        assertEquals(new SubjectVersion(schema.getFullName(), 1), client.subjectOf(schemaId));
+    }
+
     @Test(expected = SchemaRetrievalException.class)
     public void test_getSchemaBySubject_invalidSubject() throws SchemaRetrievalException {
         //Given schema registry is available
@@ -0,0 +1,121 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRegistrationException;
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+import com.ericsson.component.aia.model.registry.impl.LookupResults;
+import com.ericsson.component.aia.model.registry.impl.RegisteredSchema;
+
+public class SchemaRegistryOperationsTest {
+
+    private static final long SCHEMA_ID = 1L;
+    private static final long UNKNOWN_SCHEMA_ID = 2L;
+    private static final String SUBJECT = "string";
+    private static final String UNKNOWN_SUBJECT = "unknown";
+
+    private final Schema schema = Schema.create(Type.STRING);
+    private final SchemaRegistryOperations client = new OriginalOperations();
+
+    @Test
+    public void test_lookupAsync_completedWithLookupResult() throws Exception {
+        final CompletableFuture<Schema> future = client.lookupAsync(SCHEMA_ID);
+        assertTrue(future.isDone());
+        assertSame(schema, future.get());
+        assertSame(schema, client.lookupAsync(SUBJECT).get().getSchema());
+    }
+
+    @Test
+    public void test_lookupAsync_failureCompletesExceptionally() throws InterruptedException {
+        final CompletableFuture<Schema> future = client.lookupAsync(UNKNOWN_SCHEMA_ID);
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("Expected lookup of an unknown schema id to fail");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof SchemaRetrievalException);
+        }
+    }
+
+    @Test
+    public void test_putAsync_completedWithPutResult() throws Exception {
+        assertEquals(Long.valueOf(SCHEMA_ID), client.putAsync(schema).get());
+    }
+
+    @Test
+    public void test_lookupRaw_rendersLookedUpSchema() throws SchemaRetrievalException {
+        assertArrayEquals(schema.toString().getBytes(UTF_8), client.lookupRaw(SCHEMA_ID));
+    }
+
+    @Test
+    public void test_idFor_latestVersionOfSubject() throws SchemaRetrievalException {
+        assertEquals(SCHEMA_ID, client.idFor(schema));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void test_versions_notSupportedByDefault() throws SchemaRetrievalException {
+        client.versions(SUBJECT);
+    }
+
+    @Test
+    public void test_lookupAll_failedIdDoesNotFailTheOthers() {
+        final LookupResults<Long, Schema> results = client.lookupAll(Arrays.asList(SCHEMA_ID, UNKNOWN_SCHEMA_ID));
+        assertEquals(Collections.singletonMap(SCHEMA_ID, schema), results.getFound());
+        assertEquals(Collections.singleton(UNKNOWN_SCHEMA_ID), results.getFailures().keySet());
+    }
+
+    @Test
+    public void test_lookupAllSubjects_failedSubjectDoesNotFailTheOthers() {
+        final LookupResults<String, RegisteredSchema> results = client.lookupAllSubjects(Arrays.asList(SUBJECT, UNKNOWN_SUBJECT));
+        assertSame(schema, results.getFound().get(SUBJECT).getSchema());
+        assertEquals(Collections.singleton(UNKNOWN_SUBJECT), results.getFailures().keySet());
+    }
+
+    /**
+     * Implements only the operations that have no default implementation, as a client written against an earlier release would.
+     */
+    private final class OriginalOperations implements SchemaRegistryOperations {
+
+        @Override
+        public Schema lookup(final long schemaId) throws SchemaRetrievalException {
+            if (SCHEMA_ID != schemaId) {
+                throw new SchemaRetrievalException("No schema with id " + schemaId);
+            }
+            return schema;
+        }
+
+        @Override
+        public RegisteredSchema lookup(final String subject) throws SchemaRetrievalException {
+            if (!SUBJECT.equals(subject)) {
+                throw new SchemaRetrievalException("No schema exists with subject name: " + subject);
+            }
+            return new RegisteredSchema(SCHEMA_ID, schema);
+        }
+
+        @Override
+        public long put(final Schema schemaToRegister) throws SchemaRegistrationException {
+            return SCHEMA_ID;
+        }
+    }
+}
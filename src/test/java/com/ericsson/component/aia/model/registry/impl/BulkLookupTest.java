@@ -0,0 +1,91 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+
+public class BulkLookupTest {
+
+    private static final long CACHED_ID = 1L;
+    private static final long UNKNOWN_ID = 13L;
+    private static final int PARALLELISM = 4;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+    private final AtomicInteger resolved = new AtomicInteger();
+    private final BulkLookup.Resolver<Long, String> resolver = new BulkLookup.Resolver<Long, String>() {
+        @Override
+        public String cached(final Long key) {
+            return key == CACHED_ID ? "cached" : null;
+        }
+
+        @Override
+        public String resolve(final Long key) throws SchemaRetrievalException {
+            resolved.incrementAndGet();
+            if (key == UNKNOWN_ID) {
+                throw new SchemaRetrievalException("unknown");
+            }
+            return "resolved-" + key;
+        }
+    };
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_lookupAll_mixOfHitsMissesAndFailures() {
+        final LookupResults<Long, String> results = BulkLookup.lookupAll(Arrays.asList(CACHED_ID, 2L, 3L, UNKNOWN_ID, 2L), resolver, executor,
+                PARALLELISM);
+
+        assertEquals(Arrays.asList(CACHED_ID, 2L, 3L), Arrays.asList(results.getFound().keySet().toArray()));
+        assertEquals("cached", results.getFound().get(CACHED_ID));
+        assertEquals("resolved-2", results.getFound().get(2L));
+        assertFalse(results.isComplete());
+        assertEquals("unknown", results.getFailures().get(UNKNOWN_ID).getMessage());
+        assertEquals("Cached and duplicate keys should not be resolved", 3, resolved.get());
+    }
+
+    @Test
+    public void test_lookupAll_emptyKeys() {
+        final LookupResults<Long, String> results = BulkLookup.lookupAll(Collections.<Long> emptyList(), resolver, executor, PARALLELISM);
+        assertTrue(results.getFound().isEmpty());
+        assertTrue(results.isComplete());
+    }
+
+    @Test
+    public void test_lookupAll_manyKeysWithSaturatedExecutor() {
+        executor.shutdown();
+        final Long[] keys = new Long[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 100L;
+        }
+        final LookupResults<Long, String> results = BulkLookup.lookupAll(Arrays.asList(keys), resolver, executor, PARALLELISM);
+        assertEquals(keys.length, results.getFound().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_lookupAll_nullKey() {
+        BulkLookup.lookupAll(Arrays.asList(2L, null), resolver, executor, PARALLELISM);
+    }
+}
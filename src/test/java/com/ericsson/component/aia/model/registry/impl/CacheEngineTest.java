@@ -0,0 +1,204 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.utils.Constants;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+
+public class CacheEngineTest {
+
+    private static final int MAXIMUM_SIZE = 100;
+    private static final int HOT_KEYS = 50;
+    private static final int HOT_ACCESSES = 5;
+    private static final int SCANNED_KEYS = 500;
+
+    private static final Weigher<String, String> LENGTH_WEIGHER = new Weigher<String, String>() {
+        @Override
+        public int weigh(final String key, final String value) {
+            return value.length();
+        }
+    };
+
+    @Test
+    public void test_fromProperties() {
+        final Properties properties = new Properties();
+        assertEquals(CacheEngine.TINY_LFU, CacheEngine.fromProperties(properties));
+        properties.put(Constants.REST_SCHEMA_REGISTRY_CLIENT_CACHE_ENGINE_PARAMETER, " LRU ");
+        assertEquals(CacheEngine.LRU, CacheEngine.fromProperties(properties));
+        properties.put(Constants.REST_SCHEMA_REGISTRY_CLIENT_CACHE_ENGINE_PARAMETER, "unknown");
+        assertEquals(CacheEngine.TINY_LFU, CacheEngine.fromProperties(properties));
+    }
+
+    @Test
+    public void test_getIfPresent_recordsHitsAndMisses() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(MAXIMUM_SIZE);
+            cache.put("subject", "schema");
+
+            assertEquals("schema", cache.getIfPresent("subject"));
+            assertNull(cache.getIfPresent("unknown"));
+
+            final CacheStats stats = cache.stats();
+            assertEquals(engine.name(), 1, stats.hitCount());
+            assertEquals(engine.name(), 1, stats.missCount());
+        }
+    }
+
+    @Test
+    public void test_put_neverExceedsMaximumSize() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(MAXIMUM_SIZE);
+            for (int i = 0; i < SCANNED_KEYS; i++) {
+                cache.put("subject" + i, "schema");
+            }
+            assertTrue(engine.name(), cache.size() <= MAXIMUM_SIZE);
+            assertEquals(engine.name(), SCANNED_KEYS - cache.size(), cache.stats().evictionCount());
+        }
+    }
+
+    @Test
+    public void test_put_tinyLfuScanDoesNotEvictFrequentlyUsedEntries() {
+        final Cache<String, String> cache = CacheEngine.TINY_LFU.newCache(MAXIMUM_SIZE);
+        for (int access = 0; access < HOT_ACCESSES; access++) {
+            for (int i = 0; i < HOT_KEYS; i++) {
+                if (null == cache.getIfPresent("hot" + i)) {
+                    cache.put("hot" + i, "schema");
+                }
+            }
+        }
+        for (int i = 0; i < SCANNED_KEYS; i++) {
+            cache.put("scanned" + i, "schema");
+        }
+        int survivors = 0;
+        for (int i = 0; i < HOT_KEYS; i++) {
+            if (null != cache.getIfPresent("hot" + i)) {
+                survivors++;
+            }
+        }
+        assertTrue("Only " + survivors + " frequently used entries survived the scan", survivors >= HOT_KEYS * 9 / 10);
+    }
+
+    @Test
+    public void test_put_zeroMaximumSizeCachesNothing() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(0);
+            cache.put("subject", "schema");
+            assertNull(engine.name(), cache.getIfPresent("subject"));
+        }
+    }
+
+    @Test
+    public void test_put_weightedCacheStaysWithinMaximumWeight() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(MAXIMUM_SIZE, MAXIMUM_SIZE, LENGTH_WEIGHER);
+            for (int i = 0; i < SCANNED_KEYS; i++) {
+                cache.put("subject" + i, i % 2 == 0 ? "small" : "a much larger schema");
+                assertTrue(engine.name(), weight(cache) <= MAXIMUM_SIZE);
+            }
+            cache.put("huge", new String(new char[MAXIMUM_SIZE + 1]));
+            assertNull(engine.name(), cache.getIfPresent("huge"));
+        }
+    }
+
+    @Test
+    public void test_asMap_writesGoThroughCache() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(MAXIMUM_SIZE);
+            final Map<String, String> map = cache.asMap();
+
+            assertNull(map.put("subject", "schema"));
+            assertTrue(map.replace("subject", "schema", "newer schema"));
+            assertEquals(engine.name(), "newer schema", cache.getIfPresent("subject"));
+
+            assertTrue(map.keySet().remove("subject"));
+            assertNull(engine.name(), cache.getIfPresent("subject"));
+            assertEquals(engine.name(), 0, cache.size());
+
+            map.put("subject", "schema");
+            assertTrue(map.entrySet().remove(new AbstractMap.SimpleImmutableEntry<>("subject", "schema")));
+            assertNull(engine.name(), cache.getIfPresent("subject"));
+            assertEquals(engine.name(), 0, cache.size());
+        }
+    }
+
+    @Test
+    public void test_asMap_replaceKeepsWeightedCacheWithinMaximumWeight() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(MAXIMUM_SIZE, MAXIMUM_SIZE, LENGTH_WEIGHER);
+            for (int i = 0; i < MAXIMUM_SIZE / 5; i++) {
+                cache.put("subject" + i, "small");
+            }
+            for (int i = 0; i < MAXIMUM_SIZE / 5; i++) {
+                cache.asMap().replace("subject" + i, "small", "a much larger schema");
+                assertTrue(engine.name(), weight(cache) <= MAXIMUM_SIZE);
+            }
+        }
+    }
+
+    @Test
+    public void test_newCache_notifiesRemovalListener() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final List<RemovalCause> causes = new ArrayList<>();
+            final Cache<String, String> cache = engine.newCache(1, new RemovalListener<String, String>() {
+                @Override
+                public void onRemoval(final RemovalNotification<String, String> notification) {
+                    causes.add(notification.getCause());
+                }
+            });
+
+            cache.put("subject", "schema");
+            cache.put("subject", "newer schema");
+            cache.invalidate("subject");
+            cache.put("subject", "schema");
+            cache.put("other subject", "schema");
+            cache.cleanUp();
+
+            assertEquals(engine.name(), Arrays.asList(RemovalCause.REPLACED, RemovalCause.EXPLICIT, RemovalCause.SIZE), causes);
+        }
+    }
+
+    @Test
+    public void test_countBoundedWeigher_limitsEntriesOfWeightedCache() {
+        for (final CacheEngine engine : CacheEngine.values()) {
+            final Cache<String, String> cache = engine.newCache(MAXIMUM_SIZE, MAXIMUM_SIZE,
+                    SchemaWeighers.countBounded(LENGTH_WEIGHER, MAXIMUM_SIZE, HOT_KEYS / 10));
+            for (int i = 0; i < SCANNED_KEYS; i++) {
+                cache.put("subject" + i, "s");
+                assertTrue(engine.name(), cache.size() <= HOT_KEYS / 10);
+            }
+        }
+    }
+
+    private static long weight(final Cache<String, String> cache) {
+        long weight = 0;
+        for (final Map.Entry<String, String> entry : cache.asMap().entrySet()) {
+            weight += LENGTH_WEIGHER.weigh(entry.getKey(), entry.getValue());
+        }
+        return weight;
+    }
+}
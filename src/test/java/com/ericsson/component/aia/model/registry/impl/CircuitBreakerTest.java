@@ -0,0 +1,242 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+public class CircuitBreakerTest {
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(50, 1000, 4, 30000, 10000, ticker);
+
+    @Test
+    public void test_call_opensOnFailureRate() throws Exception {
+        call(answer());
+        failWith(new IOException("Connection refused"));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        try {
+            call(answer());
+            fail("Expected open circuit to reject the request");
+        } catch (final CircuitOpenException e) {
+            assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+    }
+
+    @Test
+    public void test_call_opensOnSlowCalls() throws Exception {
+        call(slowAnswer(2000));
+        call(slowAnswer(2000));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void test_call_clientErrorsAreNotCounted() throws Exception {
+        failWith(new RestClientException("Subject not found", 404, 40401));
+        failWith(new RestClientException("Invalid schema", 422, 42201));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        failWith(new RestClientException("Internal server error", 500, 50001));
+        failWith(new RestClientException("Internal server error", 500, 50001));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void test_call_goodProbeClosesCircuit() throws Exception {
+        failWith(new IOException("Connection refused"));
+        failWith(new IOException("Connection refused"));
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertEquals("answer", call(answer()));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void test_call_badProbeReopensCircuit() throws Exception {
+        failWith(new IOException("Connection refused"));
+        failWith(new IOException("Connection refused"));
+        ticker.advance(30, TimeUnit.SECONDS);
+        failWith(new IOException("Connection refused"));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        ticker.advance(29, TimeUnit.SECONDS);
+        try {
+            call(answer());
+            fail("Expected reopened circuit to reject the request");
+        } catch (final CircuitOpenException e) {
+            assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+    }
+
+    @Test
+    public void test_call_onlyProbeDecidesHalfOpenCircuit() throws Exception {
+        final CountDownLatch sent = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final IOException timeout = new IOException("Read timed out");
+        final Thread earlierCall = new Thread() {
+            @Override
+            public void run() {
+                failWith(timeout, failingOnceReleased(sent, release, timeout));
+            }
+        };
+        earlierCall.start();
+        sent.await(10, TimeUnit.SECONDS);
+        failWith(new IOException("Connection refused"));
+        failWith(new IOException("Connection refused"));
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertEquals("answer", call(new RegistryRequest<String>() {
+            @Override
+            public String send() throws IOException {
+                release.countDown();
+                joinUninterruptibly(earlierCall);
+                assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+                return "answer";
+            }
+        }));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void test_call_unansweredProbeReopensCircuit() throws Exception {
+        final CountDownLatch sent = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final IOException timeout = new IOException("Read timed out");
+        failWith(new IOException("Connection refused"));
+        failWith(new IOException("Connection refused"));
+        ticker.advance(30, TimeUnit.SECONDS);
+        final Thread hungProbe = new Thread() {
+            @Override
+            public void run() {
+                failWith(timeout, failingOnceReleased(sent, release, timeout));
+            }
+        };
+        hungProbe.start();
+        sent.await(10, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        ticker.advance(10, TimeUnit.SECONDS);
+        try {
+            call(answer());
+            fail("Expected reopened circuit to reject the request");
+        } catch (final CircuitOpenException e) {
+            assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        }
+        ticker.advance(30, TimeUnit.SECONDS);
+        assertEquals("answer", call(answer()));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        release.countDown();
+        joinUninterruptibly(hungProbe);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void test_call_zeroFailureRateNeverOpens() throws Exception {
+        final CircuitBreaker disabled = new CircuitBreaker(0, 1000, 4, 30000, 10000, ticker);
+        for (int i = 0; i < 10; i++) {
+            try {
+                disabled.call(failing(new IOException("Connection refused")));
+                fail("Expected request failure");
+            } catch (final CircuitOpenException e) {
+                fail("Expected disabled circuit to send the request");
+            } catch (final IOException e) {
+                assertEquals(CircuitBreaker.State.CLOSED, disabled.getState());
+            }
+        }
+    }
+
+    private String call(final RegistryRequest<String> request) throws IOException, RestClientException {
+        return circuitBreaker.call(request);
+    }
+
+    private void failWith(final Exception exception) {
+        failWith(exception, failing(exception));
+    }
+
+    private void failWith(final Exception exception, final RegistryRequest<String> request) {
+        try {
+            call(request);
+            fail("Expected request failure");
+        } catch (final IOException | RestClientException e) {
+            assertSame(exception, e);
+        }
+    }
+
+    private static void joinUninterruptibly(final Thread thread) {
+        try {
+            thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private RegistryRequest<String> answer() {
+        return slowAnswer(0);
+    }
+
+    private RegistryRequest<String> slowAnswer(final long latencyMillis) {
+        return new RegistryRequest<String>() {
+            @Override
+            public String send() {
+                ticker.advance(latencyMillis, TimeUnit.MILLISECONDS);
+                return "answer";
+            }
+        };
+    }
+
+    private static RegistryRequest<String> failingOnceReleased(final CountDownLatch sent, final CountDownLatch release, final IOException exception) {
+        return new RegistryRequest<String>() {
+            @Override
+            public String send() throws IOException {
+                sent.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw exception;
+            }
+        };
+    }
+
+    private static RegistryRequest<String> failing(final Exception exception) {
+        return new RegistryRequest<String>() {
+            @Override
+            public String send() throws IOException, RestClientException {
+                if (exception instanceof IOException) {
+                    throw (IOException) exception;
+                }
+                throw (RestClientException) exception;
+            }
+        };
+    }
+
+    private static final class FakeTicker extends Ticker {
+
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long duration, final TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+}
@@ -13,12 +13,18 @@ package com.ericsson.component.aia.model.registry.impl;
 
 import static com.ericsson.component.aia.model.registry.testutils.TestConstants.*;
 import static com.ericsson.component.aia.model.registry.testutils.TestUtil.createFileBasedSchemaRegistryClient;
+import static com.ericsson.component.aia.model.registry.utils.Constants.FILE_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_ADDRESS_PARAMETER;
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER;
 import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.avro.Schema;
 import org.junit.Before;
@@ -107,6 +113,40 @@ public class FileBasedSchemaRegistryClientTest {
         assertEquals(new Schema.Parser().parse(fourthLevelSchemaFile), fourthLevelSchema);
     }
 
+    @Test
+    public void test_lookupRaw_validSchemaId() throws SchemaRetrievalException, IOException {
+        //Given a FileBasedSchemaRegistryClient with a populated schema cache
+        //When attempting to look up the raw JSON of a schema using a valid schema id
+        final byte[] rawSchema = client.lookupRaw(SAMPLE_SCHEMA_ID);
+
+        //Then the JSON parses to the correct schema
+        assertEquals(new Schema.Parser().parse(sampleSchemaFile), new Schema.Parser().parse(new String(rawSchema, "UTF-8")));
+    }
+
+    @Test
+    public void test_lookup_schemasHeldOffHeap() throws SchemaRetrievalException, SchemaRegistrationException, IOException {
+        //Given a FileBasedSchemaRegistryClient holding its schemas off-heap with a hot set of one parsed schema
+        final Properties properties = new Properties();
+        properties.put(SCHEMA_REGISTRY_ADDRESS_PARAMETER, sampleSchemaFile.getParent());
+        properties.put(SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER, "1m");
+        properties.put(FILE_SCHEMA_REGISTRY_CLIENT_HOT_TIER_MAX_SIZE_PARAMETER, "1");
+        final FileBasedSchemaRegistryClient offHeapClient = new FileBasedSchemaRegistryClient(properties);
+
+        //When looking up schemas by id, by subject and as raw JSON, and registering a new schema
+        final Schema sampleSchema = offHeapClient.lookup(SAMPLE_SCHEMA_ID);
+        final Schema fourthLevelSchema = offHeapClient.lookup(FOURTH_LEVEL_SCHEMA_ID);
+        final byte[] rawSchema = offHeapClient.lookupRaw(SAMPLE_SCHEMA_ID);
+        final long newSchemaId = offHeapClient.put(new Schema.Parser().parse(newSchemaFile));
+
+        //Then the schemas parsed from off-heap JSON are the loaded schemas
+        assertEquals(new Schema.Parser().parse(sampleSchemaFile), sampleSchema);
+        assertEquals(new Schema.Parser().parse(fourthLevelSchemaFile), fourthLevelSchema);
+        assertEquals(sampleSchema, new Schema.Parser().parse(new String(rawSchema, "UTF-8")));
+        assertEquals(sampleSchema, offHeapClient.lookup(SAMPLE_SCHEMA1_SUBJECT).getSchema());
+        assertEquals(new Schema.Parser().parse(newSchemaFile), offHeapClient.lookup(newSchemaId));
+        assertEquals(4, offHeapClient.getSchemaCache().size());
+    }
+
     @Test(expected = SchemaRetrievalException.class)
     public void test_getSchemaById_invalidSchemaId() throws SchemaRetrievalException {
         //Given a FileBasedSchemaRegistryClient with a populated schema cache
@@ -139,6 +179,24 @@ public class FileBasedSchemaRegistryClientTest {
         assertEquals("Schema are identical", sampleSchema, client.lookup(newSchemaId));
     }
 
+    @Test
+    public void test_idFor_registeredSchema() throws SchemaRetrievalException, IOException {
+        //Given a FileBasedSchemaRegistryClient with a populated schema cache
+        //When asking for the id of a freshly parsed copy of a loaded schema
+        final long schemaId = client.idFor(new Schema.Parser().parse(sampleSchemaFile));
+
+        //Then the schema id of the loaded schema will be returned
+        assertEquals(SAMPLE_SCHEMA_ID, schemaId);
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_idFor_unregisteredSchema() throws SchemaRetrievalException, IOException {
+        //Given a FileBasedSchemaRegistryClient with a populated schema cache
+        //When asking for the id of a schema that has not been registered
+        //Then a SchemaRetrievalException will be thrown
+        client.idFor(new Schema.Parser().parse(newSchemaFile));
+    }
+
     @Test
     public void test_getSchemaBySubject_validSubject() throws SchemaRetrievalException {
         //Given a FileBasedSchemaRegistryClient with a populated schema cache
@@ -151,6 +209,47 @@ public class FileBasedSchemaRegistryClientTest {
         assertEquals(SAMPLE_SCHEMA_ID, retrievedSchema.getSchemaId());
     }
 
+    @Test
+    public void test_getSchemaBySubjectAndVersion_firstVersion() throws SchemaRetrievalException {
+        //Given a FileBasedSchemaRegistryClient with a populated schema cache
+        //When listing the versions of a subject and looking up its first version
+        final RegisteredSchema retrievedSchema = client.lookup(SAMPLE_SCHEMA1_SUBJECT, 1);
+
+        //Then the only version is returned
+        assertEquals(Arrays.asList(1), client.versions(SAMPLE_SCHEMA1_SUBJECT));
+        assertEquals(SAMPLE_SCHEMA_ID, retrievedSchema.getSchemaId());
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_getSchemaBySubjectAndVersion_unknownVersion() throws SchemaRetrievalException {
+        //Given a FileBasedSchemaRegistryClient with a populated schema cache
+        //When looking up a version other than the first one
+        //Then a SchemaRetrievalException will be thrown
+        client.lookup(SAMPLE_SCHEMA1_SUBJECT, 2);
+    }
+
+    @Test
+    public void test_subjectOf_loadedAndRegisteredSchemas() throws SchemaRetrievalException, IOException {
+        //Given a FileBasedSchemaRegistryClient with a populated schema cache
+        //When registering a new schema
+        final Schema newSchema = new Schema.Parser().parse(newSchemaFile);
+        final long newSchemaId = client.put(newSchema);
+
+        //Then the subjects of the loaded and registered schemas are found by schema id
+        assertEquals(new SubjectVersion(SAMPLE_SCHEMA1_SUBJECT, 1), client.subjectOf(SAMPLE_SCHEMA_ID));
+        assertEquals(new SubjectVersion(newSchema.getFullName(), 1), client.subjectOf(newSchemaId));
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_subjectOf_invalidSchemaId() throws SchemaRetrievalException {
+        client.subjectOf(INVALID_SCHEMA_ID);
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_versions_invalidSubject() throws SchemaRetrievalException {
+        client.versions(INVALID_SUBJECT);
+    }
+
     @Test(expected = SchemaRetrievalException.class)
     public void test_getSchemaBySubject_invalidSubject() throws SchemaRetrievalException {
         //Given a FileBasedSchemaRegistryClient with a populated schema cache
@@ -158,4 +257,63 @@ public class FileBasedSchemaRegistryClientTest {
         //Then a SchemaRetrievalException will be thrown
         client.lookup(INVALID_SUBJECT);
     }
+
+    @Test
+    public void test_getSchemaBySubject_unknownSubjectIsFoundOnceRegistered() throws SchemaRetrievalException, IOException {
+        //Given a FileBasedSchemaRegistryClient which has already reported a subject as unknown
+        final Schema newSchema = new Schema.Parser().parse(newSchemaFile);
+        try {
+            client.lookup(newSchema.getFullName());
+            fail("Subject should not be found before it is registered");
+        } catch (final SchemaRetrievalException e) {
+            //expected
+        }
+
+        //When the schema for that subject is registered
+        client.put(newSchema);
+
+        //Then the subject is no longer reported as unknown
+        assertEquals(newSchema, client.lookup(newSchema.getFullName()).getSchema());
+    }
+
+    @Test
+    public void test_lookupAsync_validSchemaIdCompletesImmediately() throws Exception {
+        final CompletableFuture<Schema> future = client.lookupAsync(SAMPLE_SCHEMA_ID);
+        assertTrue(future.isDone());
+        assertEquals(SAMPLE_SCHEMA1_SUBJECT, future.get().getFullName());
+    }
+
+    @Test
+    public void test_lookupAsync_invalidSubjectCompletesExceptionally() throws InterruptedException {
+        final CompletableFuture<RegisteredSchema> future = client.lookupAsync(INVALID_SUBJECT);
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("Expected lookup of an invalid subject to fail");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof SchemaRetrievalException);
+        }
+    }
+
+    @Test
+    public void test_putAsync_newSchema() throws Exception {
+        final Schema newSchema = new Schema.Parser().parse(newSchemaFile);
+        final long schemaId = client.putAsync(newSchema).get();
+        assertEquals(newSchema, client.lookup(schemaId));
+    }
+
+    @Test
+    public void test_lookupAll_reportsUnknownIdsWithoutFailingBatch() {
+        final LookupResults<Long, Schema> results = client.lookupAll(Arrays.asList(SAMPLE_SCHEMA_ID, FOURTH_LEVEL_SCHEMA_ID, INVALID_SCHEMA_ID));
+        assertEquals(2, results.getFound().size());
+        assertEquals(FOURTH_LEVEL_SCHEMA_SUBJECT, results.getFound().get(FOURTH_LEVEL_SCHEMA_ID).getFullName());
+        assertTrue(results.getFailures().containsKey(INVALID_SCHEMA_ID));
+    }
+
+    @Test
+    public void test_lookupAllSubjects() {
+        final LookupResults<String, RegisteredSchema> results = client.lookupAllSubjects(Arrays.asList(SAMPLE_SCHEMA1_SUBJECT, INVALID_SUBJECT));
+        assertEquals(SAMPLE_SCHEMA_ID, results.getFound().get(SAMPLE_SCHEMA1_SUBJECT).getSchemaId());
+        assertTrue(results.getFailures().containsKey(INVALID_SUBJECT));
+    }
 }
@@ -0,0 +1,166 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+
+public class LazyRegisteredSchemaTest {
+
+    private static final long SCHEMA_ID = 42L;
+    private static final int CALLERS = 8;
+    private static final String SCHEMA_JSON = "{\"type\":\"record\",\"name\":\"Event\",\"namespace\":\"celltrace\",\"fields\":["
+            + "{\"name\":\"_ID\",\"type\":\"int\",\"default\":5211}]}";
+
+    private final AtomicInteger parses = new AtomicInteger();
+    private final RawSchemaParser countingParser = new RawSchemaParser() {
+        @Override
+        public Schema parse(final long schemaId, final byte[] rawSchema) {
+            parses.incrementAndGet();
+            return new Schema.Parser().parse(new String(rawSchema, UTF_8));
+        }
+    };
+
+    @Test
+    public void test_getSchema_parsesOnFirstAccessOnly() {
+        final LazyRegisteredSchema registeredSchema = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.getBytes(UTF_8), countingParser);
+        assertEquals(SCHEMA_ID, registeredSchema.getSchemaId());
+        assertFalse(registeredSchema.isParsed());
+        assertEquals(0, parses.get());
+
+        final Schema schema = registeredSchema.getSchema();
+
+        assertTrue(registeredSchema.isParsed());
+        assertSame(schema, registeredSchema.getSchema());
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void test_getSchema_concurrentCallersParseOnce() throws Exception {
+        final LazyRegisteredSchema registeredSchema = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.getBytes(UTF_8), countingParser);
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Schema>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(new Callable<Schema>() {
+                    @Override
+                    public Schema call() throws InterruptedException {
+                        start.await();
+                        return registeredSchema.getSchema();
+                    }
+                }));
+            }
+            start.countDown();
+            for (final Future<Schema> result : results) {
+                assertSame(registeredSchema.getSchema(), result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, parses.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_getRawSchema_returnsCopy() {
+        final byte[] rawSchema = SCHEMA_JSON.getBytes(UTF_8);
+        final LazyRegisteredSchema registeredSchema = new LazyRegisteredSchema(SCHEMA_ID, rawSchema);
+        rawSchema[0] = ' ';
+
+        final byte[] copy = registeredSchema.getRawSchema();
+        copy[1] = ' ';
+
+        assertEquals(SCHEMA_JSON, new String(registeredSchema.getRawSchema(), UTF_8));
+    }
+
+    @Test
+    public void test_equals_matchesEagerRegisteredSchema() {
+        final Schema schema = new Schema.Parser().parse(SCHEMA_JSON);
+        final RegisteredSchema eager = new RegisteredSchema(SCHEMA_ID, schema);
+        final RegisteredSchema lazy = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.getBytes(UTF_8));
+
+        assertEquals(eager, lazy);
+        assertEquals(lazy, eager);
+        assertEquals(eager.hashCode(), lazy.hashCode());
+    }
+
+    @Test
+    public void test_equals_isTransitiveAcrossJsonFormatting() {
+        final RegisteredSchema eager = new RegisteredSchema(SCHEMA_ID, new Schema.Parser().parse(SCHEMA_JSON));
+        final RegisteredSchema lazy = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.getBytes(UTF_8));
+        final RegisteredSchema reformattedLazy = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.replace(",", ", ").getBytes(UTF_8));
+
+        assertEquals(lazy, eager);
+        assertEquals(eager, reformattedLazy);
+        assertEquals(lazy, reformattedLazy);
+        assertEquals(reformattedLazy, lazy);
+    }
+
+    @Test
+    public void test_equalsAndHashCode_doNotParse() {
+        final LazyRegisteredSchema registeredSchema = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.getBytes(UTF_8), countingParser);
+        final LazyRegisteredSchema sameSchema = new LazyRegisteredSchema(SCHEMA_ID, SCHEMA_JSON.getBytes(UTF_8), countingParser);
+        final LazyRegisteredSchema otherId = new LazyRegisteredSchema(SCHEMA_ID + 1, SCHEMA_JSON.getBytes(UTF_8), countingParser);
+
+        assertEquals(registeredSchema, sameSchema);
+        assertEquals(registeredSchema.hashCode(), sameSchema.hashCode());
+        assertFalse(registeredSchema.equals(otherId));
+
+        assertFalse(registeredSchema.isParsed());
+        assertFalse(sameSchema.isParsed());
+        assertEquals(0, parses.get());
+    }
+
+    @Test
+    public void test_offHeapRegisteredSchema_readsJsonFromArena() throws Exception {
+        final OffHeapSchemaArena arena = new OffHeapSchemaArena(1024);
+        final byte[] rawSchema = SCHEMA_JSON.getBytes(UTF_8);
+        assertTrue(arena.put(SCHEMA_ID, rawSchema));
+        final LazyRegisteredSchema registeredSchema = new OffHeapRegisteredSchema(SCHEMA_ID, rawSchema.length, arena, countingParser);
+
+        assertFalse(registeredSchema.isRawSchemaOnHeap());
+        assertEquals(rawSchema.length, registeredSchema.getRawSchemaLength());
+        assertEquals(SCHEMA_JSON, new String(registeredSchema.getRawSchema(), UTF_8));
+        assertEquals(new LazyRegisteredSchema(SCHEMA_ID, rawSchema), registeredSchema);
+        assertEquals(0, parses.get());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(registeredSchema);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final LazyRegisteredSchema copy = (LazyRegisteredSchema) input.readObject();
+            assertTrue(copy.isRawSchemaOnHeap());
+            assertEquals(registeredSchema, copy);
+        }
+
+        assertEquals(new Schema.Parser().parse(SCHEMA_JSON), registeredSchema.getSchema());
+        assertEquals(1, parses.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_LazyRegisteredSchema_nullRawSchema() {
+        new LazyRegisteredSchema(SCHEMA_ID, null);
+    }
+}
@@ -0,0 +1,59 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+
+public class NegativeCacheTest {
+
+    private static final String SUBJECT = "com.ericsson.oss.avro.example.UnknownSchema";
+    private static final String MESSAGE = "No schema exists with subject name: " + SUBJECT;
+
+    @Test
+    public void test_checkNotMissing_unknownKeyPasses() throws SchemaRetrievalException {
+        final NegativeCache<String> cache = new NegativeCache<>(10, 60);
+        cache.checkNotMissing(SUBJECT);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void test_checkNotMissing_recordedMissFailsWithoutStackTrace() {
+        final NegativeCache<String> cache = new NegativeCache<>(10, 60);
+        cache.recordMiss(SUBJECT, MESSAGE);
+        try {
+            cache.checkNotMissing(SUBJECT);
+            fail("Expected recorded miss to be reported");
+        } catch (final SchemaRetrievalException e) {
+            assertEquals(MESSAGE, e.getMessage());
+            assertEquals(0, e.getStackTrace().length);
+        }
+    }
+
+    @Test
+    public void test_invalidate_forgetsMiss() throws SchemaRetrievalException {
+        final NegativeCache<String> cache = new NegativeCache<>(10, 60);
+        cache.recordMiss(SUBJECT, MESSAGE);
+        cache.invalidate(SUBJECT);
+        cache.checkNotMissing(SUBJECT);
+    }
+
+    @Test
+    public void test_recordMiss_zeroTtlDisablesCaching() throws SchemaRetrievalException {
+        final NegativeCache<String> cache = new NegativeCache<>(10, 0);
+        cache.recordMiss(SUBJECT, MESSAGE);
+        cache.checkNotMissing(SUBJECT);
+    }
+}
@@ -0,0 +1,73 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class OffHeapSchemaArenaTest {
+
+    private static final byte[] RAW_SCHEMA = "{\"type\":\"record\",\"name\":\"Foo\",\"fields\":[]}".getBytes(UTF_8);
+
+    @Test
+    public void test_get_returnsPutSchema() {
+        final OffHeapSchemaArena arena = new OffHeapSchemaArena(1024);
+
+        assertTrue(arena.put(1L, RAW_SCHEMA));
+        assertTrue(arena.put(Long.MIN_VALUE, RAW_SCHEMA));
+
+        assertArrayEquals(RAW_SCHEMA, arena.get(1L));
+        assertArrayEquals(RAW_SCHEMA, arena.get(Long.MIN_VALUE));
+        assertNull(arena.get(2L));
+        assertEquals(2, arena.size());
+        assertEquals(2 * (4 + RAW_SCHEMA.length), arena.bytes());
+        assertEquals(1024, arena.allocatedBytes());
+    }
+
+    @Test
+    public void test_put_refusedWhenBudgetIsUsedUp() {
+        final OffHeapSchemaArena arena = new OffHeapSchemaArena(4 + RAW_SCHEMA.length);
+
+        assertTrue(arena.put(1L, RAW_SCHEMA));
+        assertFalse(arena.put(2L, RAW_SCHEMA));
+
+        assertTrue(arena.put(1L, RAW_SCHEMA));
+        assertNull(arena.get(2L));
+        assertEquals(1, arena.evictionCount());
+    }
+
+    @Test
+    public void test_clear() {
+        final OffHeapSchemaArena arena = new OffHeapSchemaArena(1024);
+        arena.put(1L, RAW_SCHEMA);
+
+        arena.clear();
+
+        assertNull(arena.get(1L));
+        assertEquals(0, arena.size());
+        assertTrue(arena.put(2L, RAW_SCHEMA));
+    }
+
+    @Test
+    public void test_fromProperties_disabledByDefault() {
+        assertNull(OffHeapSchemaArena.fromProperties(new Properties()));
+
+        final Properties properties = new Properties();
+        properties.put(SCHEMA_REGISTRY_OFF_HEAP_MAX_BYTES_PARAMETER, "1m");
+        assertNotNull(OffHeapSchemaArena.fromProperties(properties));
+    }
+}
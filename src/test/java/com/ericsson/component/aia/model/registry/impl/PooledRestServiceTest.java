@@ -0,0 +1,321 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+public class PooledRestServiceTest {
+
+    private static final String SCHEMA_ANSWER = "{\"schema\":\"\\\"int\\\"\"}";
+    private static final String SERVER_ERROR_ANSWER = "{\"error_code\":50001,\"message\":\"Error in the backend data store\"}";
+    private static final String NOT_FOUND_ANSWER = "{\"error_code\":40403,\"message\":\"Schema not found\"}";
+
+    private static final String REGISTERED_ANSWER = "{\"id\":7}";
+    private static final String LARGE_SCHEMA_REQUEST = "{\"schema\":\"" + Strings.repeat("{\\\"type\\\":\\\"int\\\"}", 20) + "\"}";
+    private static final TypeReference<Map<String, Integer>> REGISTERED_FORMAT = new TypeReference<Map<String, Integer>>() {
+    };
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> requestBodies = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> requestEncodings = Collections.synchronizedList(new ArrayList<String>());
+    private volatile int compressedBodyRejectionStatus;
+    private HttpServer server;
+    private HttpServer otherServer;
+
+    @Before
+    public void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/schemas/ids/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                final boolean known = exchange.getRequestURI().getPath().endsWith("/1");
+                final byte[] answer = (known ? SCHEMA_ANSWER : NOT_FOUND_ANSWER).getBytes(UTF_8);
+                exchange.sendResponseHeaders(known ? 200 : 404, answer.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(answer);
+                }
+            }
+        });
+        server.createContext("/compressed/schemas/ids/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                final boolean gzipAccepted = String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+                final byte[] answer = gzipAccepted ? gzip(SCHEMA_ANSWER.getBytes(UTF_8)) : NOT_FOUND_ANSWER.getBytes(UTF_8);
+                if (gzipAccepted) {
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                }
+                exchange.sendResponseHeaders(gzipAccepted ? 200 : 404, answer.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(answer);
+                }
+            }
+        });
+        server.createContext("/subjects/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                requestEncodings.add(String.valueOf(encoding));
+                final boolean rejected = 0 != compressedBodyRejectionStatus && "gzip".equals(encoding);
+                final byte[] requestBody = ByteStreams.toByteArray(exchange.getRequestBody());
+                if (!rejected) {
+                    requestBodies.add(new String("gzip".equals(encoding) ? gunzip(requestBody) : requestBody, UTF_8));
+                }
+                final byte[] answer = (rejected ? "{\"error_code\":" + compressedBodyRejectionStatus + ",\"message\":\"Unreadable body\"}"
+                        : REGISTERED_ANSWER).getBytes(UTF_8);
+                exchange.sendResponseHeaders(rejected ? compressedBodyRejectionStatus : 200, answer.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(answer);
+                }
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void after() {
+        server.stop(0);
+        if (null != otherServer) {
+            otherServer.stop(0);
+        }
+    }
+
+    @Test
+    public void test_getId_reusesConnection() throws IOException, RestClientException {
+        final PooledRestService restService = newRestService(getServerUrl());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("\"int\"", restService.getId(1).getSchemaString());
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void test_getId_errorAnswerIsReportedAndConnectionKept() throws IOException, RestClientException {
+        final PooledRestService restService = newRestService(getServerUrl());
+        try {
+            restService.getId(2);
+            fail("Expected unknown schema id to be reported");
+        } catch (final RestClientException e) {
+            assertEquals(404, e.getStatus());
+            assertEquals(40403, e.getErrorCode());
+        }
+        assertEquals("\"int\"", restService.getId(1).getSchemaString());
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void test_getId_failsOverToAvailableInstance() throws IOException, RestClientException {
+        final PooledRestService restService = newRestService("http://localhost:1," + getServerUrl());
+        assertEquals("\"int\"", restService.getId(1).getSchemaString());
+    }
+
+    @Test
+    public void test_getId_failsOverOnServerError() throws IOException, RestClientException {
+        otherServer = newServer(500, 0);
+        final RegistryInstances instances = newInstances(getUrl(otherServer) + "," + getServerUrl());
+        final PooledRestService restService = newRestService(getUrl(otherServer) + "," + getServerUrl(), instances);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("\"int\"", restService.getId(1).getSchemaString());
+        }
+        assertEquals(getServerUrl(), instances.ranked().get(0));
+    }
+
+    @Test
+    public void test_getId_withoutFailOverSendsEachAttemptToOneInstance() throws IOException, RestClientException {
+        final String registryUrlString = "http://localhost:1," + getServerUrl();
+        final RegistryInstances instances = newInstances(registryUrlString);
+        final PooledRestService restService = new PooledRestService(registryUrlString, 1000, 5000, 1000, 2, 64, instances, false);
+        try {
+            restService.getId(1);
+            fail("Expected the unreachable instance to be reported");
+        } catch (final IOException e) {
+            assertTrue(clientPorts.isEmpty());
+        }
+        assertEquals("\"int\"", restService.getId(1).getSchemaString());
+    }
+
+    @Test
+    public void test_getId_slowReadIsHedgedToNextInstance() throws IOException, RestClientException {
+        otherServer = newServer(200, 3000);
+        final String registryUrlString = getUrl(otherServer) + "," + getServerUrl();
+        final RegistryInstances instances = newInstances(registryUrlString);
+        for (int i = 0; i < 20; i++) {
+            instances.onStart(getServerUrl());
+            instances.onAnswer(getServerUrl(), TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        final long startNanos = System.nanoTime();
+        assertEquals("\"int\"", newRestService(registryUrlString, instances).getId(1).getSchemaString());
+        assertTrue(System.nanoTime() - startNanos < TimeUnit.MILLISECONDS.toNanos(1500));
+    }
+
+    @Test
+    public void test_getId_hedgedReadReleasesLosingConnection() throws IOException, RestClientException {
+        otherServer = newServer(200, 3000);
+        final String registryUrlString = getUrl(otherServer) + "," + getServerUrl();
+        final RegistryInstances instances = newInstances(registryUrlString);
+        for (int i = 0; i < 20; i++) {
+            instances.onStart(getServerUrl());
+            instances.onAnswer(getServerUrl(), TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        final PooledRestService restService = newRestService(registryUrlString, instances);
+        for (int i = 0; i < 4; i++) {
+            final long startNanos = System.nanoTime();
+            assertEquals("\"int\"", restService.getId(1).getSchemaString());
+            assertTrue(System.nanoTime() - startNanos < TimeUnit.MILLISECONDS.toNanos(750));
+        }
+    }
+
+    @Test
+    public void test_close_readsAreNoLongerHedged() throws IOException, RestClientException {
+        final String registryUrlString = "http://localhost:1," + getServerUrl();
+        final RegistryInstances instances = newInstances(registryUrlString);
+        for (int i = 0; i < 20; i++) {
+            instances.onStart(getServerUrl());
+            instances.onAnswer(getServerUrl(), TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        final PooledRestService restService = newRestService(registryUrlString, instances);
+        restService.close();
+        assertEquals("\"int\"", restService.getId(1).getSchemaString());
+    }
+
+    @Test
+    public void test_getId_inflatesCompressedAnswer() throws IOException, RestClientException {
+        final PooledRestService restService = newRestService(getServerUrl() + "/compressed");
+        for (int i = 0; i < 3; i++) {
+            assertEquals("\"int\"", restService.getId(1).getSchemaString());
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void test_httpRequest_compressesLargeBody() throws IOException, RestClientException {
+        final PooledRestService restService = newRestService(getServerUrl());
+        assertEquals(Integer.valueOf(7), post(restService, LARGE_SCHEMA_REQUEST).get("id"));
+        assertEquals(Integer.valueOf(7), post(restService, "{\"schema\":\"\\\"int\\\"\"}").get("id"));
+        assertEquals(Arrays.asList("gzip", "null"), requestEncodings);
+        assertEquals(LARGE_SCHEMA_REQUEST, requestBodies.get(0));
+    }
+
+    @Test
+    public void test_httpRequest_rejectedCompressionFallsBackToUncompressedBody() throws IOException, RestClientException {
+        for (final int status : new int[] { 415, 422, 500 }) {
+            compressedBodyRejectionStatus = status;
+            requestEncodings.clear();
+            requestBodies.clear();
+            final PooledRestService restService = newRestService(getServerUrl());
+            assertEquals(Integer.valueOf(7), post(restService, LARGE_SCHEMA_REQUEST).get("id"));
+            assertEquals(Integer.valueOf(7), post(restService, LARGE_SCHEMA_REQUEST).get("id"));
+            assertEquals(Arrays.asList("gzip", "null", "null"), requestEncodings);
+            assertEquals(Arrays.asList(LARGE_SCHEMA_REQUEST, LARGE_SCHEMA_REQUEST), requestBodies);
+        }
+    }
+
+    @Test
+    public void test_httpRequest_errorAfterAcceptedCompressionIsNotRetried() throws IOException, RestClientException {
+        final PooledRestService restService = newRestService(getServerUrl());
+        assertEquals(Integer.valueOf(7), post(restService, LARGE_SCHEMA_REQUEST).get("id"));
+        compressedBodyRejectionStatus = 422;
+        try {
+            post(restService, LARGE_SCHEMA_REQUEST);
+            fail("Expected the rejected body to be reported");
+        } catch (final RestClientException e) {
+            assertEquals(422, e.getStatus());
+        }
+        assertEquals(Arrays.asList("gzip", "gzip"), requestEncodings);
+    }
+
+    private static Map<String, Integer> post(final PooledRestService restService, final String requestBody)
+            throws IOException, RestClientException {
+        return restService.httpRequest("/subjects/foo.Bar/versions", "POST", requestBody.getBytes(UTF_8),
+                Collections.singletonMap("Content-Type", "application/vnd.schemaregistry.v1+json"), REGISTERED_FORMAT);
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(final byte[] data) throws IOException {
+        return ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private HttpServer newServer(final int status, final long delayMillis) throws IOException {
+        final HttpServer newServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        newServer.createContext("/schemas/ids/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                final byte[] answer = (200 == status ? SCHEMA_ANSWER : SERVER_ERROR_ANSWER).getBytes(UTF_8);
+                exchange.sendResponseHeaders(status, answer.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(answer);
+                }
+            }
+        });
+        newServer.start();
+        return newServer;
+    }
+
+    private static PooledRestService newRestService(final String registryUrlString) {
+        return newRestService(registryUrlString, newInstances(registryUrlString));
+    }
+
+    private static PooledRestService newRestService(final String registryUrlString, final RegistryInstances instances) {
+        return new PooledRestService(registryUrlString, 1000, 5000, 1000, 2, 64, instances, true);
+    }
+
+    private static RegistryInstances newInstances(final String registryUrlString) {
+        return new RegistryInstances(RegistryInstances.parseBaseUrls(registryUrlString), 95, 3, 30000, Ticker.systemTicker());
+    }
+
+    private String getServerUrl() {
+        return getUrl(server);
+    }
+
+    private static String getUrl(final HttpServer httpServer) {
+        return "http://localhost:" + httpServer.getAddress().getPort();
+    }
+}
@@ -0,0 +1,98 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class RefreshAheadTest {
+
+    private static final String SUBJECT = "com.ericsson.oss.avro.example.SampleSchema";
+    private static final long REFRESH_AFTER_MILLIS = 20L;
+
+    private final List<String> refreshed = new ArrayList<>();
+    private final RefreshAhead.Refresher<String> refresher = new RefreshAhead.Refresher<String>() {
+        @Override
+        public void refresh(final String key) {
+            refreshed.add(key);
+        }
+    };
+
+    @Test
+    public void test_onRead_beforeDeadlineDoesNotRefresh() {
+        final RefreshAhead<String> refreshAhead = new RefreshAhead<>(60000L, 0, MoreExecutors.directExecutor(), refresher);
+        refreshAhead.onWrite(SUBJECT);
+        refreshAhead.onRead(SUBJECT);
+        assertTrue(refreshed.isEmpty());
+    }
+
+    @Test
+    public void test_onRead_afterDeadlineRefreshesOnce() throws InterruptedException {
+        final List<Runnable> queued = new ArrayList<>();
+        final RefreshAhead<String> refreshAhead = new RefreshAhead<>(REFRESH_AFTER_MILLIS, 0, new Executor() {
+            @Override
+            public void execute(final Runnable command) {
+                queued.add(command);
+            }
+        }, refresher);
+        refreshAhead.onWrite(SUBJECT);
+        Thread.sleep(REFRESH_AFTER_MILLIS * 2);
+
+        refreshAhead.onRead(SUBJECT);
+        refreshAhead.onRead(SUBJECT);
+        assertEquals("Only one refresh should be scheduled while one is in flight", 1, queued.size());
+
+        queued.get(0).run();
+        assertEquals(1, refreshed.size());
+        refreshAhead.onRead(SUBJECT);
+        assertEquals("Refresh deadline should restart after a refresh", 1, queued.size());
+    }
+
+    @Test
+    public void test_onRead_unknownKeyDoesNotRefresh() {
+        final RefreshAhead<String> refreshAhead = new RefreshAhead<>(REFRESH_AFTER_MILLIS, 0, MoreExecutors.directExecutor(), refresher);
+        refreshAhead.onRead(SUBJECT);
+        assertTrue(refreshed.isEmpty());
+    }
+
+    @Test
+    public void test_close_shutsDownExecutorAndForgetsKeys() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final RefreshAhead<String> refreshAhead = new RefreshAhead<>(REFRESH_AFTER_MILLIS, 0, executor, refresher);
+        refreshAhead.onWrite(SUBJECT);
+
+        refreshAhead.close();
+        Thread.sleep(REFRESH_AFTER_MILLIS * 2);
+        refreshAhead.onRead(SUBJECT);
+
+        assertTrue(executor.isShutdown());
+        assertTrue(refreshed.isEmpty());
+    }
+
+    @Test
+    public void test_onRead_disabledDoesNotRefresh() throws InterruptedException {
+        final RefreshAhead<String> refreshAhead = new RefreshAhead<>(0L, 0, MoreExecutors.directExecutor(), refresher);
+        assertFalse(refreshAhead.isEnabled());
+        refreshAhead.onWrite(SUBJECT);
+        refreshAhead.onRead(SUBJECT);
+        assertTrue(refreshed.isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.utils.RabinHashFunction;
+
+public class RegisteredSchemaIndexTest {
+
+    private static final String RECORD = "{\"type\":\"record\",\"name\":\"Event\",\"namespace\":\"com.ericsson.test\","
+            + "\"fields\":[{\"name\":\"_ID\",\"type\":\"int\"}]}";
+    private static final String DOCUMENTED_RECORD = "{\"type\":\"record\",\"name\":\"Event\",\"namespace\":\"com.ericsson.test\","
+            + "\"fields\":[{\"name\":\"_ID\",\"type\":\"int\",\"doc\":\"event id\"}]}";
+
+    private static final String COLLIDING_RECORD = "{\"type\":\"record\",\"name\":\"INTERNAL_EVENT_X\",\"namespace\":\"celltrace\","
+            + "\"fields\":[{\"name\":\"EVENT_PARAM_ALPHA_VALUE\",\"type\":\"int\"}]}";
+
+    private final RegisteredSchemaIndex index = new RegisteredSchemaIndex(CacheEngine.LRU, 10);
+
+    @Test
+    public void test_canonicalJson_equalSchemasShareCanonicalJson() {
+        final Schema schema = new Schema.Parser().parse(RECORD);
+        final Schema copy = new Schema.Parser().parse(RECORD);
+        assertEquals(index.canonicalJson(schema), index.canonicalJson(copy));
+        assertSame(index.canonicalJson(schema), index.canonicalJson(schema));
+    }
+
+    @Test
+    public void test_canonicalJson_documentationChangesCanonicalJson() {
+        final String canonicalJson = index.canonicalJson(new Schema.Parser().parse(RECORD));
+        assertFalse(canonicalJson.equals(index.canonicalJson(new Schema.Parser().parse(DOCUMENTED_RECORD))));
+    }
+
+    @Test
+    public void test_getSchemaId_answersRecordedSchema() {
+        final String canonicalJson = index.canonicalJson(new Schema.Parser().parse(RECORD));
+        assertNull(index.getSchemaId(canonicalJson));
+        index.put(canonicalJson, 42L);
+        assertEquals(Long.valueOf(42L), index.getSchemaId(index.canonicalJson(new Schema.Parser().parse(RECORD))));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void test_getSchemaId_rabinCollidingSchemaIsUnknown() {
+        final Schema alpha = new Schema.Parser().parse(COLLIDING_RECORD);
+        final Schema colliding = new Schema.Parser().parse(COLLIDING_RECORD.replace("EVENT_PARAM_ALPHA_VALUE", "EVENT_PARAM_iLPHA_VAlUE"));
+        final RabinHashFunction hashFunction = new RabinHashFunction();
+        assertEquals(hashFunction.hash(alpha.toString()), hashFunction.hash(colliding.toString()));
+
+        index.put(index.canonicalJson(alpha), 42L);
+
+        assertNull(index.getSchemaId(index.canonicalJson(colliding)));
+    }
+}
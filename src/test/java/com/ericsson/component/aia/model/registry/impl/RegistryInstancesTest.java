@@ -0,0 +1,145 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class RegistryInstancesTest {
+
+    private static final String FIRST = "http://first:8081";
+    private static final String SECOND = "http://second:8081";
+
+    private final FakeTicker ticker = new FakeTicker();
+    private final RegistryInstances instances = new RegistryInstances(Arrays.asList(FIRST, SECOND), 90, 2, 30000, ticker);
+
+    @Test
+    public void test_parseBaseUrls() {
+        assertEquals(Arrays.asList(FIRST, SECOND), RegistryInstances.parseBaseUrls(" " + FIRST + ", " + SECOND + ","));
+    }
+
+    @Test
+    public void test_ranked_unmeasuredInstancesInConfiguredOrder() {
+        assertEquals(Arrays.asList(FIRST, SECOND), instances.ranked());
+    }
+
+    @Test
+    public void test_ranked_fasterInstanceFirst() {
+        answer(FIRST, 50);
+        answer(SECOND, 5);
+        assertEquals(Arrays.asList(SECOND, FIRST), instances.ranked());
+    }
+
+    @Test
+    public void test_ranked_busyInstanceLast() {
+        answer(FIRST, 5);
+        answer(SECOND, 8);
+        instances.onStart(FIRST);
+        instances.onStart(FIRST);
+        assertEquals(Arrays.asList(SECOND, FIRST), instances.ranked());
+        instances.onAnswer(FIRST, TimeUnit.MILLISECONDS.toNanos(5));
+        instances.onAnswer(FIRST, TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(Arrays.asList(FIRST, SECOND), instances.ranked());
+    }
+
+    @Test
+    public void test_ranked_failingInstanceQuarantined() {
+        answer(SECOND, 50);
+        failure(FIRST);
+        failure(FIRST);
+        assertEquals(Arrays.asList(SECOND, FIRST), instances.ranked());
+        ticker.advance(29, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(SECOND, FIRST), instances.ranked());
+        ticker.advance(1, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(FIRST, SECOND), instances.ranked());
+    }
+
+    @Test
+    public void test_ranked_failingInstanceRankedAfterAnsweringInstance() {
+        answer(FIRST, 5);
+        answer(SECOND, 50);
+        failure(FIRST);
+        assertEquals(Arrays.asList(SECOND, FIRST), instances.ranked());
+        answer(FIRST, 5);
+        assertEquals(Arrays.asList(FIRST, SECOND), instances.ranked());
+    }
+
+    @Test
+    public void test_ranked_unansweredInstanceRankedAfterAnsweringInstance() {
+        failure(FIRST);
+        answer(SECOND, 50);
+        assertEquals(Arrays.asList(SECOND, FIRST), instances.ranked());
+    }
+
+    @Test
+    public void test_ranked_answerResetsFailureCount() {
+        failure(FIRST);
+        answer(FIRST, 5);
+        failure(FIRST);
+        answer(FIRST, 5);
+        answer(SECOND, 50);
+        assertEquals(Arrays.asList(FIRST, SECOND), instances.ranked());
+    }
+
+    @Test
+    public void test_getHedgeDelayNanos_percentileOfLatestLatencies() {
+        assertEquals(-1, instances.getHedgeDelayNanos());
+        for (int latency = 1; latency <= 20; latency++) {
+            answer(latency % 2 == 0 ? FIRST : SECOND, latency);
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(18), instances.getHedgeDelayNanos());
+    }
+
+    @Test
+    public void test_getHedgeDelayNanos_disabled() {
+        final RegistryInstances unhedged = new RegistryInstances(Arrays.asList(FIRST, SECOND), 0, 2, 30000, ticker);
+        final RegistryInstances single = new RegistryInstances(Arrays.asList(FIRST), 90, 2, 30000, ticker);
+        for (int i = 0; i < 20; i++) {
+            unhedged.onStart(FIRST);
+            unhedged.onAnswer(FIRST, 1);
+            single.onStart(FIRST);
+            single.onAnswer(FIRST, 1);
+        }
+        assertEquals(-1, unhedged.getHedgeDelayNanos());
+        assertEquals(-1, single.getHedgeDelayNanos());
+    }
+
+    private void answer(final String baseUrl, final long latencyMillis) {
+        instances.onStart(baseUrl);
+        instances.onAnswer(baseUrl, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+    }
+
+    private void failure(final String baseUrl) {
+        instances.onStart(baseUrl);
+        instances.onFailure(baseUrl);
+    }
+
+    private static final class FakeTicker extends Ticker {
+
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(final long duration, final TimeUnit unit) {
+            nanos += unit.toNanos(duration);
+        }
+    }
+}
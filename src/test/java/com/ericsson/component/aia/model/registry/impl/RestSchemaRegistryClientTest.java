@@ -11,21 +11,32 @@
  *----------------------------------------------------------------------------*/
 package com.ericsson.component.aia.model.registry.impl;
 
+import static com.ericsson.component.aia.model.registry.testutils.TestConstants.SAMPLE_SCHEMA1_SUBJECT;
 import static com.ericsson.component.aia.model.registry.testutils.TestConstants.SAMPLE_SCHEMA_FILEPATH;
 import static com.ericsson.component.aia.model.registry.testutils.TestConstants.UNAVAILABLE_SCHEMA_REGISTRY_URL;
 import static com.ericsson.component.aia.model.registry.testutils.TestUtil.createRestSchemaRegistryClient;
+import static com.ericsson.component.aia.model.registry.utils.Constants.REST_SCHEMA_REGISTRY_CLIENT_SNAPSHOT_FILE_PARAMETER;
 import static com.ericsson.component.aia.model.registry.utils.Constants.SCHEMA_REGISTRY_ADDRESS_PARAMETER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.avro.Schema;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 import com.ericsson.component.aia.model.registry.exception.SchemaRegistrationException;
 import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
 
@@ -69,16 +80,51 @@ public class RestSchemaRegistryClientTest {
         client.put(schema);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void test_idFor_nullSchema() throws SchemaRetrievalException {
+        client.idFor(null);
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_idFor_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException, IOException {
+        client.idFor(new Schema.Parser().parse(schemaFile));
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_getSchemaBySubjectAndVersion_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
+        client.lookup(SAMPLE_SCHEMA1_SUBJECT, 1);
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_subjectOf_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
+        client.subjectOf(0L);
+    }
+
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_versions_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
+        client.versions(SAMPLE_SCHEMA1_SUBJECT);
+    }
+
     @Test(expected = SchemaRetrievalException.class)
     public void test_getSchemaById_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
         client.lookup(0L);
     }
 
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_lookupRaw_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
+        client.lookupRaw(0L);
+    }
+
     @Test(expected = SchemaRetrievalException.class)
     public void test_getAllSchemas_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
         client.getAllSchemas();
     }
 
+    @Test(expected = SchemaRetrievalException.class)
+    public void test_syncAllSchemas_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
+        client.syncAllSchemas();
+    }
+
     @Test(expected = SchemaRetrievalException.class)
     public void test_getSchemasByEventIds_whenSchemaRegistryIsUnavailable() throws SchemaRetrievalException {
         client.getSchemasByEventIds(new ArrayList<Integer>());
@@ -100,4 +146,47 @@ public class RestSchemaRegistryClientTest {
             assertTrue(e.getCause() instanceof IOException);
         }
     }
+
+    @Test
+    public void test_lookupAsync_whenSchemaRegistryIsUnavailable() throws InterruptedException {
+        client.setAsyncExecutor(MoreExecutors.directExecutor());
+        try {
+            client.lookupAsync(0L).get();
+            fail("Expected lookup against an unavailable registry to fail");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof SchemaRetrievalException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_putAsync_nullSchema() {
+        client.putAsync(null);
+    }
+
+    @Test
+    public void test_lookup_servedFromSnapshotWhenSchemaRegistryIsUnavailable() throws IOException, SchemaRetrievalException {
+        final Path snapshotFile = Paths.get("target", "snapshots", "RestSchemaRegistryClientTest.snapshot");
+        final Schema schema = new Schema.Parser().parse(schemaFile);
+        new SchemaSnapshot(Collections.singletonMap(7L, schema), Collections.singletonMap(SAMPLE_SCHEMA1_SUBJECT, new RegisteredSchema(7L,
+                schema))).writeTo(snapshotFile);
+        final Properties properties = new Properties();
+        properties.put(SCHEMA_REGISTRY_ADDRESS_PARAMETER, UNAVAILABLE_SCHEMA_REGISTRY_URL);
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_SNAPSHOT_FILE_PARAMETER, snapshotFile.toString());
+
+        final RestSchemaRegistryClient warmClient = new RestSchemaRegistryClient(properties);
+
+        try {
+            assertEquals(schema, warmClient.lookup(7L));
+            final RegisteredSchema lastKnownSchema = warmClient.lookup(SAMPLE_SCHEMA1_SUBJECT);
+            assertEquals(7L, lastKnownSchema.getSchemaId());
+            assertTrue(lastKnownSchema.isStale());
+        } finally {
+            warmClient.close();
+        }
+    }
+
+    @Test
+    public void test_saveSnapshot_withoutSnapshotFile() throws IOException {
+        assertFalse(client.saveSnapshot());
+    }
 }
@@ -0,0 +1,153 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+public class RetryPolicyTest {
+
+    private final List<Long> sleeps = new ArrayList<>();
+    private final RetryPolicy.Sleeper sleeper = new RetryPolicy.Sleeper() {
+        @Override
+        public void sleep(final long millis) {
+            sleeps.add(millis);
+        }
+    };
+    private final RetryPolicy retryPolicy = new RetryPolicy(3, 100, 150, 20, sleeper);
+
+    @Test
+    public void test_call_retriesTransientFailures() throws Exception {
+        final FailingRequest request = new FailingRequest(new IOException("Connection reset"),
+                new RestClientException("Error in the backend data store", 500, 50001));
+        assertEquals("answer", retryPolicy.call(request));
+        assertEquals(3, request.attempts);
+        assertEquals(2, sleeps.size());
+        assertTrue(sleeps.get(0) >= 0 && sleeps.get(0) <= 100);
+        assertTrue(sleeps.get(1) >= 0 && sleeps.get(1) <= 150);
+    }
+
+    @Test
+    public void test_call_givesUpAfterMaxAttempts() throws Exception {
+        final IOException lastFailure = new IOException("Connection refused");
+        final FailingRequest request = new FailingRequest(new IOException("Connection refused"), new IOException("Connection refused"),
+                lastFailure);
+        try {
+            retryPolicy.call(request);
+            fail("Expected the last failure to be thrown");
+        } catch (final IOException e) {
+            assertSame(lastFailure, e);
+        }
+        assertEquals(3, request.attempts);
+    }
+
+    @Test
+    public void test_call_permanentErrorsAreNotRetried() throws Exception {
+        final FailingRequest request = new FailingRequest(new RestClientException("Subject not found", 404, 40401));
+        try {
+            retryPolicy.call(request);
+            fail("Expected the error to be thrown");
+        } catch (final RestClientException e) {
+            assertEquals(40401, e.getErrorCode());
+        }
+        assertEquals(1, request.attempts);
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    public void test_isRetryable() {
+        assertTrue(RetryPolicy.isRetryable(new IOException("Connection reset")));
+        assertTrue(RetryPolicy.isRetryable(new RestClientException("Request timeout", 408, 408)));
+        assertTrue(RetryPolicy.isRetryable(new RestClientException("Too many requests", 429, 429)));
+        assertTrue(RetryPolicy.isRetryable(new RestClientException("Service unavailable", 503, 50003)));
+        assertFalse(RetryPolicy.isRetryable(new RestClientException("Invalid schema", 422, 42201)));
+        assertFalse(RetryPolicy.isRetryable(new CircuitOpenException("Circuit open")));
+        assertFalse(RetryPolicy.isRetryable(new InterruptedIOException()));
+    }
+
+    @Test
+    public void test_call_retriesStopWhenBudgetIsSpent() throws Exception {
+        final RetryPolicy unfundedRetryPolicy = new RetryPolicy(2, 0, 0, 0, sleeper);
+        for (int i = 0; i < RetryPolicy.BUDGET_RESERVE; i++) {
+            assertEquals("answer", unfundedRetryPolicy.call(new FailingRequest(new IOException("Connection reset"))));
+        }
+        final FailingRequest request = new FailingRequest(new IOException("Connection reset"));
+        try {
+            unfundedRetryPolicy.call(request);
+            fail("Expected the failure to be thrown once the budget is spent");
+        } catch (final IOException e) {
+            assertEquals(1, request.attempts);
+        }
+    }
+
+    @Test
+    public void test_call_requestsRefillBudget() throws Exception {
+        final RetryPolicy fundedRetryPolicy = new RetryPolicy(2, 0, 0, 50, sleeper);
+        for (int i = 0; i < RetryPolicy.BUDGET_RESERVE; i++) {
+            fundedRetryPolicy.call(new FailingRequest(new IOException("Connection reset")));
+        }
+        assertEquals(4.5, fundedRetryPolicy.getBudget(), 0.001);
+        for (int i = 0; i < 100; i++) {
+            fundedRetryPolicy.call(new FailingRequest());
+        }
+        assertEquals(RetryPolicy.BUDGET_RESERVE, fundedRetryPolicy.getBudget(), 0.001);
+    }
+
+    @Test
+    public void test_call_interruptedWhileWaiting() throws Exception {
+        final RetryPolicy interruptedRetryPolicy = new RetryPolicy(3, 100, 100, 20, new RetryPolicy.Sleeper() {
+            @Override
+            public void sleep(final long millis) throws InterruptedException {
+                throw new InterruptedException();
+            }
+        });
+        try {
+            interruptedRetryPolicy.call(new FailingRequest(new IOException("Connection reset")));
+            fail("Expected the interruption to be reported");
+        } catch (final InterruptedIOException e) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    /**
+     * Request failing with the specified exceptions, then answering.
+     */
+    private static final class FailingRequest implements RegistryRequest<String> {
+
+        private final Exception[] failures;
+        private int attempts;
+
+        private FailingRequest(final Exception... failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public String send() throws IOException, RestClientException {
+            final int attempt = attempts++;
+            if (attempt < failures.length) {
+                if (failures[attempt] instanceof IOException) {
+                    throw (IOException) failures[attempt];
+                }
+                throw (RestClientException) failures[attempt];
+            }
+            return "answer";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.junit.Test;
+
+public class SchemaIdIndexTest {
+
+    private static final int MAX_ID = 1000;
+    private final Schema stringSchema = Schema.create(Type.STRING);
+    private final Schema longSchema = Schema.create(Type.LONG);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_SchemaIdIndex_negativeMaxId() {
+        new SchemaIdIndex(-1);
+    }
+
+    @Test
+    public void test_get_emptyIndex() {
+        final SchemaIdIndex index = new SchemaIdIndex(MAX_ID);
+        assertNull(index.get(0L));
+        assertNull(index.get(-1L));
+        assertNull(index.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void test_put_storesSchemaUnderId() {
+        final SchemaIdIndex index = new SchemaIdIndex(MAX_ID);
+        assertTrue(index.put(1L, stringSchema));
+        assertTrue(index.put(500L, longSchema));
+        assertSame(stringSchema, index.get(1L));
+        assertSame(longSchema, index.get(500L));
+        assertNull(index.get(2L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void test_put_idsOutsideRangeAreIgnored() {
+        final SchemaIdIndex index = new SchemaIdIndex(MAX_ID);
+        assertFalse(index.put(-1L, stringSchema));
+        assertFalse(index.put(MAX_ID + 1L, stringSchema));
+        assertTrue(index.put(MAX_ID, stringSchema));
+        assertNull(index.get(MAX_ID + 1L));
+        assertSame(stringSchema, index.get(MAX_ID));
+    }
+
+    @Test
+    public void test_remove() {
+        final SchemaIdIndex index = new SchemaIdIndex(MAX_ID);
+        index.put(3L, stringSchema);
+        assertSame(stringSchema, index.remove(3L));
+        assertNull(index.remove(3L));
+        assertNull(index.get(3L));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void test_clear() {
+        final SchemaIdIndex index = new SchemaIdIndex(MAX_ID);
+        index.put(3L, stringSchema);
+        index.clear();
+        assertNull(index.get(3L));
+        assertEquals(0, index.size());
+    }
+}
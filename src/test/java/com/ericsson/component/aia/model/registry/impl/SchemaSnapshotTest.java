@@ -0,0 +1,120 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static com.ericsson.component.aia.model.registry.testutils.TestConstants.SAMPLE_SCHEMA1_SUBJECT;
+import static com.ericsson.component.aia.model.registry.testutils.TestConstants.SAMPLE_SCHEMA_FILEPATH;
+import static com.ericsson.component.aia.model.registry.testutils.TestConstants.SAMPLE_SCHEMA_TWO_FILEPATH;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SchemaSnapshotTest {
+
+    private static final int HEADER_LENGTH = 20;
+    private static final int BODY_LENGTH_OFFSET = 16;
+    private static final Path SNAPSHOT_FILE = Paths.get("target", "snapshots", "SchemaSnapshotTest.snapshot");
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+    private Schema schema1;
+    private Schema schema2;
+
+    @Before
+    public void before() throws IOException {
+        Files.deleteIfExists(SNAPSHOT_FILE);
+        schema1 = new Schema.Parser().parse(new File(classLoader.getResource(SAMPLE_SCHEMA_FILEPATH).getFile()));
+        schema2 = new Schema.Parser().parse(new File(classLoader.getResource(SAMPLE_SCHEMA_TWO_FILEPATH).getFile()));
+    }
+
+    @Test
+    public void test_readFrom_returnsWrittenSchemas() throws IOException {
+        final Map<Long, Schema> schemasById = new HashMap<>();
+        schemasById.put(1L, schema1);
+        schemasById.put(2L, schema2);
+        new SchemaSnapshot(schemasById, Collections.singletonMap(SAMPLE_SCHEMA1_SUBJECT, new RegisteredSchema(1L, schema1)))
+                .writeTo(SNAPSHOT_FILE);
+
+        final SchemaSnapshot snapshot = SchemaSnapshot.readFrom(SNAPSHOT_FILE);
+
+        assertEquals(schemasById, snapshot.getSchemasById());
+        final RegisteredSchema registeredSchema = snapshot.getSchemasBySubject().get(SAMPLE_SCHEMA1_SUBJECT);
+        assertEquals(1L, registeredSchema.getSchemaId());
+        assertSame(snapshot.getSchemasById().get(1L), registeredSchema.getSchema());
+    }
+
+    @Test
+    public void test_writeTo_lazySubjectIsWrittenWithoutParsing() throws IOException {
+        final LazyRegisteredSchema lazySchema = new LazyRegisteredSchema(2L, schema2.toString().getBytes(UTF_8));
+        new SchemaSnapshot(Collections.<Long, Schema> emptyMap(), Collections.<String, RegisteredSchema> singletonMap(SAMPLE_SCHEMA1_SUBJECT,
+                lazySchema)).writeTo(SNAPSHOT_FILE);
+
+        assertFalse(lazySchema.isParsed());
+        final RegisteredSchema registeredSchema = SchemaSnapshot.readFrom(SNAPSHOT_FILE).getSchemasBySubject().get(SAMPLE_SCHEMA1_SUBJECT);
+        assertEquals(2L, registeredSchema.getSchemaId());
+        assertEquals(schema2, registeredSchema.getSchema());
+    }
+
+    @Test
+    public void test_readFrom_corruptSnapshotIsRejected() throws IOException {
+        new SchemaSnapshot(Collections.singletonMap(1L, schema1), Collections.<String, RegisteredSchema> emptyMap()).writeTo(SNAPSHOT_FILE);
+        try (final RandomAccessFile file = new RandomAccessFile(SNAPSHOT_FILE.toFile(), "rw")) {
+            final long middle = HEADER_LENGTH + (file.length() - HEADER_LENGTH) / 2;
+            file.seek(middle);
+            final int original = file.read();
+            file.seek(middle);
+            file.write(~original);
+        }
+        try {
+            SchemaSnapshot.readFrom(SNAPSHOT_FILE);
+            fail("Expected corrupt snapshot to be rejected");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains(SNAPSHOT_FILE.toString()));
+        }
+    }
+
+    @Test
+    public void test_readFrom_corruptBodyLengthIsRejected() throws IOException {
+        for (final int bodyLength : new int[] { -1, Integer.MAX_VALUE }) {
+            new SchemaSnapshot(Collections.singletonMap(1L, schema1), Collections.<String, RegisteredSchema> emptyMap()).writeTo(SNAPSHOT_FILE);
+            try (final RandomAccessFile file = new RandomAccessFile(SNAPSHOT_FILE.toFile(), "rw")) {
+                file.seek(BODY_LENGTH_OFFSET);
+                file.writeInt(bodyLength);
+            }
+            try {
+                SchemaSnapshot.readFrom(SNAPSHOT_FILE);
+                fail("Expected snapshot with body length " + bodyLength + " to be rejected");
+            } catch (final IOException e) {
+                assertTrue(e.getMessage().contains(SNAPSHOT_FILE.toString()));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void test_readFrom_fileThatIsNotASnapshotIsRejected() throws IOException {
+        Files.createDirectories(SNAPSHOT_FILE.getParent());
+        Files.write(SNAPSHOT_FILE, "{\"type\":\"string\"}".getBytes("UTF-8"));
+        SchemaSnapshot.readFrom(SNAPSHOT_FILE);
+    }
+}
@@ -0,0 +1,113 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.Test;
+
+public class SharedSchemaRegionTest {
+
+    private static final Path REGION_DIRECTORY = Paths.get("target", "shared-regions");
+    private static final byte[] RAW_SCHEMA = "{\"type\":\"record\",\"name\":\"Foo\",\"fields\":[]}".getBytes(UTF_8);
+
+    @Test
+    public void test_get_returnsPutSchema() throws IOException {
+        final SharedSchemaRegion region = SharedSchemaRegion.open(newRegionFile("roundTrip"), 4096);
+
+        assertTrue(region.put(1L, RAW_SCHEMA));
+
+        assertArrayEquals(RAW_SCHEMA, region.get(1L));
+        assertNull(region.get(2L));
+        assertEquals(1, region.size());
+    }
+
+    @Test
+    public void test_open_sameFileSharesRegion() throws IOException {
+        final Path file = newRegionFile("sameFile");
+        final SharedSchemaRegion region = SharedSchemaRegion.open(file, 4096);
+        region.put(1L, RAW_SCHEMA);
+
+        final SharedSchemaRegion reopened = SharedSchemaRegion.open(file.toAbsolutePath(), 4096);
+
+        assertSame(region, reopened);
+        assertArrayEquals(RAW_SCHEMA, reopened.get(1L));
+    }
+
+    @Test
+    public void test_put_whenRegionIsFull() throws IOException {
+        final SharedSchemaRegion region = SharedSchemaRegion.open(newRegionFile("full"), 4096);
+
+        assertFalse(region.put(1L, new byte[4096]));
+
+        assertTrue(region.put(2L, RAW_SCHEMA));
+        assertNull(region.get(1L));
+    }
+
+    @Test(expected = IOException.class)
+    public void test_open_fileWhichIsNotARegion() throws IOException {
+        final Path file = newRegionFile("notARegion");
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+            randomAccessFile.writeInt(0xCAFEBABE);
+            randomAccessFile.setLength(4096);
+        }
+
+        SharedSchemaRegion.open(file, 4096);
+    }
+
+    @Test
+    public void test_open_createsFileReadableByOwnerOnly() throws IOException {
+        final Path file = newRegionFile("ownerOnly");
+
+        SharedSchemaRegion.open(file, 4096);
+
+        if (isPosix(file)) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+        }
+    }
+
+    @Test
+    public void test_open_refusesFileWritableByOthers() throws IOException {
+        final Path file = newRegionFile("writableByOthers");
+        if (!isPosix(file)) {
+            return;
+        }
+        Files.createFile(file);
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-rw-rw-"));
+
+        try {
+            SharedSchemaRegion.open(file, 4096);
+            fail("Expected a file writable by other users to be refused");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("writable by other users"));
+        }
+    }
+
+    private static boolean isPosix(final Path file) {
+        return file.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static Path newRegionFile(final String name) throws IOException {
+        Files.createDirectories(REGION_DIRECTORY);
+        final Path file = REGION_DIRECTORY.resolve("SharedSchemaRegionTest-" + name + "-" + System.nanoTime() + ".region");
+        Files.deleteIfExists(file);
+        return file;
+    }
+}
@@ -0,0 +1,120 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.exception.SchemaRetrievalException;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+    private static final String KEY = "subject";
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void test_execute_concurrentCallersShareOneCall() throws Exception {
+        final List<Future<String>> results = submitCallers(new RegistryCall<String, SchemaRetrievalException>() {
+            @Override
+            public String call() throws SchemaRetrievalException {
+                invocations.incrementAndGet();
+                awaitRelease();
+                return "value";
+            }
+        });
+        release.countDown();
+        for (final Future<String> result : results) {
+            assertEquals("value", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, invocations.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    public void test_execute_concurrentCallersShareOneFailure() throws Exception {
+        final List<Future<String>> results = submitCallers(new RegistryCall<String, SchemaRetrievalException>() {
+            @Override
+            public String call() throws SchemaRetrievalException {
+                invocations.incrementAndGet();
+                awaitRelease();
+                throw new SchemaRetrievalException("not found");
+            }
+        });
+        release.countDown();
+        for (final Future<String> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("Expected the shared failure to be rethrown to every caller");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof SchemaRetrievalException);
+            }
+        }
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    public void test_execute_sequentialCallsAreNotShared() throws SchemaRetrievalException {
+        final RegistryCall<String, SchemaRetrievalException> call = new RegistryCall<String, SchemaRetrievalException>() {
+            @Override
+            public String call() {
+                return String.valueOf(invocations.incrementAndGet());
+            }
+        };
+        assertEquals("1", singleFlight.execute(KEY, call));
+        assertEquals("2", singleFlight.execute(KEY, call));
+    }
+
+    private List<Future<String>> submitCallers(final RegistryCall<String, SchemaRetrievalException> call) throws InterruptedException {
+        final List<Future<String>> results = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    started.countDown();
+                    return singleFlight.execute(KEY, call);
+                }
+            }));
+        }
+        started.await(10, TimeUnit.SECONDS);
+        while (invocations.get() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        return results;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
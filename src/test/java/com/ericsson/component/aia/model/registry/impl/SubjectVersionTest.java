@@ -0,0 +1,32 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SubjectVersionTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_SubjectVersion_nullSubject() {
+        new SubjectVersion(null, 1);
+    }
+
+    @Test
+    public void test_equals_sameSubjectAndVersion() {
+        assertEquals(new SubjectVersion("foo.Bar", 1), new SubjectVersion("foo.Bar", 1));
+        assertEquals(new SubjectVersion("foo.Bar", 1).hashCode(), new SubjectVersion("foo.Bar", 1).hashCode());
+        assertFalse(new SubjectVersion("foo.Bar", 1).equals(new SubjectVersion("foo.Bar", 2)));
+        assertFalse(new SubjectVersion("foo.Bar", 1).equals(new SubjectVersion("foo.Baz", 1)));
+    }
+}
@@ -0,0 +1,62 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SubjectVersionsTest {
+
+    private static final byte[] RAW_SCHEMA = "\"int\"".getBytes();
+
+    @Test
+    public void test_get_findsVersionsAddedOutOfOrder() {
+        final RegisteredSchema version1 = new LazyRegisteredSchema(30L, RAW_SCHEMA);
+        final RegisteredSchema version3 = new LazyRegisteredSchema(10L, RAW_SCHEMA);
+        final RegisteredSchema version2 = new LazyRegisteredSchema(20L, RAW_SCHEMA);
+        final SubjectVersions versions = SubjectVersions.EMPTY.with(3, version3).with(1, version1).with(2, version2);
+
+        assertSame(version1, versions.get(1));
+        assertSame(version2, versions.get(2));
+        assertSame(version3, versions.get(3));
+        assertNull(versions.get(4));
+        assertEquals(3, versions.latestVersion());
+        assertEquals(3, versions.size());
+    }
+
+    @Test
+    public void test_versionOf_findsVersionBySchemaId() {
+        final SubjectVersions versions = SubjectVersions.EMPTY.with(1, new LazyRegisteredSchema(30L, RAW_SCHEMA))
+                .with(2, new LazyRegisteredSchema(10L, RAW_SCHEMA));
+
+        assertEquals(1, versions.versionOf(30L));
+        assertEquals(2, versions.versionOf(10L));
+        assertEquals(-1, versions.versionOf(20L));
+    }
+
+    @Test
+    public void test_with_keepsExistingVersion() {
+        final RegisteredSchema schema = new LazyRegisteredSchema(10L, RAW_SCHEMA);
+        final SubjectVersions versions = SubjectVersions.EMPTY.with(1, schema);
+
+        assertSame(versions, versions.with(1, new LazyRegisteredSchema(10L, RAW_SCHEMA)));
+        assertSame(schema, versions.get(1));
+    }
+
+    @Test
+    public void test_EMPTY_holdsNoVersion() {
+        assertNull(SubjectVersions.EMPTY.get(1));
+        assertEquals(-1, SubjectVersions.EMPTY.latestVersion());
+        assertEquals(-1, SubjectVersions.EMPTY.versionOf(1L));
+    }
+}
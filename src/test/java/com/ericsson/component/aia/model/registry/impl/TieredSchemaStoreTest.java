@@ -0,0 +1,137 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.impl;
+
+import static org.junit.Assert.*;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+
+import com.ericsson.component.aia.model.registry.utils.SchemaFootprint;
+import com.ericsson.component.aia.model.registry.utils.SchemaInterner;
+
+public class TieredSchemaStoreTest {
+
+    private static final int MAX_ID = 1000;
+    private static final long COLD_MAXIMUM_BYTES = 1 << 20;
+
+    private final Schema schema1 = record("EventOne");
+    private final Schema schema2 = record("EventTwo");
+    private final Schema schema3 = record("EventThree");
+
+    @Test
+    public void test_put_demotesUnreferencedSchemaWhenHotTierIsFull() {
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 2, 0, new DeflatedSchemaTier(COLD_MAXIMUM_BYTES), new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+        store.get(1L);
+
+        store.put(3L, schema3);
+
+        final SchemaTierStats stats = store.stats();
+        assertEquals(2, stats.getHotSize());
+        assertEquals(1, stats.getColdSize());
+        assertEquals(1, stats.getDemotionCount());
+        assertTrue(stats.getColdBytes() > 0);
+        assertSame(schema1, store.get(1L));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void test_get_promotesDemotedSchema() {
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 1, 0, new DeflatedSchemaTier(COLD_MAXIMUM_BYTES), new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+
+        final Schema promoted = store.get(1L);
+
+        assertEquals(schema1, promoted);
+        assertEquals(schema1.toString(), promoted.toString());
+        assertSame(promoted, store.get(1L));
+        final SchemaTierStats stats = store.stats();
+        assertEquals(1, stats.getPromotionCount());
+        assertEquals(2, stats.getDemotionCount());
+        assertEquals(1, stats.getHotSize());
+        assertEquals(1, stats.getColdSize());
+    }
+
+    @Test
+    public void test_put_withoutHotTierLimitNothingIsDemoted() {
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 0, 0, new DeflatedSchemaTier(COLD_MAXIMUM_BYTES), new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+        store.put(3L, schema3);
+
+        assertEquals(3, store.stats().getHotSize());
+        assertEquals(0, store.stats().getDemotionCount());
+        assertSame(schema3, store.get(3L));
+    }
+
+    @Test
+    public void test_put_demotesUnreferencedSchemaWhenHotTierExceedsMaximumBytes() {
+        final long hotMaximumBytes = SchemaFootprint.estimate(schema1) + SchemaFootprint.estimate(schema2) + SchemaFootprint.estimate(schema3) - 1;
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 0, hotMaximumBytes, new DeflatedSchemaTier(COLD_MAXIMUM_BYTES),
+                new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+        store.get(1L);
+
+        store.put(3L, schema3);
+
+        final SchemaTierStats stats = store.stats();
+        assertEquals(2, stats.getHotSize());
+        assertEquals(1, stats.getDemotionCount());
+        assertSame(schema1, store.get(1L));
+        assertSame(schema3, store.get(3L));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void test_get_schemaDroppedFromFullColdTier() {
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 1, 0, new DeflatedSchemaTier(0), new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+
+        assertNull(store.get(1L));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void test_get_promotesSchemaHeldOffHeap() {
+        final OffHeapSchemaArena arena = new OffHeapSchemaArena(COLD_MAXIMUM_BYTES);
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 1, 0, arena, new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+
+        assertEquals(schema1, store.get(1L));
+
+        assertEquals(2, arena.size());
+        assertEquals(1, store.stats().getPromotionCount());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void test_entries_includesColdSchemas() {
+        final TieredSchemaStore store = new TieredSchemaStore(MAX_ID, 1, 0, new DeflatedSchemaTier(COLD_MAXIMUM_BYTES), new SchemaInterner());
+        store.put(1L, schema1);
+        store.put(2L, schema2);
+
+        assertEquals(schema1, store.entries().get(1L));
+        assertSame(schema2, store.entries().get(2L));
+        assertEquals(0, store.stats().getPromotionCount());
+    }
+
+    private static Schema record(final String name) {
+        return new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"" + name + "\",\"namespace\":\"celltrace\",\"doc\":\"A test event\","
+                + "\"fields\":[{\"name\":\"count\",\"type\":\"int\"},{\"name\":\"ne\",\"type\":\"string\"}]}");
+    }
+}
@@ -0,0 +1,88 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.utils;
+
+import static org.junit.Assert.*;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+
+public class SchemaInternerTest {
+
+    private static final String HEADER = "{\"type\":\"record\",\"name\":\"Header\",\"fields\":[{\"name\":\"ne\",\"type\":\"string\"},"
+            + "{\"name\":\"state\",\"type\":{\"type\":\"enum\",\"name\":\"State\",\"symbols\":[\"UP\",\"DOWN\"]}}]}";
+    private static final String EVENT_ONE = "{\"type\":\"record\",\"name\":\"EventOne\",\"namespace\":\"celltrace\",\"fields\":["
+            + "{\"name\":\"header\",\"type\":" + HEADER + "},{\"name\":\"count\",\"type\":\"int\"}]}";
+    private static final String EVENT_TWO = "{\"type\":\"record\",\"name\":\"EventTwo\",\"namespace\":\"celltrace\",\"fields\":["
+            + "{\"name\":\"header\",\"type\":" + HEADER + "},{\"name\":\"items\",\"type\":{\"type\":\"array\",\"items\":\"long\"}}]}";
+
+    private final SchemaInterner interner = new SchemaInterner();
+
+    @Test
+    public void test_intern_sharesIdenticalNamedTypesAcrossSchemas() {
+        final Schema eventOne = interner.intern(new Schema.Parser().parse(EVENT_ONE));
+        final Schema eventTwo = interner.intern(new Schema.Parser().parse(EVENT_TWO));
+
+        assertSame(eventOne.getField("header").schema(), eventTwo.getField("header").schema());
+        assertEquals(1, interner.getSharedCount());
+        assertTrue(interner.getEstimatedBytesSaved() > 0);
+    }
+
+    @Test
+    public void test_intern_preservesStructure() {
+        interner.intern(new Schema.Parser().parse(EVENT_ONE));
+        final Schema parsed = new Schema.Parser().parse(EVENT_TWO);
+
+        final Schema interned = interner.intern(parsed);
+
+        assertNotSame(parsed, interned);
+        assertEquals(parsed, interned);
+        assertEquals(parsed.toString(), interned.toString());
+    }
+
+    @Test
+    public void test_intern_schemaWithoutSharedTypesIsReturnedUnchanged() {
+        final Schema parsed = new Schema.Parser().parse(EVENT_ONE);
+
+        assertSame(parsed, interner.intern(parsed));
+        assertSame(parsed, interner.intern(new Schema.Parser().parse(EVENT_ONE)));
+        assertEquals(1, interner.getSharedCount());
+    }
+
+    @Test
+    public void test_intern_typesDifferingOnlyInDocAreNotShared() {
+        final Schema eventOne = interner.intern(new Schema.Parser().parse(EVENT_ONE));
+        final Schema documented = new Schema.Parser().parse(EVENT_TWO.replace("\"name\":\"Header\",", "\"name\":\"Header\",\"doc\":\"ne header\","));
+
+        final Schema interned = interner.intern(documented);
+
+        assertNotSame(eventOne.getField("header").schema(), interned.getField("header").schema());
+        assertEquals(documented.toString(), interned.toString());
+    }
+
+    @Test
+    public void test_intern_typesDifferingOnlyInAliasesAreNotShared() {
+        final Schema eventOne = interner.intern(new Schema.Parser().parse(EVENT_ONE));
+        final Schema aliased = new Schema.Parser().parse(EVENT_TWO.replace("{\"name\":\"ne\",", "{\"name\":\"ne\",\"aliases\":[\"node\"],"));
+
+        final Schema interned = interner.intern(aliased);
+
+        assertNotSame(eventOne.getField("header").schema(), interned.getField("header").schema());
+        assertEquals(aliased.toString(), interned.toString());
+        assertEquals(1, interned.getField("header").schema().getField("ne").aliases().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_intern_nullSchema() {
+        interner.intern(null);
+    }
+}
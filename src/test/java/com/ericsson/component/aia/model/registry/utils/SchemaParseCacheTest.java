@@ -0,0 +1,71 @@
+/*------------------------------------------------------------------------------
+ *******************************************************************************
+ * COPYRIGHT Ericsson 2016
+ *
+ * The copyright to the computer program(s) herein is the property of
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ * permission from Ericsson Inc. or in accordance with the terms and
+ * conditions stipulated in the agreement/contract under which the
+ * program(s) have been supplied.
+ *******************************************************************************
+ *----------------------------------------------------------------------------*/
+package com.ericsson.component.aia.model.registry.utils;
+
+import static org.junit.Assert.*;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+import org.junit.Test;
+
+public class SchemaParseCacheTest {
+
+    private static final String EVENT_ONE = "{\"type\":\"record\",\"name\":\"EventOne\",\"namespace\":\"celltrace\",\"fields\":["
+            + "{\"name\":\"count\",\"type\":\"int\"}]}";
+    private static final String EVENT_TWO = "{\"type\":\"record\",\"name\":\"EventTwo\",\"namespace\":\"celltrace\",\"fields\":["
+            + "{\"name\":\"count\",\"type\":\"int\"}]}";
+
+    private final SchemaParseCache parseCache = new SchemaParseCache(100);
+
+    @Test
+    public void test_parse_identicalTextYieldsSameInstance() {
+        final Schema first = parseCache.parse(EVENT_ONE);
+        final Schema second = parseCache.parse(new String(EVENT_ONE));
+
+        assertSame(first, second);
+        assertEquals(new Schema.Parser().parse(EVENT_ONE), first);
+        assertEquals(1, parseCache.stats().hitCount());
+        assertEquals(1, parseCache.size());
+    }
+
+    @Test
+    public void test_parse_differentTextYieldsDifferentSchemas() {
+        final Schema eventOne = parseCache.parse(EVENT_ONE);
+        final Schema eventTwo = parseCache.parse(EVENT_TWO);
+
+        assertEquals("celltrace.EventOne", eventOne.getFullName());
+        assertEquals("celltrace.EventTwo", eventTwo.getFullName());
+    }
+
+    @Test
+    public void test_parse_rabinCollidingTextYieldsDifferentSchemas() {
+        final String alpha = "{\"type\":\"record\",\"name\":\"INTERNAL_EVENT_X\",\"namespace\":\"celltrace\",\"fields\":["
+                + "{\"name\":\"EVENT_PARAM_ALPHA_VALUE\",\"type\":\"int\"}]}";
+        final String colliding = alpha.replace("EVENT_PARAM_ALPHA_VALUE", "EVENT_PARAM_iLPHA_VAlUE");
+        final RabinHashFunction hashFunction = new RabinHashFunction();
+        assertEquals(hashFunction.hash(alpha), hashFunction.hash(colliding));
+
+        assertEquals("EVENT_PARAM_ALPHA_VALUE", parseCache.parse(alpha).getFields().get(0).name());
+        assertEquals("EVENT_PARAM_iLPHA_VAlUE", parseCache.parse(colliding).getFields().get(0).name());
+        assertEquals(2, parseCache.size());
+    }
+
+    @Test(expected = SchemaParseException.class)
+    public void test_parse_invalidSchema() {
+        parseCache.parse("{\"type\":\"unknown\"}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_parse_nullJson() {
+        parseCache.parse(null);
+    }
+}
@@ -124,4 +124,31 @@ public class UtilsTest {
         checkArgumentIsNumeric("Value Name", noneNumericValue);
     }
 
+    @Test
+    public void test_getSchemaRegistryByteSizeProperty_absoluteSizes() {
+        final Properties properties = new Properties();
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "1024");
+        assertEquals(1024L, getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "0"));
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "64m");
+        assertEquals(64L << 20, getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "0"));
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "2G");
+        assertEquals(2L << 30, getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "0"));
+    }
+
+    @Test
+    public void test_getSchemaRegistryByteSizeProperty_fractionOfMaximumHeap() {
+        final Properties properties = new Properties();
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "50%");
+        assertEquals(Runtime.getRuntime().maxMemory() / 2,
+                getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "0"), 1);
+    }
+
+    @Test
+    public void test_getSchemaRegistryByteSizeProperty_invalidPropertyUsesDefault() {
+        final Properties properties = new Properties();
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "150%");
+        assertEquals(1024L, getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "1k"));
+        properties.put(REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "lots");
+        assertEquals(1024L, getSchemaRegistryByteSizeProperty(properties, REST_SCHEMA_REGISTRY_CLIENT_CACHE_MAX_BYTES_PARAMETER, "1k"));
+    }
 }